@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks;
+
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.SelenideElement;
+import com.haulmont.masquerade.base.SelenideElementWrapper;
+import com.haulmont.masquerade.conditions.Caption;
+import com.haulmont.masquerade.conditions.CaptionContains;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.haulmont.masquerade.Conditions.*;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
+import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
+import static com.leacox.motif.MatchesExact.eq;
+import static com.leacox.motif.Motif.match;
+
+/**
+ * Compares dispatch of SpecificCondition with per-call motif matching and with {@link ConditionTable}.
+ * Cases have the same shape as in CheckBoxImpl, checks do not touch the browser.
+ * <br>
+ * Run with {@code gradlew :masquerade-benchmarks:jmh -Pjmh="ConditionDispatch -prof gc"} to see allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionDispatchBenchmark {
+
+    private static final ConditionTable<CheckBoxStub> CONDITIONS = ConditionTable.<CheckBoxStub>builder()
+            .include(COMPONENT)
+            .when(CHECKED, cb -> cb.checked)
+            .when(SELECTED, cb -> cb.checked)
+            .when(Caption.class, (cb, c) -> cb.caption.equals(c.getCaption()))
+            .when(CaptionContains.class, (cb, cc) -> cb.caption.contains(cc.getCaptionSubstring()))
+            .when(READONLY, cb -> cb.readonly)
+            .when(EDITABLE, cb -> !cb.readonly)
+            .build();
+
+    @Param({"checked", "caption", "editable"})
+    public String condition;
+
+    private Condition specificCondition;
+    private CheckBoxStub checkBox;
+
+    @Setup
+    public void setup() {
+        switch (condition) {
+            case "checked":
+                specificCondition = CHECKED;
+                break;
+            case "caption":
+                specificCondition = new Caption("Remember me");
+                break;
+            case "editable":
+                specificCondition = EDITABLE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported condition " + condition);
+        }
+
+        checkBox = new CheckBoxStub();
+    }
+
+    @Benchmark
+    public boolean motif() {
+        CheckBoxStub cb = checkBox;
+
+        return componentApply(match(specificCondition), cb.getDelegate())
+                .when(eq(CHECKED)).get(() ->
+                        cb.checked
+                )
+                .when(eq(SELECTED)).get(() ->
+                        cb.checked
+                )
+                .when(hasType(Caption.class)).get(c ->
+                        cb.caption.equals(c.getCaption())
+                )
+                .when(hasType(CaptionContains.class)).get(cc ->
+                        cb.caption.contains(cc.getCaptionSubstring())
+                )
+                .when(eq(READONLY)).get(() ->
+                        cb.readonly
+                )
+                .when(eq(EDITABLE)).get(() ->
+                        !cb.readonly
+                )
+                .getMatch();
+    }
+
+    @Benchmark
+    public boolean conditionTable() {
+        return CONDITIONS.apply(checkBox, specificCondition);
+    }
+
+    public static class CheckBoxStub implements SelenideElementWrapper<CheckBoxStub> {
+        private boolean checked = true;
+        private boolean readonly = false;
+        private String caption = "Remember me";
+
+        @Override
+        public SelenideElement getDelegate() {
+            // ENABLED and DISABLED cases are not benchmarked
+            return null;
+        }
+    }
+}
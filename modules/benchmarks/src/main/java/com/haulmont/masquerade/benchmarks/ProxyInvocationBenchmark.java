@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks;
+
+import com.codeborne.selenide.WebDriverRunner;
+import com.haulmont.masquerade.components.Button;
+import com.haulmont.masquerade.components.impl.ButtonImpl;
+import com.haulmont.masquerade.sys.GeneratedProxies;
+import com.haulmont.masquerade.sys.LoggingInvocationHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calls of a component directly, through generated proxy and through JDK proxy with
+ * {@link LoggingInvocationHandler}. {@code getBy} shows overhead of the proxy itself, {@code click} is a
+ * {@code @Log} operation that runs Selenide commands against {@link StubWebDriver}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyInvocationBenchmark {
+
+    private Button direct;
+    private Button generatedProxy;
+    private Button jdkProxy;
+
+    @Setup
+    public void setup() {
+        WebDriverRunner.setWebDriver(new StubWebDriver());
+
+        ButtonImpl target = new ButtonImpl(By.id("okBtn"));
+        LoggingInvocationHandler handler = new LoggingInvocationHandler(Button.class, target);
+
+        direct = target;
+        generatedProxy = GeneratedProxies.createProxy(Button.class, target, handler);
+        jdkProxy = (Button) Proxy.newProxyInstance(Button.class.getClassLoader(),
+                new Class<?>[]{Button.class}, handler);
+    }
+
+    @TearDown
+    public void tearDown() {
+        WebDriverRunner.closeWebDriver();
+    }
+
+    @Benchmark
+    public By directGetBy() {
+        return direct.getBy();
+    }
+
+    @Benchmark
+    public By generatedProxyGetBy() {
+        return generatedProxy.getBy();
+    }
+
+    @Benchmark
+    public By jdkProxyGetBy() {
+        return jdkProxy.getBy();
+    }
+
+    @Benchmark
+    public Button directClick() {
+        return direct.click();
+    }
+
+    @Benchmark
+    public Button generatedProxyClick() {
+        return generatedProxy.click();
+    }
+
+    @Benchmark
+    public Button jdkProxyClick() {
+        return jdkProxy.click();
+    }
+}
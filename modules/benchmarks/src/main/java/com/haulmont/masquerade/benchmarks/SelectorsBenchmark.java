@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks;
+
+import com.haulmont.masquerade.Selectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures construction of {@link Selectors#byPath(String...)} selectors and lookup of elements with them
+ * against {@link StubWebDriver}, that includes compilation of the chain into a single query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectorsBenchmark {
+
+    @Param({"1", "3", "6"})
+    public int depth;
+
+    private final StubWebDriver driver = new StubWebDriver();
+
+    private String[] path;
+    private By by;
+
+    @Setup
+    public void setup() {
+        path = new String[depth];
+        for (int i = 0; i < depth; i++) {
+            path[i] = "component" + i;
+        }
+        by = Selectors.byPath(Arrays.copyOf(path, depth));
+    }
+
+    @Benchmark
+    public By byPath() {
+        return Selectors.byPath(path);
+    }
+
+    @Benchmark
+    public WebElement findElement() {
+        return by.findElement(driver);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks;
+
+import com.haulmont.masquerade.restapi.OAuthTokenService;
+import com.haulmont.masquerade.restapi.ServiceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ServiceGenerator#createService} with shared HTTP client and with per-service authentication.
+ * Services are only created, no requests are sent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceGeneratorBenchmark {
+
+    private static final String BASE_URL = "http://localhost:8080/app/rest/";
+
+    @Benchmark
+    public OAuthTokenService createService() {
+        return ServiceGenerator.createService(BASE_URL, OAuthTokenService.class);
+    }
+
+    @Benchmark
+    public OAuthTokenService createAuthenticatedService() {
+        return ServiceGenerator.createService(BASE_URL, OAuthTokenService.class, "Bearer token");
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.FindsByClassName;
+import org.openqa.selenium.internal.FindsByCssSelector;
+import org.openqa.selenium.internal.FindsById;
+import org.openqa.selenium.internal.FindsByTagName;
+import org.openqa.selenium.internal.FindsByXPath;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * WebDriver without browser for benchmarks of framework overhead. Every lookup returns the same visible and enabled
+ * element, scripts return {@code -1} that means passed checks of ElementState.
+ */
+public class StubWebDriver implements WebDriver, JavascriptExecutor,
+        FindsByClassName, FindsByCssSelector, FindsById, FindsByTagName, FindsByXPath {
+    private final StubWebElement element = new StubWebElement();
+
+    @Override
+    public void get(String url) {
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return "about:blank";
+    }
+
+    @Override
+    public String getTitle() {
+        return "";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return Collections.singletonList(element);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return element;
+    }
+
+    @Override
+    public String getPageSource() {
+        return "";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton("main");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return "main";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        return -1L;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return -1L;
+    }
+
+    @Override
+    public WebElement findElementByClassName(String using) {
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElementsByClassName(String using) {
+        return Collections.singletonList(element);
+    }
+
+    @Override
+    public WebElement findElementByCssSelector(String using) {
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElementsByCssSelector(String using) {
+        return Collections.singletonList(element);
+    }
+
+    @Override
+    public WebElement findElementById(String using) {
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElementsById(String using) {
+        return Collections.singletonList(element);
+    }
+
+    @Override
+    public WebElement findElementByTagName(String using) {
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElementsByTagName(String using) {
+        return Collections.singletonList(element);
+    }
+
+    @Override
+    public WebElement findElementByXPath(String using) {
+        return element;
+    }
+
+    @Override
+    public List<WebElement> findElementsByXPath(String using) {
+        return Collections.singletonList(element);
+    }
+
+    public static class StubWebElement implements WebElement,
+            FindsByClassName, FindsByCssSelector, FindsById, FindsByTagName, FindsByXPath {
+        @Override
+        public void click() {
+        }
+
+        @Override
+        public void submit() {
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public String getTagName() {
+            return "div";
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            return "";
+        }
+
+        @Override
+        public boolean isSelected() {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public String getText() {
+            return "text";
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return this;
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            return true;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(100, 20);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(getLocation(), getSize());
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public WebElement findElementByClassName(String using) {
+            return this;
+        }
+
+        @Override
+        public List<WebElement> findElementsByClassName(String using) {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public WebElement findElementByCssSelector(String using) {
+            return this;
+        }
+
+        @Override
+        public List<WebElement> findElementsByCssSelector(String using) {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public WebElement findElementById(String using) {
+            return this;
+        }
+
+        @Override
+        public List<WebElement> findElementsById(String using) {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public WebElement findElementByTagName(String using) {
+            return this;
+        }
+
+        @Override
+        public List<WebElement> findElementsByTagName(String using) {
+            return Collections.singletonList(this);
+        }
+
+        @Override
+        public WebElement findElementByXPath(String using) {
+            return this;
+        }
+
+        @Override
+        public List<WebElement> findElementsByXPath(String using) {
+            return Collections.singletonList(this);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.benchmarks;
+
+import com.haulmont.masquerade.Components;
+import com.haulmont.masquerade.Wire;
+import com.haulmont.masquerade.base.Composite;
+import com.haulmont.masquerade.components.Button;
+import com.haulmont.masquerade.components.CheckBox;
+import com.haulmont.masquerade.components.Label;
+import com.haulmont.masquerade.components.LookupField;
+import com.haulmont.masquerade.components.TextField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Components#wire(Class)} of composites with 3, 10 and 30 wired components.
+ * Wiring does not touch the browser, components are created with proxies of the configured backend.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WiringBenchmark {
+
+    @Param({"3", "10", "30"})
+    public int fields;
+
+    private Class<? extends Composite<?>> compositeClass;
+
+    @Setup
+    public void setup() {
+        switch (fields) {
+            case 3:
+                compositeClass = SmallScreen.class;
+                break;
+            case 10:
+                compositeClass = MediumScreen.class;
+                break;
+            default:
+                compositeClass = LargeScreen.class;
+        }
+    }
+
+    @Benchmark
+    public Object wire() {
+        return Components.wire(compositeClass);
+    }
+
+    public static class SmallScreen extends Composite<SmallScreen> {
+        @Wire
+        private TextField textField1;
+
+        @Wire
+        private Button button2;
+
+        @Wire
+        private Label label3;
+    }
+
+    public static class MediumScreen extends Composite<MediumScreen> {
+        @Wire
+        private TextField textField1;
+
+        @Wire
+        private Button button2;
+
+        @Wire
+        private Label label3;
+
+        @Wire
+        private CheckBox checkBox4;
+
+        @Wire
+        private LookupField lookupField5;
+
+        @Wire
+        private TextField textField6;
+
+        @Wire
+        private Button button7;
+
+        @Wire
+        private Label label8;
+
+        @Wire
+        private CheckBox checkBox9;
+
+        @Wire
+        private LookupField lookupField10;
+    }
+
+    public static class LargeScreen extends Composite<LargeScreen> {
+        @Wire
+        private TextField textField1;
+
+        @Wire
+        private Button button2;
+
+        @Wire
+        private Label label3;
+
+        @Wire
+        private CheckBox checkBox4;
+
+        @Wire
+        private LookupField lookupField5;
+
+        @Wire
+        private TextField textField6;
+
+        @Wire
+        private Button button7;
+
+        @Wire
+        private Label label8;
+
+        @Wire
+        private CheckBox checkBox9;
+
+        @Wire
+        private LookupField lookupField10;
+
+        @Wire
+        private TextField textField11;
+
+        @Wire
+        private Button button12;
+
+        @Wire
+        private Label label13;
+
+        @Wire
+        private CheckBox checkBox14;
+
+        @Wire
+        private LookupField lookupField15;
+
+        @Wire
+        private TextField textField16;
+
+        @Wire
+        private Button button17;
+
+        @Wire
+        private Label label18;
+
+        @Wire
+        private CheckBox checkBox19;
+
+        @Wire
+        private LookupField lookupField20;
+
+        @Wire
+        private TextField textField21;
+
+        @Wire
+        private Button button22;
+
+        @Wire
+        private Label label23;
+
+        @Wire
+        private CheckBox checkBox24;
+
+        @Wire
+        private LookupField lookupField25;
+
+        @Wire
+        private TextField textField26;
+
+        @Wire
+        private Button button27;
+
+        @Wire
+        private Label label28;
+
+        @Wire
+        private CheckBox checkBox29;
+
+        @Wire
+        private LookupField lookupField30;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks.e2e;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
+import com.haulmont.masquerade.components.AppMenu;
+import com.haulmont.masquerade.components.Button;
+import com.haulmont.masquerade.components.LookupField;
+import com.haulmont.masquerade.components.TabSheet;
+import com.haulmont.masquerade.components.Table;
+import com.haulmont.masquerade.metrics.LatencyHistogram;
+import com.haulmont.masquerade.metrics.MasqueradeMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+import static com.codeborne.selenide.Selenide.open;
+import static com.haulmont.masquerade.Components._$;
+import static com.haulmont.masquerade.Selectors.byCubaId;
+import static com.haulmont.masquerade.Selectors.byText;
+
+/**
+ * End-to-end benchmarks of component operations against fixture pages with CUBA markup served by
+ * {@link FixtureServer}. Reports WebDriver commands and wall time per operation, so that round trip savings
+ * can be measured without CUBA application.
+ * <br>
+ * Run with {@code gradlew :masquerade-benchmarks:e2e}, headless Chrome is used by default.
+ * System properties:
+ * <ul>
+ *     <li>{@code masquerade.e2e.iterations} - measured iterations per operation, 20 by default</li>
+ *     <li>{@code masquerade.e2e.warmup} - warmup iterations per operation, 3 by default</li>
+ *     <li>{@code masquerade.e2e.rows} - comma separated row counts of table fixtures, {@code 100,10000} by default</li>
+ *     <li>{@code masquerade.e2e.filter} - runs only operations which names contain the value</li>
+ *     <li>{@code masquerade.e2e.report} - file to write the report to</li>
+ * </ul>
+ */
+public class E2eBenchmarks {
+    public static final int ITERATIONS = Integer.getInteger("masquerade.e2e.iterations", 20);
+    public static final int WARMUP = Integer.getInteger("masquerade.e2e.warmup", 3);
+    public static final String ROWS = System.getProperty("masquerade.e2e.rows", "100,10000");
+    public static final String FILTER = System.getProperty("masquerade.e2e.filter", "");
+    public static final String REPORT_FILE = System.getProperty("masquerade.e2e.report");
+
+    private static final String[] TABS = {"generalTab", "rolesTab", "substitutionsTab", "historyTab"};
+
+    private static final String[][] MENU_ITEMS = {
+            {"administration", "sec$User.browse"},
+            {"administration", "sec$Role.browse"},
+            {"reports", "report$Report.browse"}
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("selenide.headless") == null) {
+            Configuration.headless = true;
+        }
+        Configuration.screenshots = false;
+        Configuration.savePageSource = false;
+
+        List<Result> results = new ArrayList<>();
+        try (FixtureServer server = new FixtureServer()) {
+            for (Scenario scenario : scenarios()) {
+                if (scenario.name.contains(FILTER)) {
+                    results.add(run(server, scenario));
+                }
+            }
+        } finally {
+            WebDriverRunner.closeWebDriver();
+        }
+
+        String report = report(results);
+        System.out.println(report);
+
+        if (REPORT_FILE != null && !REPORT_FILE.isEmpty()) {
+            Files.write(Paths.get(REPORT_FILE), report.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    static List<Scenario> scenarios() {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        for (String rowsValue : ROWS.split(",")) {
+            int rows = Integer.parseInt(rowsValue.trim());
+            String page = "table.html?rows=" + rows;
+            String suffix = " [" + rows + " rows]";
+
+            scenarios.add(new Scenario("Table.selectRow" + suffix, page, i ->
+                    _$(Table.class, TableFixture.TABLE_ID)
+                            .selectRow(byText("User " + ((i * 7919L) % rows + 1)))));
+            scenarios.add(new Scenario("Table.snapshot" + suffix, page, i ->
+                    _$(Table.class, TableFixture.TABLE_ID)
+                            .snapshot()));
+            scenarios.add(new Scenario("Table.sort" + suffix, page, i ->
+                    _$(Table.class, TableFixture.TABLE_ID)
+                            .sort("name", i % 2 == 0 ? Table.SortDirection.ASCENDING : Table.SortDirection.DESCENDING)));
+        }
+
+        scenarios.add(new Scenario("LookupField.setValue", "lookup.html", i ->
+                _$(LookupField.class, "groupField")
+                        .setValue("Option " + (i % 100 + 1))));
+        scenarios.add(new Scenario("AppMenu.openItem", "menu.html", i ->
+                _$(AppMenu.class, "appMenu")
+                        .openItem(MENU_ITEMS[i % MENU_ITEMS.length])));
+        scenarios.add(new Scenario("TabSheet.Tab.select", "tabsheet.html", i ->
+                _$(TabSheet.class, "tabSheet")
+                        .getTab(byCubaId(TABS[(i + 1) % TABS.length]))
+                        .select()));
+        scenarios.add(new Scenario("Button.click [dialog]", "dialog.html", i ->
+                _$(Button.class, "confirmDialog", "optionDialog_yes")
+                        .click()));
+
+        return scenarios;
+    }
+
+    static Result run(FixtureServer server, Scenario scenario) {
+        open(server.url(scenario.page));
+        MasqueradeMetrics.instrument(WebDriverRunner.getWebDriver());
+
+        int index = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            scenario.operation.accept(index++);
+        }
+
+        LatencyHistogram wallTime = new LatencyHistogram();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            try (MasqueradeMetrics.Scope ignored = MasqueradeMetrics.scope(scenario.name)) {
+                scenario.operation.accept(index++);
+            }
+            wallTime.record(System.nanoTime() - start);
+        }
+
+        LatencyHistogram commands = MasqueradeMetrics.getScopes().get(scenario.name);
+        return new Result(scenario.name, wallTime, commands != null ? commands : new LatencyHistogram());
+    }
+
+    static String report(List<Result> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-32s %6s %12s %12s %10s %10s %10s %10s%n",
+                "Operation", "iter", "commands/op", "command ms", "wall ms", "p50 ms", "p95 ms", "max ms"));
+
+        for (Result result : results) {
+            long iterations = Math.max(result.wallTime.getCount(), 1);
+            sb.append(String.format(Locale.ROOT, "%-32s %6d %12.1f %12.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    result.name,
+                    result.wallTime.getCount(),
+                    result.commands.getCount() / (double) iterations,
+                    result.commands.getTotalNanos() / 1e6 / iterations,
+                    result.wallTime.getMeanNanos() / 1e6,
+                    result.wallTime.getPercentileNanos(50) / 1e6,
+                    result.wallTime.getPercentileNanos(95) / 1e6,
+                    result.wallTime.getMaxNanos() / 1e6));
+        }
+
+        return sb.toString();
+    }
+
+    static class Scenario {
+        final String name;
+        final String page;
+        final IntConsumer operation;
+
+        Scenario(String name, String page, IntConsumer operation) {
+            this.name = name;
+            this.page = page;
+            this.operation = operation;
+        }
+    }
+
+    static class Result {
+        final String name;
+        final LatencyHistogram wallTime;
+        final LatencyHistogram commands;
+
+        Result(String name, LatencyHistogram wallTime, LatencyHistogram commands) {
+            this.name = name;
+            this.wallTime = wallTime;
+            this.commands = commands;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks.e2e;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server for fixture pages. Serves static fixtures from {@code fixtures} classpath folder
+ * and generated table pages at {@code /table.html?rows=<count>}.
+ */
+public class FixtureServer implements Closeable {
+    private static final String FIXTURES = "fixtures/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public FixtureServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "fixture-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @param path page path, e.g. {@code lookup.html}
+     * @return absolute URL of the page
+     */
+    public String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/" + path;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath().substring(1);
+
+            if ("table.html".equals(path)) {
+                int rows = parseRows(exchange.getRequestURI().getQuery());
+                respond(exchange, 200, "text/html", TableFixture.render(rows).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            if (path.isEmpty() || path.contains("..")) {
+                respond(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            try (InputStream stream = FixtureServer.class.getClassLoader().getResourceAsStream(FIXTURES + path)) {
+                if (stream == null) {
+                    respond(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+
+                String contentType = path.endsWith(".js") ? "application/javascript" : "text/html";
+                respond(exchange, 200, contentType, ByteStreams.toByteArray(stream));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static int parseRows(String query) {
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("rows=")) {
+                    return Integer.parseInt(parameter.substring("rows=".length()));
+                }
+            }
+        }
+        return 100;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks.e2e;
+
+/**
+ * Renders a page with CUBA Table markup of the given size, all the rows are rendered at once.
+ */
+final class TableFixture {
+    static final String TABLE_ID = "usersTable";
+
+    static final String[][] COLUMNS = {
+            {"login", "Login"},
+            {"name", "Name"},
+            {"email", "Email"},
+            {"active", "Active"}
+    };
+
+    private TableFixture() {
+    }
+
+    static String render(int rows) {
+        StringBuilder sb = new StringBuilder(256 + rows * 400);
+        sb.append("<!DOCTYPE html>\n<html>\n<head>\n")
+                .append("    <meta charset=\"utf-8\">\n")
+                .append("    <title>Table fixture, ").append(rows).append(" rows</title>\n")
+                .append("    <script src=\"fixture.js\" defer></script>\n")
+                .append("</head>\n<body class=\"v-generated-body\">\n")
+                .append("<div class=\"v-app\" cuba-id=\"mainWindow\">\n")
+                .append("<div class=\"v-table v-widget\" cuba-id=\"").append(TABLE_ID).append("\">\n")
+                .append("<div class=\"v-table-header-wrap\"><div class=\"v-table-header\"><table><tbody><tr>\n");
+
+        for (String[] column : COLUMNS) {
+            sb.append("<td class=\"v-table-header-cell v-table-header-sortable\" cuba-id=\"column_")
+                    .append(column[0]).append("\"><div class=\"v-table-caption-container\">")
+                    .append(column[1]).append("</div></td>\n");
+        }
+
+        sb.append("</tr></tbody></table></div></div>\n")
+                .append("<div class=\"v-table-body-wrapper v-table-body\"><div class=\"v-table-body-noselection\">")
+                .append("<table class=\"v-table-table\"><tbody>\n");
+
+        for (int i = 1; i <= rows; i++) {
+            sb.append(i % 2 == 0 ? "<tr class=\"v-table-row-odd\">" : "<tr class=\"v-table-row\">");
+            appendCell(sb, "user" + i);
+            appendCell(sb, "User " + i);
+            appendCell(sb, "user" + i + "@example.com");
+            appendCell(sb, i % 3 == 0 ? "false" : "true");
+            sb.append("</tr>\n");
+        }
+
+        sb.append("</tbody></table></div></div>\n</div>\n</div>\n")
+                .append("<div class=\"v-loading-indicator\" style=\"display: none\"></div>\n")
+                .append("</body>\n</html>\n");
+        return sb.toString();
+    }
+
+    private static void appendCell(StringBuilder sb, String value) {
+        sb.append("<td class=\"v-table-cell-content\"><div class=\"v-table-cell-wrapper\">")
+                .append(value).append("</div></td>");
+    }
+}
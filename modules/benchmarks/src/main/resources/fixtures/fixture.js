@@ -0,0 +1,161 @@
+/*
+ * Client-side behaviour of static fixtures: row selection and sorting of tables, lookup popups,
+ * menu bar popups, tab selection. Mimics DOM changes of Vaadin widgets without server round trips.
+ */
+(function() {
+    function closest(el, className) {
+        while (el && el.nodeType === 1) {
+            if (el.classList.contains(className)) {
+                return el;
+            }
+            el = el.parentNode;
+        }
+        return null;
+    }
+
+    function each(list, fn) {
+        for (var i = 0; i < list.length; i++) {
+            fn(list[i]);
+        }
+    }
+
+    var activeLookup = null;
+
+    function optionList() {
+        return document.getElementById('VAADIN_COMBOBOX_OPTIONLIST');
+    }
+
+    function showOptions(lookup, filter) {
+        activeLookup = lookup;
+
+        var options = (lookup.getAttribute('data-options') || '').split('|');
+        var body = optionList().querySelector('tbody');
+        var html = '';
+        var lowerFilter = filter.toLowerCase();
+        each(options, function(option) {
+            if (option.toLowerCase().indexOf(lowerFilter) >= 0) {
+                html += '<tr><td class="gwt-MenuItem"><span>' + option + '</span></td></tr>';
+            }
+        });
+        body.innerHTML = html;
+        optionList().style.display = 'block';
+    }
+
+    function hideOptions() {
+        optionList().style.display = 'none';
+        activeLookup = null;
+    }
+
+    function hideMenus() {
+        each(document.querySelectorAll('.v-menubar-popup'), function(popup) {
+            popup.style.display = 'none';
+        });
+    }
+
+    function clickTableRow(row, ctrlKey) {
+        if (!ctrlKey) {
+            each(row.parentNode.querySelectorAll('.v-selected'), function(selected) {
+                selected.classList.remove('v-selected');
+            });
+            row.classList.add('v-selected');
+        } else {
+            row.classList.toggle('v-selected');
+        }
+    }
+
+    function clickTableHeader(header) {
+        if (header.classList.contains('v-table-header-cell-asc')) {
+            header.classList.remove('v-table-header-cell-asc');
+            header.classList.add('v-table-header-cell-desc');
+        } else if (header.classList.contains('v-table-header-cell-desc')) {
+            header.classList.remove('v-table-header-cell-desc');
+        } else {
+            each(header.parentNode.querySelectorAll('.v-table-header-cell'), function(cell) {
+                cell.classList.remove('v-table-header-cell-asc', 'v-table-header-cell-desc');
+            });
+            header.classList.add('v-table-header-cell-asc');
+        }
+    }
+
+    function clickMenuItem(item) {
+        var submenuId = item.getAttribute('data-submenu');
+        if (submenuId) {
+            var popup = document.getElementById(submenuId);
+            var rect = item.getBoundingClientRect();
+            popup.style.left = rect.left + 'px';
+            popup.style.top = rect.bottom + 'px';
+            popup.style.display = popup.style.display === 'block' ? 'none' : 'block';
+        } else {
+            hideMenus();
+            document.getElementById('openedScreen').textContent = item.getAttribute('cuba-id');
+        }
+    }
+
+    function selectTab(cell) {
+        each(cell.parentNode.querySelectorAll('.v-tabsheet-tabitemcell'), function(tab) {
+            tab.classList.remove('v-tabsheet-tabitemcell-selected');
+        });
+        cell.classList.add('v-tabsheet-tabitemcell-selected');
+
+        var tabSheet = closest(cell, 'v-tabsheet');
+        each(tabSheet.querySelectorAll('.v-tabsheet-tabsheetpanel > div'), function(panel) {
+            panel.style.display = panel.getAttribute('data-tab') === cell.getAttribute('cuba-id') ? 'block' : 'none';
+        });
+    }
+
+    document.addEventListener('click', function(e) {
+        var target = e.target;
+
+        var option = closest(target, 'gwt-MenuItem');
+        if (option && activeLookup) {
+            activeLookup.querySelector('input').value = option.textContent;
+            hideOptions();
+            return;
+        }
+
+        var lookupButton = closest(target, 'v-filterselect-button');
+        if (lookupButton) {
+            showOptions(closest(lookupButton, 'v-filterselect'), '');
+            return;
+        }
+
+        var row = closest(target, 'v-table-row') || closest(target, 'v-table-row-odd');
+        if (row) {
+            clickTableRow(row, e.ctrlKey || e.metaKey);
+            return;
+        }
+
+        var header = closest(target, 'v-table-header-cell');
+        if (header && header.classList.contains('v-table-header-sortable')) {
+            clickTableHeader(header);
+            return;
+        }
+
+        var menuItem = closest(target, 'v-menubar-menuitem');
+        if (menuItem) {
+            clickMenuItem(menuItem);
+            return;
+        }
+
+        var tabCell = closest(target, 'v-tabsheet-tabitemcell');
+        if (tabCell && closest(target, 'v-caption')) {
+            selectTab(tabCell);
+            return;
+        }
+
+        var button = closest(target, 'v-button');
+        if (button) {
+            var counter = document.getElementById('clickCount');
+            if (counter) {
+                counter.textContent = String(parseInt(counter.textContent, 10) + 1);
+            }
+        }
+    });
+
+    document.addEventListener('input', function(e) {
+        var lookup = closest(e.target, 'v-filterselect');
+        if (lookup) {
+            showOptions(lookup, e.target.value);
+        }
+    });
+})();
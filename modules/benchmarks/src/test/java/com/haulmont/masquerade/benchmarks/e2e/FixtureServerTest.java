@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.benchmarks.e2e;
+
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FixtureServerTest {
+    private FixtureServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FixtureServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void staticFixtures() throws IOException {
+        for (String page : new String[]{"dialog.html", "lookup.html", "menu.html", "tabsheet.html"}) {
+            Response response = get(page);
+
+            assertEquals(page, 200, response.status);
+            assertEquals("text/html; charset=utf-8", response.contentType);
+            assertTrue(page, response.body.contains("cuba-id=\"mainWindow\""));
+        }
+
+        Response script = get("fixture.js");
+        assertEquals(200, script.status);
+        assertEquals("application/javascript; charset=utf-8", script.contentType);
+    }
+
+    @Test
+    public void tableFixture() throws IOException {
+        Response response = get("table.html?rows=10000");
+
+        assertEquals(200, response.status);
+        assertTrue(response.body.contains("cuba-id=\"" + TableFixture.TABLE_ID + "\""));
+        assertEquals(10000, count(response.body, "<tr class=\"v-table-row"));
+        assertTrue(response.body.contains("user10000@example.com"));
+
+        assertEquals(100, count(get("table.html").body, "<tr class=\"v-table-row"));
+    }
+
+    @Test
+    public void notFound() throws IOException {
+        assertEquals(404, get("x/../lookup.html").status);
+        assertEquals(404, get("missing.html").status);
+        assertEquals(404, get("").status);
+    }
+
+    private Response get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.url(path)).openConnection();
+        try {
+            int status = connection.getResponseCode();
+            try (InputStream stream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                String body = new String(ByteStreams.toByteArray(stream), StandardCharsets.UTF_8);
+                return new Response(status, connection.getContentType(), body);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static int count(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + fragment.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String contentType;
+        private final String body;
+
+        private Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
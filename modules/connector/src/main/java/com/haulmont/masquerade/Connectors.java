@@ -21,10 +21,10 @@ import com.haulmont.masquerade.jmx.JmxName;
 import com.haulmont.masquerade.restapi.AccessToken;
 import com.haulmont.masquerade.restapi.OAuthTokenService;
 import com.haulmont.masquerade.restapi.ServiceGenerator;
-import retrofit2.Call;
+import com.haulmont.masquerade.restapi.TokenManager;
 
-import java.io.IOException;
 import java.lang.reflect.Proxy;
+import java.util.Objects;
 
 /**
  * Factory that provides proxy objects for remote services.
@@ -63,22 +63,32 @@ public class Connectors {
         return restApi(clazz, new RestApiHost("admin", "admin", REST_API_BASE_URL));
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Creates REST-API service proxy authenticated with a token from {@link TokenManager}.
+     * The token is shared between all proxies of the host and renewed automatically.
+     *
+     * @param clazz    service interface
+     * @param hostInfo host info
+     * @param <T>      type of service
+     * @return service proxy
+     */
     public static <T> T restApi(Class<T> clazz, RestApiHost hostInfo) {
-        // authenticate
-        OAuthTokenService oAuthTokenService = restApiOAuthService(hostInfo);
-        Call<AccessToken> token = oAuthTokenService.token(
-                hostInfo.getUser(), hostInfo.getPassword(),
-                hostInfo.getGrantType());
+        // authenticate eagerly to fail fast on wrong credentials
+        TokenManager.getInstance().getToken(hostInfo);
 
-        AccessToken accessToken;
-        try {
-            accessToken = token.execute().body();
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to obtain OAuth2 token");
-        }
+        return ServiceGenerator.createService(hostInfo.getBaseUrl(), clazz,
+                TokenManager.getInstance().tokenProvider(hostInfo));
+    }
 
-        return restApi(clazz, hostInfo, accessToken);
+    /**
+     * Obtains REST-API access token from {@link TokenManager}, e.g. to pass it to the UI of a test instead of
+     * logging in with the login window.
+     *
+     * @param hostInfo host info
+     * @return cached or new access token
+     */
+    public static AccessToken restApiToken(RestApiHost hostInfo) {
+        return TokenManager.getInstance().getToken(hostInfo);
     }
 
     public static <T> T restApi(Class<T> clazz, RestApiHost hostInfo, AccessToken accessToken) {
@@ -107,6 +117,25 @@ public class Connectors {
         public String getPassword() {
             return password;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            JmxHost jmxHost = (JmxHost) o;
+            return Objects.equals(address, jmxHost.address)
+                    && Objects.equals(user, jmxHost.user)
+                    && Objects.equals(password, jmxHost.password);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(address, user, password);
+        }
     }
 
     public static class RestApiHost {
@@ -17,69 +17,106 @@
 package com.haulmont.masquerade.jmx;
 
 import com.haulmont.masquerade.Connectors;
+import com.haulmont.masquerade.jmx.JmxConnectionPool.JmxConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.management.MBeanServerConnection;
-import javax.management.MBeanServerInvocationHandler;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
-import javax.management.remote.JMXConnector;
-import javax.management.remote.JMXConnectorFactory;
-import javax.management.remote.JMXServiceURL;
 import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
-import java.util.HashMap;
-import java.util.Map;
 
 public class JmxCallHandler implements InvocationHandler {
     private static final Logger log = LoggerFactory.getLogger(JmxCallHandler.class);
 
     private final Connectors.JmxHost hostInfo;
     private final String objectName;
+    private final ObjectName mbeanName;
+    private final JmxConnectionPool connectionPool;
 
     public JmxCallHandler(Connectors.JmxHost hostInfo, String objectName) {
+        this(hostInfo, objectName, JmxConnectionPool.getInstance());
+    }
+
+    public JmxCallHandler(Connectors.JmxHost hostInfo, String objectName, JmxConnectionPool connectionPool) {
         this.hostInfo = hostInfo;
         this.objectName = objectName;
+        this.connectionPool = connectionPool;
+
+        try {
+            this.mbeanName = new ObjectName(objectName);
+        } catch (MalformedObjectNameException e) {
+            throw new RuntimeException("Incorrect JMX object name", e);
+        }
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        JMXServiceURL url;
+        if (args != null) {
+            log.info("Invoke method {} of {} with parameters {}", method.getName(), objectName, args);
+        } else {
+            log.info("Invoke method {} of {}", method.getName(), objectName);
+        }
+
         try {
-            url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + hostInfo.getAddress() + "/jmxrmi");
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Incorrect service URL", e);
+            return invokeWithConnection(borrowConnection(), proxy, method, args);
+        } catch (StaleConnectionException e) {
+            // pooled connection has been closed by remote side, reconnect once bypassing idle connections
+            log.debug("Reconnect to {} after failure", hostInfo.getAddress(), e.getCause());
+
+            try {
+                return invokeWithConnection(newConnection(), proxy, method, args);
+            } catch (StaleConnectionException re) {
+                throw new RuntimeException("Unable to perform JMX call", re.getCause());
+            }
         }
+    }
 
-        Map<String, Object> properties = new HashMap<>();
-        if (hostInfo.getUser() != null) {
-            properties.put(JMXConnector.CREDENTIALS, new String[]{hostInfo.getUser(), hostInfo.getPassword()});
+    protected JmxConnection borrowConnection() {
+        try {
+            return connectionPool.borrow(hostInfo);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to perform JMX call", e);
         }
+    }
 
-        try (JMXConnector jmxc = JMXConnectorFactory.connect(url, properties)) {
-            MBeanServerConnection mbsc = jmxc.getMBeanServerConnection();
+    protected JmxConnection newConnection() {
+        try {
+            return connectionPool.connect(hostInfo);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to perform JMX call", e);
+        }
+    }
 
-            ObjectName mbeanName;
-            try {
-                mbeanName = new ObjectName(objectName);
-            } catch (MalformedObjectNameException e) {
-                throw new RuntimeException("Incorrect JMX object name", e);
+    protected Object invokeWithConnection(JmxConnection connection, Object proxy, Method method, Object[] args)
+            throws Throwable {
+        Object result;
+        try {
+            result = connection.getInvocationHandler(mbeanName).invoke(proxy, method, args);
+        } catch (IOException e) {
+            if (connection.isValid(0)) {
+                // the exception is thrown by MBean itself
+                connectionPool.release(connection);
+                throw new RuntimeException("Unable to perform JMX call", e);
             }
 
-            MBeanServerInvocationHandler wrappedHandler = new MBeanServerInvocationHandler(mbsc, mbeanName);
+            connectionPool.invalidate(connection);
+            throw new StaleConnectionException(e);
+        } catch (Throwable e) {
+            connectionPool.release(connection);
+            throw e;
+        }
 
-            if (args != null) {
-                log.info("Invoke method {} of {} with parameters {}", method.getName(), objectName, args);
-            } else {
-                log.info("Invoke method {} of {}", method.getName(), objectName);
-            }
+        connectionPool.release(connection);
+        return result;
+    }
 
-            return wrappedHandler.invoke(proxy, method, args);
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to perform JMX call", e);
+    private static class StaleConnectionException extends Exception {
+        private static final long serialVersionUID = -4263497452310875731L;
+
+        StaleConnectionException(IOException cause) {
+            super(cause);
         }
     }
 }
\ No newline at end of file
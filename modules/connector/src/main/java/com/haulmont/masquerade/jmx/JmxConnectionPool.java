@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.jmx;
+
+import com.haulmont.masquerade.Connectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerInvocationHandler;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyed pool of JMX connections. Connections are pooled per {@link Connectors.JmxHost}, i.e. per address and
+ * credentials, validated before reuse and closed after staying idle for
+ * {@link #IDLE_TIMEOUT_MS} milliseconds.
+ */
+public class JmxConnectionPool {
+    private static final Logger log = LoggerFactory.getLogger(JmxConnectionPool.class);
+
+    public static final int MAX_IDLE_PER_HOST =
+            Integer.getInteger("masquerade.jmx.pool.maxIdle", 4);
+
+    public static final long IDLE_TIMEOUT_MS =
+            Long.getLong("masquerade.jmx.pool.idleTimeout", 60_000L);
+
+    public static final long VALIDATION_INTERVAL_MS =
+            Long.getLong("masquerade.jmx.pool.validationInterval", 5_000L);
+
+    private static final JmxConnectionPool INSTANCE = new JmxConnectionPool();
+
+    private final Map<Connectors.JmxHost, Deque<JmxConnection>> idleConnections = new ConcurrentHashMap<>();
+
+    protected JmxConnectionPool() {
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "masquerade-jmx-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(IDLE_TIMEOUT_MS / 2, 1000L);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static JmxConnectionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Obtains a healthy connection to the given host, either from the pool or a new one.
+     *
+     * @param hostInfo host info
+     * @return connection that must be returned with {@link #release(JmxConnection)}
+     * or {@link #invalidate(JmxConnection)}
+     * @throws IOException if connection cannot be established
+     */
+    public JmxConnection borrow(Connectors.JmxHost hostInfo) throws IOException {
+        Deque<JmxConnection> idle = idleConnections.get(hostInfo);
+        if (idle != null) {
+            JmxConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (connection.isValid(VALIDATION_INTERVAL_MS)) {
+                    return connection;
+                }
+                connection.close();
+            }
+        }
+
+        return connect(hostInfo);
+    }
+
+    public void release(JmxConnection connection) {
+        connection.touch();
+
+        Deque<JmxConnection> idle = idleConnections.computeIfAbsent(connection.getHostInfo(),
+                key -> new ConcurrentLinkedDeque<>());
+        if (idle.size() < MAX_IDLE_PER_HOST) {
+            idle.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+    }
+
+    /**
+     * Closes a broken connection together with all idle connections to the same host, they are likely broken
+     * by the same cause, e.g. restart of the remote side.
+     *
+     * @param connection broken connection
+     */
+    public void invalidate(JmxConnection connection) {
+        connection.close();
+
+        Deque<JmxConnection> idle = idleConnections.get(connection.getHostInfo());
+        if (idle != null) {
+            JmxConnection idleConnection;
+            while ((idleConnection = idle.pollFirst()) != null) {
+                idleConnection.close();
+            }
+        }
+    }
+
+    /**
+     * Closes connections that have not been used for {@link #IDLE_TIMEOUT_MS} milliseconds.
+     */
+    public void evictIdle() {
+        evictIdle(IDLE_TIMEOUT_MS);
+    }
+
+    /**
+     * Closes connections that have not been used for the given time.
+     *
+     * @param idleTimeoutMs idle timeout in milliseconds
+     */
+    public void evictIdle(long idleTimeoutMs) {
+        long now = System.currentTimeMillis();
+        for (Deque<JmxConnection> idle : idleConnections.values()) {
+            Iterator<JmxConnection> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                JmxConnection connection = iterator.next();
+                if (now - connection.getLastUsed() >= idleTimeoutMs && idle.remove(connection)) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param hostInfo host info
+     * @return number of idle connections to the host
+     */
+    public int getIdleCount(Connectors.JmxHost hostInfo) {
+        Deque<JmxConnection> idle = idleConnections.get(hostInfo);
+        return idle != null ? idle.size() : 0;
+    }
+
+    /**
+     * Closes all idle connections.
+     */
+    public void clear() {
+        for (Deque<JmxConnection> idle : idleConnections.values()) {
+            JmxConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                connection.close();
+            }
+        }
+    }
+
+    protected JmxConnection connect(Connectors.JmxHost hostInfo) throws IOException {
+        JMXServiceURL url;
+        try {
+            url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + hostInfo.getAddress() + "/jmxrmi");
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Incorrect service URL", e);
+        }
+
+        Map<String, Object> properties = new HashMap<>();
+        if (hostInfo.getUser() != null) {
+            properties.put(JMXConnector.CREDENTIALS, new String[]{hostInfo.getUser(), hostInfo.getPassword()});
+        }
+
+        log.debug("Open JMX connection to {}", hostInfo.getAddress());
+
+        return new JmxConnection(hostInfo, JMXConnectorFactory.connect(url, properties));
+    }
+
+    public static class JmxConnection {
+        private final Connectors.JmxHost hostInfo;
+        private final JMXConnector connector;
+        private final MBeanServerConnection connection;
+        private final Map<ObjectName, MBeanServerInvocationHandler> handlers = new ConcurrentHashMap<>();
+
+        private volatile long lastUsed;
+        private volatile long lastValidated;
+
+        public JmxConnection(Connectors.JmxHost hostInfo, JMXConnector connector) throws IOException {
+            this.hostInfo = hostInfo;
+            this.connector = connector;
+            this.connection = connector.getMBeanServerConnection();
+            this.lastUsed = System.currentTimeMillis();
+            this.lastValidated = lastUsed;
+        }
+
+        public Connectors.JmxHost getHostInfo() {
+            return hostInfo;
+        }
+
+        public MBeanServerConnection getConnection() {
+            return connection;
+        }
+
+        public MBeanServerInvocationHandler getInvocationHandler(ObjectName objectName) {
+            return handlers.computeIfAbsent(objectName,
+                    name -> new MBeanServerInvocationHandler(connection, name));
+        }
+
+        public long getLastUsed() {
+            return lastUsed;
+        }
+
+        /**
+         * Checks that the remote side is still reachable. The check is skipped if the connection
+         * has been validated less than {@code validationInterval} milliseconds ago.
+         *
+         * @param validationInterval validation interval in milliseconds
+         * @return true if connection can be used
+         */
+        public boolean isValid(long validationInterval) {
+            long now = System.currentTimeMillis();
+            if (now - lastValidated < validationInterval) {
+                return true;
+            }
+
+            try {
+                connection.getDefaultDomain();
+                lastValidated = now;
+                return true;
+            } catch (IOException e) {
+                log.debug("JMX connection to {} is broken", hostInfo.getAddress(), e);
+                return false;
+            }
+        }
+
+        protected void touch() {
+            // not validated, a call may have failed due to a broken connection
+            lastUsed = System.currentTimeMillis();
+        }
+
+        protected void close() {
+            try {
+                connector.close();
+            } catch (IOException e) {
+                log.debug("Unable to close JMX connection to {}", hostInfo.getAddress(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.restapi;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adapters from Retrofit {@link Call} to {@link CompletableFuture}.
+ */
+public final class AsyncCalls {
+    private AsyncCalls() {
+    }
+
+    /**
+     * Enqueues the call and returns future of its response body.
+     * The future fails with {@link HttpException} if the response is not successful.
+     *
+     * @param call call
+     * @param <T>  type of response body
+     * @return future of response body
+     */
+    public static <T> CompletableFuture<T> toFuture(Call<T> call) {
+        CompletableFuture<T> future = new CancellableFuture<>(call);
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful()) {
+                    future.complete(response.body());
+                } else {
+                    future.completeExceptionally(new HttpException(response));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Enqueues the call and returns future of its response. Unsuccessful responses complete the future normally.
+     *
+     * @param call call
+     * @param <T>  type of response body
+     * @return future of response
+     */
+    public static <T> CompletableFuture<Response<T>> toResponseFuture(Call<T> call) {
+        CompletableFuture<Response<T>> future = new CancellableFuture<>(call);
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+
+        return future;
+    }
+
+    private static class CancellableFuture<T> extends CompletableFuture<T> {
+        private final Call<?> call;
+
+        CancellableFuture(Call<?> call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (mayInterruptIfRunning) {
+                call.cancel();
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -22,22 +22,80 @@ import okhttp3.Response;
 
 import java.io.IOException;
 
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+
 public class AuthenticationInterceptor implements Interceptor {
 
-    private String authToken;
+    private final TokenProvider tokenProvider;
 
     public AuthenticationInterceptor(String token) {
-        this.authToken = token;
+        this(new StaticTokenProvider(token));
+    }
+
+    public AuthenticationInterceptor(TokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
     }
 
     @Override
     public Response intercept(Interceptor.Chain chain) throws IOException {
         Request original = chain.request();
 
+        String authToken = tokenProvider.getToken();
+        Response response = chain.proceed(authorize(original, authToken));
+
+        if (response.code() == HTTP_UNAUTHORIZED) {
+            // token may be expired or revoked, try once again with a new one
+            String renewedToken = tokenProvider.renewToken(authToken);
+            if (renewedToken != null && !renewedToken.equals(authToken)) {
+                response.close();
+
+                return chain.proceed(authorize(original, renewedToken));
+            }
+        }
+
+        return response;
+    }
+
+    protected Request authorize(Request original, String authToken) {
         Request.Builder builder = original.newBuilder()
                 .header("Authorization", authToken);
 
-        Request request = builder.build();
-        return chain.proceed(request);
+        return builder.build();
+    }
+
+    /**
+     * Source of Authorization header values.
+     */
+    public interface TokenProvider {
+        /**
+         * @return current Authorization header value
+         */
+        String getToken();
+
+        /**
+         * Called when the server responds with 401 Unauthorized.
+         *
+         * @param staleToken rejected Authorization header value
+         * @return new Authorization header value or null if the token cannot be renewed
+         */
+        String renewToken(String staleToken);
+    }
+
+    public static class StaticTokenProvider implements TokenProvider {
+        private final String authToken;
+
+        public StaticTokenProvider(String authToken) {
+            this.authToken = authToken;
+        }
+
+        @Override
+        public String getToken() {
+            return authToken;
+        }
+
+        @Override
+        public String renewToken(String staleToken) {
+            return null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.restapi;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Executes many REST-API calls asynchronously with bounded concurrency.
+ * <br>
+ * Note that the number of simultaneous requests to a host is also limited by
+ * {@link ServiceGenerator#MAX_REQUESTS_PER_HOST}.
+ *
+ * <pre><code>
+ * List&lt;Call&lt;ResponseBody&gt;&gt; calls = users.stream()
+ *         .map(userService::create)
+ *         .collect(Collectors.toList());
+ *
+ * BulkExecutor.BulkResult&lt;ResponseBody&gt; result = new BulkExecutor().execute(calls);
+ * </code></pre>
+ */
+public class BulkExecutor {
+    public static final int DEFAULT_CONCURRENCY =
+            Integer.getInteger("masquerade.restapi.bulk.concurrency", ServiceGenerator.MAX_REQUESTS_PER_HOST);
+
+    private final int maxConcurrency;
+
+    public BulkExecutor() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    public BulkExecutor(int maxConcurrency) {
+        checkArgument(maxConcurrency > 0, "maxConcurrency should be positive");
+
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Executes all the calls and waits for their completion.
+     *
+     * @param calls not executed calls
+     * @param <T>   type of response body
+     * @return results in order of calls and failures
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public <T> BulkResult<T> execute(List<Call<T>> calls) throws InterruptedException {
+        int size = calls.size();
+
+        List<T> results = new ArrayList<>(Collections.nCopies(size, null));
+        List<Failure> failures = Collections.synchronizedList(new ArrayList<>());
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        CountDownLatch completed = new CountDownLatch(size);
+
+        try {
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                Call<T> call = calls.get(i);
+
+                permits.acquire();
+
+                BulkCallback<T> callback = new BulkCallback<T>() {
+                    @Override
+                    public void onResponse(Call<T> call, Response<T> response) {
+                        if (response.isSuccessful()) {
+                            synchronized (results) {
+                                results.set(index, response.body());
+                            }
+                        } else {
+                            failures.add(new Failure(index, new HttpException(response)));
+                        }
+                        complete();
+                    }
+
+                    @Override
+                    public void onFailure(Call<T> call, Throwable t) {
+                        failures.add(new Failure(index, t));
+                        complete();
+                    }
+
+                    @Override
+                    protected void complete() {
+                        permits.release();
+                        completed.countDown();
+                    }
+                };
+
+                try {
+                    call.enqueue(callback);
+                } catch (RuntimeException e) {
+                    // e.g. call has been already executed
+                    callback.onFailure(call, e);
+                }
+            }
+
+            completed.await();
+        } catch (InterruptedException e) {
+            calls.forEach(Call::cancel);
+            throw e;
+        }
+
+        List<Failure> sortedFailures = new ArrayList<>(failures);
+        sortedFailures.sort((f1, f2) -> Integer.compare(f1.getIndex(), f2.getIndex()));
+
+        synchronized (results) {
+            return new BulkResult<>(results, sortedFailures);
+        }
+    }
+
+    private abstract static class BulkCallback<T> implements Callback<T> {
+        protected abstract void complete();
+    }
+
+    public static class BulkResult<T> {
+        private final List<T> results;
+        private final List<Failure> failures;
+
+        public BulkResult(List<T> results, List<Failure> failures) {
+            this.results = Collections.unmodifiableList(results);
+            this.failures = Collections.unmodifiableList(failures);
+        }
+
+        /**
+         * @return response bodies in order of calls, null for failed calls
+         */
+        public List<T> getResults() {
+            return results;
+        }
+
+        public List<Failure> getFailures() {
+            return failures;
+        }
+
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "BulkResult{" +
+                    "calls=" + results.size() +
+                    ", failures=" + failures.size() +
+                    '}';
+        }
+    }
+
+    public static class Failure {
+        private final int index;
+        private final Throwable error;
+
+        public Failure(int index, Throwable error) {
+            this.index = index;
+            this.error = error;
+        }
+
+        /**
+         * @return index of failed call
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return {@link HttpException} for unsuccessful responses or I/O error
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{" +
+                    "index=" + index +
+                    ", error=" + error +
+                    '}';
+        }
+    }
+}
@@ -20,24 +20,58 @@ import com.google.common.base.Strings;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import okhttp3.ConnectionPool;
 import okhttp3.Credentials;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 public class ServiceGenerator {
 
-    private static LoadingCache<String, Retrofit.Builder> builders = CacheBuilder.newBuilder()
-            .build(new CacheLoader<String, Retrofit.Builder>() {
+    public static final int CONNECTION_POOL_MAX_IDLE =
+            Integer.getInteger("masquerade.restapi.pool.maxIdle", 5);
+
+    public static final long CONNECTION_POOL_KEEP_ALIVE_MS =
+            Long.getLong("masquerade.restapi.pool.keepAlive", 300_000L);
+
+    public static final int MAX_REQUESTS =
+            Integer.getInteger("masquerade.restapi.maxRequests", 64);
+
+    public static final int MAX_REQUESTS_PER_HOST =
+            Integer.getInteger("masquerade.restapi.maxRequestsPerHost", 5);
+
+    private static LoadingCache<String, OkHttpClient> clients = CacheBuilder.newBuilder()
+            .build(new CacheLoader<String, OkHttpClient>() {
+                @Override
+                public OkHttpClient load(@Nonnull String baseUrl) {
+                    Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequests(MAX_REQUESTS);
+                    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+                    return new OkHttpClient.Builder()
+                            .connectionPool(new ConnectionPool(CONNECTION_POOL_MAX_IDLE,
+                                    CONNECTION_POOL_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS))
+                            .dispatcher(dispatcher)
+                            .build();
+                }
+            });
+
+    private static LoadingCache<String, Retrofit> retrofits = CacheBuilder.newBuilder()
+            .build(new CacheLoader<String, Retrofit>() {
                 @Override
-                public Retrofit.Builder load(@Nonnull String baseUrl) {
+                public Retrofit load(@Nonnull String baseUrl) {
                     return new Retrofit.Builder()
-                                    .baseUrl(baseUrl)
-                                    .addConverterFactory(GsonConverterFactory.create());
+                            .baseUrl(baseUrl)
+                            .client(clients.getUnchecked(baseUrl))
+                            .addConverterFactory(GsonConverterFactory.create())
+                            .addCallAdapterFactory(new CompletableFutureCallAdapterFactory())
+                            .build();
                 }
             });
 
@@ -86,21 +120,39 @@ public class ServiceGenerator {
      * @return service proxy instance
      */
     public static <S> S createService(String baseUrl, Class<S> serviceClass, final String authToken) {
-        Retrofit.Builder builder = builders.getUnchecked(baseUrl);
-
         if (!Strings.isNullOrEmpty(authToken)) {
-            AuthenticationInterceptor interceptor = new AuthenticationInterceptor(authToken);
-
-            OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-
-            httpClient.addInterceptor(interceptor);
-
-            builder.client(httpClient.build());
-            Retrofit retrofit = builder.build();
-            return retrofit.create(serviceClass);
+            return createService(baseUrl, serviceClass, new AuthenticationInterceptor.StaticTokenProvider(authToken));
         }
 
-        return builder.build().create(serviceClass);
+        return createService(baseUrl, serviceClass);
+    }
+
+    /**
+     * Creates service proxy with REST-API token authentication, token is obtained from the provider
+     * for each request.
+     *
+     * @param baseUrl       base URL
+     * @param serviceClass  service class
+     * @param tokenProvider authentication token provider
+     * @param <S>           type of service class
+     * @return service proxy instance
+     */
+    public static <S> S createService(String baseUrl, Class<S> serviceClass,
+                                      AuthenticationInterceptor.TokenProvider tokenProvider) {
+        checkArgument(tokenProvider != null, "tokenProvider should not be null");
+
+        // derived client shares connection pool and dispatcher with the base one
+        OkHttpClient httpClient = clients.getUnchecked(baseUrl)
+                .newBuilder()
+                .addInterceptor(new AuthenticationInterceptor(tokenProvider))
+                .build();
+
+        Retrofit retrofit = retrofits.getUnchecked(baseUrl)
+                .newBuilder()
+                .client(httpClient)
+                .build();
+
+        return retrofit.create(serviceClass);
     }
 
     /**
@@ -112,8 +164,6 @@ public class ServiceGenerator {
      * @return service proxy instance
      */
     public static <S> S createService(String baseUrl, Class<S> serviceClass) {
-        Retrofit.Builder builder = builders.getUnchecked(baseUrl);
-
-        return builder.build().create(serviceClass);
+        return retrofits.getUnchecked(baseUrl).create(serviceClass);
     }
 }
\ No newline at end of file
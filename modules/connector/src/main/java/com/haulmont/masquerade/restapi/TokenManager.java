@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.restapi;
+
+import com.haulmont.masquerade.Connectors;
+import com.haulmont.masquerade.Connectors.RestApiHost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of OAuth2 access tokens for REST-API hosts.
+ * <br>
+ * Token is reused until it expires and is refreshed in background
+ * {@link #REFRESH_MARGIN_SEC} seconds before expiration, but not earlier than at half of its lifetime.
+ * Background refresh stops for hosts whose token has not been requested since the last refresh,
+ * such tokens are obtained again on the next request.
+ */
+public class TokenManager {
+    private static final Logger log = LoggerFactory.getLogger(TokenManager.class);
+
+    public static final long REFRESH_MARGIN_SEC =
+            Long.getLong("masquerade.restapi.token.refreshMargin", 30L);
+
+    private static final TokenManager INSTANCE = new TokenManager();
+
+    private final Map<HostKey, CachedToken> tokens = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong refreshCount = new AtomicLong();
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "masquerade-token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected TokenManager() {
+    }
+
+    public static TokenManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns cached token for the host or obtains a new one.
+     *
+     * @param hostInfo host info
+     * @return access token
+     */
+    public AccessToken getToken(RestApiHost hostInfo) {
+        return getToken(new HostKey(hostInfo));
+    }
+
+    /**
+     * Drops cached token of the host if it is still equal to {@code staleToken} and obtains a new one.
+     *
+     * @param hostInfo   host info
+     * @param staleToken token rejected by the server
+     * @return new access token
+     */
+    public AccessToken renewToken(RestApiHost hostInfo, AccessToken staleToken) {
+        return renewToken(new HostKey(hostInfo), staleToken);
+    }
+
+    /**
+     * Creates token provider for {@link AuthenticationInterceptor} that always uses the current token of the host.
+     *
+     * @param hostInfo host info
+     * @return token provider
+     */
+    public AuthenticationInterceptor.TokenProvider tokenProvider(RestApiHost hostInfo) {
+        HostKey key = new HostKey(hostInfo);
+
+        return new AuthenticationInterceptor.TokenProvider() {
+            @Override
+            public String getToken() {
+                return TokenManager.this.getToken(key).toAuthorizationToken();
+            }
+
+            @Override
+            public String renewToken(String staleToken) {
+                CachedToken cached = tokens.get(key);
+                AccessToken stale = cached != null
+                        && staleToken.equals(cached.token.toAuthorizationToken()) ? cached.token : null;
+
+                return TokenManager.this.renewToken(key, stale).toAuthorizationToken();
+            }
+        };
+    }
+
+    /**
+     * Removes all cached tokens.
+     */
+    public void clear() {
+        for (HostKey key : tokens.keySet()) {
+            CachedToken removed = tokens.remove(key);
+            if (removed != null) {
+                removed.cancelRefresh();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    protected AccessToken getToken(HostKey key) {
+        CachedToken cached = tokens.get(key);
+        if (cached != null && !cached.isExpired()) {
+            hitCount.incrementAndGet();
+            return cached.use();
+        }
+
+        synchronized (key.lock()) {
+            cached = tokens.get(key);
+            if (cached != null && !cached.isExpired()) {
+                hitCount.incrementAndGet();
+                return cached.use();
+            }
+
+            missCount.incrementAndGet();
+            return store(key, requestToken(key.hostInfo)).use();
+        }
+    }
+
+    protected AccessToken renewToken(HostKey key, AccessToken staleToken) {
+        synchronized (key.lock()) {
+            CachedToken cached = tokens.get(key);
+            if (cached != null && cached.token != staleToken && !cached.isExpired()) {
+                // already renewed by another thread
+                return cached.use();
+            }
+
+            missCount.incrementAndGet();
+            return store(key, requestToken(key.hostInfo)).use();
+        }
+    }
+
+    protected AccessToken requestToken(RestApiHost hostInfo) {
+        OAuthTokenService oAuthTokenService = Connectors.restApiOAuthService(hostInfo);
+
+        Response<AccessToken> response;
+        try {
+            response = oAuthTokenService.token(
+                    hostInfo.getUser(), hostInfo.getPassword(),
+                    hostInfo.getGrantType())
+                    .execute();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to obtain OAuth2 token", e);
+        }
+
+        if (!response.isSuccessful() || response.body() == null) {
+            throw new RuntimeException("Unable to obtain OAuth2 token, response code " + response.code());
+        }
+
+        return response.body();
+    }
+
+    protected CachedToken store(HostKey key, AccessToken token) {
+        CachedToken cached = new CachedToken(token);
+        CachedToken previous = tokens.put(key, cached);
+        if (previous != null) {
+            previous.cancelRefresh();
+        }
+
+        Integer expiresIn = token.getExpiresIn();
+        if (expiresIn != null) {
+            long delay = refreshDelay(expiresIn);
+            cached.refreshTask = refresher.schedule(() -> refresh(key, cached), delay, TimeUnit.SECONDS);
+        }
+
+        return cached;
+    }
+
+    protected void refresh(HostKey key, CachedToken expiring) {
+        synchronized (key.lock()) {
+            if (tokens.get(key) != expiring) {
+                return;
+            }
+
+            if (!expiring.used) {
+                log.debug("OAuth2 token for {} is not used, skip refresh", key.hostInfo.getBaseUrl());
+                return;
+            }
+
+            try {
+                store(key, requestToken(key.hostInfo));
+                refreshCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("Unable to refresh OAuth2 token for {}", key.hostInfo.getBaseUrl(), e);
+            }
+        }
+    }
+
+    /**
+     * @param expiresIn token lifetime in seconds
+     * @return delay of background refresh in seconds
+     */
+    protected static long refreshDelay(long expiresIn) {
+        return Math.max(Math.max(expiresIn - REFRESH_MARGIN_SEC, expiresIn / 2), 1L);
+    }
+
+    protected static class CachedToken {
+        private final AccessToken token;
+        private final long expiresAt;
+        private volatile ScheduledFuture<?> refreshTask;
+        private volatile boolean used;
+
+        public CachedToken(AccessToken token) {
+            this.token = token;
+
+            Integer expiresIn = token.getExpiresIn();
+            this.expiresAt = expiresIn != null
+                    ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiresIn)
+                    : Long.MAX_VALUE;
+        }
+
+        public AccessToken use() {
+            used = true;
+            return token;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        public void cancelRefresh() {
+            if (refreshTask != null) {
+                refreshTask.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of {@link RestApiHost} that is used as a cache key.
+     */
+    protected static final class HostKey {
+        private static final Map<HostKey, Object> locks = new ConcurrentHashMap<>();
+
+        private final RestApiHost hostInfo;
+
+        public HostKey(RestApiHost source) {
+            RestApiHost copy = new RestApiHost(source.getUser(), source.getPassword(), source.getBaseUrl());
+            copy.setClientId(source.getClientId());
+            copy.setClientSecret(source.getClientSecret());
+            copy.setGrantType(source.getGrantType());
+
+            this.hostInfo = copy;
+        }
+
+        public Object lock() {
+            return locks.computeIfAbsent(this, key -> new Object());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RestApiHost that = ((HostKey) o).hostInfo;
+            return Objects.equals(hostInfo.getBaseUrl(), that.getBaseUrl())
+                    && Objects.equals(hostInfo.getUser(), that.getUser())
+                    && Objects.equals(hostInfo.getPassword(), that.getPassword())
+                    && Objects.equals(hostInfo.getClientId(), that.getClientId())
+                    && Objects.equals(hostInfo.getClientSecret(), that.getClientSecret())
+                    && Objects.equals(hostInfo.getGrantType(), that.getGrantType());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostInfo.getBaseUrl(), hostInfo.getUser(), hostInfo.getPassword(),
+                    hostInfo.getClientId(), hostInfo.getClientSecret(), hostInfo.getGrantType());
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.haulmont.masquerade;
 
+import com.haulmont.masquerade.restapi.TokenManager;
 import com.haulmont.masquerade.restapi.User;
 import com.haulmont.masquerade.restapi.UserService;
 import okhttp3.ResponseBody;
@@ -53,4 +54,17 @@ public class RestApiTest {
         Call<ResponseBody> call = userService.create(user);
         call.execute();
     }
+
+    @Test
+    public void tokenReuse() throws Exception {
+        TokenManager tokenManager = TokenManager.getInstance();
+        tokenManager.clear();
+
+        long misses = tokenManager.getMissCount();
+
+        Connectors.restApi(UserService.class).all().execute();
+        Connectors.restApi(UserService.class).all().execute();
+
+        assertEquals(misses + 1, tokenManager.getMissCount());
+    }
 }
\ No newline at end of file
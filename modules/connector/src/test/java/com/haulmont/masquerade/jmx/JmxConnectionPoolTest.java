@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.jmx;
+
+import com.haulmont.masquerade.Connectors;
+import com.haulmont.masquerade.jmx.JmxConnectionPool.JmxConnection;
+import org.junit.Test;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JmxConnectionPoolTest {
+    private final Connectors.JmxHost host = new Connectors.JmxHost(null, null, "localhost:7777");
+
+    @Test
+    public void reusesReleasedConnection() throws IOException {
+        FakePool pool = new FakePool();
+
+        JmxConnection connection = pool.borrow(host);
+        pool.release(connection);
+        assertEquals(1, pool.getIdleCount(host));
+
+        assertSame(connection, pool.borrow(host));
+        assertEquals(1, pool.connectors.size());
+    }
+
+    @Test
+    public void reconnectsAfterRestartWithSeveralIdleConnections() throws IOException {
+        FakePool pool = new FakePool();
+
+        JmxConnection first = pool.borrow(host);
+        JmxConnection second = pool.borrow(host);
+        pool.release(first);
+        pool.release(second);
+        assertEquals(2, pool.getIdleCount(host));
+
+        for (FakeConnector connector : pool.connectors) {
+            connector.alive = false;
+        }
+        // idle connections are within validation interval and are borrowed without a check
+        JmxCallHandler handler = new JmxCallHandler(host, "app:type=Config", pool);
+
+        Config config = (Config) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{Config.class}, handler);
+        assertEquals("value", config.getValue());
+
+        assertEquals(3, pool.connectors.size());
+        assertTrue(pool.connectors.get(0).closed);
+        assertTrue(pool.connectors.get(1).closed);
+        assertEquals(1, pool.getIdleCount(host));
+    }
+
+    @Test
+    public void evictsIdleConnections() throws IOException {
+        FakePool pool = new FakePool();
+
+        pool.release(pool.borrow(host));
+        pool.evictIdle(60_000L);
+        assertEquals(1, pool.getIdleCount(host));
+
+        pool.evictIdle(0);
+        assertEquals(0, pool.getIdleCount(host));
+        assertTrue(pool.connectors.get(0).closed);
+    }
+
+    public interface Config {
+        String getValue();
+    }
+
+    private static class FakePool extends JmxConnectionPool {
+        private final List<FakeConnector> connectors = new ArrayList<>();
+
+        @Override
+        protected JmxConnection connect(Connectors.JmxHost hostInfo) throws IOException {
+            FakeConnector connector = new FakeConnector();
+            connectors.add(connector);
+            return new JmxConnection(hostInfo, connector.proxy());
+        }
+    }
+
+    private static class FakeConnector {
+        private volatile boolean alive = true;
+        private volatile boolean closed;
+
+        JMXConnector proxy() {
+            MBeanServerConnection connection = (MBeanServerConnection) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class[]{MBeanServerConnection.class},
+                    (proxy, method, args) -> {
+                        if (!alive) {
+                            throw new IOException("Connection refused");
+                        }
+                        switch (method.getName()) {
+                            case "getDefaultDomain":
+                                return "DefaultDomain";
+                            case "getAttribute":
+                                return "value";
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+
+            return (JMXConnector) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class[]{JMXConnector.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getMBeanServerConnection":
+                                return connection;
+                            case "close":
+                                closed = true;
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
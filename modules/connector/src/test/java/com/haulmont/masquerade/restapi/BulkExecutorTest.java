@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.restapi;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BulkExecutorTest {
+
+    @Test
+    public void boundedConcurrency() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        List<Call<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calls.add(new StubCall(i, active, maxActive));
+        }
+
+        BulkExecutor.BulkResult<Integer> result = new BulkExecutor(4).execute(calls);
+
+        assertTrue(result.isSuccessful());
+        assertTrue(maxActive.get() <= 4);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), result.getResults().get(i));
+        }
+    }
+
+    @Test
+    public void failuresAreCollected() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+
+        List<Call<Integer>> calls = new ArrayList<>();
+        calls.add(new StubCall(1, active, maxActive));
+        calls.add(new StubCall(-1, active, maxActive));
+        calls.add(new StubCall(3, active, maxActive));
+
+        BulkExecutor.BulkResult<Integer> result = new BulkExecutor(2).execute(calls);
+
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertTrue(result.getFailures().get(0).getError() instanceof HttpException);
+        assertNull(result.getResults().get(1));
+        assertEquals(Integer.valueOf(3), result.getResults().get(2));
+    }
+
+    private static class StubCall implements Call<Integer> {
+        private final int value;
+        private final AtomicInteger active;
+        private final AtomicInteger maxActive;
+
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        StubCall(int value, AtomicInteger active, AtomicInteger maxActive) {
+            this.value = value;
+            this.active = active;
+            this.maxActive = maxActive;
+        }
+
+        @Override
+        public Response<Integer> execute() {
+            executed = true;
+            return response();
+        }
+
+        @Override
+        public void enqueue(Callback<Integer> callback) {
+            executed = true;
+
+            int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+
+            new Thread(() -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                callback.onResponse(this, response());
+            }).start();
+        }
+
+        private Response<Integer> response() {
+            if (value < 0) {
+                return Response.error(500, ResponseBody.create(null, "error"));
+            }
+            return Response.success(value);
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @SuppressWarnings("MethodDoesntCallSuperMethod")
+        @Override
+        public Call<Integer> clone() {
+            return new StubCall(value, active, maxActive);
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("http://localhost/").build();
+        }
+    }
+}
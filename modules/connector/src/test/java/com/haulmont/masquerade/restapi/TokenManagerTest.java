@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.restapi;
+
+import com.haulmont.masquerade.Connectors.RestApiHost;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TokenManagerTest {
+
+    @Test
+    public void refreshDelay() {
+        assertEquals(1, TokenManager.refreshDelay(1));
+        assertEquals(1, TokenManager.refreshDelay(2));
+        assertEquals(30, TokenManager.refreshDelay(60));
+        assertEquals(3600 - TokenManager.REFRESH_MARGIN_SEC, TokenManager.refreshDelay(3600));
+    }
+
+    @Test
+    public void unusedTokenIsNotRefreshed() throws Exception {
+        StubTokenManager tokenManager = new StubTokenManager(2);
+        RestApiHost host = new RestApiHost("admin", "admin", "http://localhost:8080/app/rest/");
+
+        AccessToken token = tokenManager.getToken(host);
+        assertSame(token, tokenManager.getToken(host));
+
+        // first refresh after 1 second replaces the used token, the refreshed one is not requested
+        Thread.sleep(3500);
+
+        tokenManager.clear();
+
+        assertEquals(2, tokenManager.requests.get());
+        assertEquals(1, tokenManager.getRefreshCount());
+    }
+
+    @Test
+    public void expiredTokenIsRequestedAgain() throws Exception {
+        StubTokenManager tokenManager = new StubTokenManager(1);
+        RestApiHost host = new RestApiHost("admin", "admin", "http://localhost:8080/app/rest/");
+
+        AccessToken token = tokenManager.getToken(host);
+
+        // refresh is skipped since token is not requested after it has been refreshed
+        Thread.sleep(2500);
+
+        AccessToken renewed = tokenManager.getToken(host);
+        tokenManager.clear();
+
+        assertNotSame(token, renewed);
+        assertEquals(1, tokenManager.getRefreshCount());
+        assertEquals(3, tokenManager.requests.get());
+    }
+
+    private static class StubTokenManager extends TokenManager {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final int expiresIn;
+
+        StubTokenManager(int expiresIn) {
+            this.expiresIn = expiresIn;
+        }
+
+        @Override
+        protected AccessToken requestToken(RestApiHost hostInfo) {
+            AccessToken token = new AccessToken();
+            token.setAccessToken("token-" + requests.incrementAndGet());
+            token.setTokenType("bearer");
+            token.setExpiresIn(expiresIn);
+            return token;
+        }
+    }
+}
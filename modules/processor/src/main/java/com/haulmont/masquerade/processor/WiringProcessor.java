@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates {@code <Composite>_Wiring} classes that assign {@code @Wire} and {@code @FindBy} fields of composites
+ * without reflection and checks wiring annotations at compile time.
+ * <br>
+ * Only subclasses of {@code Composite} are processed. Only non-private, non-static, non-final fields are assigned
+ * by generated classes, other fields are still wired by reflection at runtime. A note is reported for composites
+ * that have no such fields.
+ */
+@SupportedAnnotationTypes({WiringProcessor.WIRE, WiringProcessor.FIND_BY})
+public class WiringProcessor extends AbstractProcessor {
+    static final String WIRE = "com.haulmont.masquerade.Wire";
+    static final String FIND_BY = "org.openqa.selenium.support.FindBy";
+
+    static final String WIRING_SUFFIX = "_Wiring";
+
+    private static final String COMPOSITE = "com.haulmont.masquerade.base.Composite";
+
+    private static final String SELENIDE_ELEMENT = "com.codeborne.selenide.SelenideElement";
+    private static final String BY = "org.openqa.selenium.By";
+    private static final String LOGGER = "org.slf4j.Logger";
+
+    private static final Map<String, String> FIND_BY_STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        FIND_BY_STRATEGIES.put("id", "ID");
+        FIND_BY_STRATEGIES.put("name", "NAME");
+        FIND_BY_STRATEGIES.put("className", "CLASS_NAME");
+        FIND_BY_STRATEGIES.put("css", "CSS");
+        FIND_BY_STRATEGIES.put("tagName", "TAG_NAME");
+        FIND_BY_STRATEGIES.put("linkText", "LINK_TEXT");
+        FIND_BY_STRATEGIES.put("partialLinkText", "PARTIAL_LINK_TEXT");
+        FIND_BY_STRATEGIES.put("xpath", "XPATH");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> compositeFields = new LinkedHashMap<>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.FIELD) {
+                    continue;
+                }
+
+                TypeElement composite = (TypeElement) element.getEnclosingElement();
+                List<VariableElement> fields = compositeFields.computeIfAbsent(composite, k -> new ArrayList<>());
+                if (!fields.contains(element)) {
+                    fields.add((VariableElement) element);
+                }
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : compositeFields.entrySet()) {
+            processComposite(entry.getKey(), entry.getValue());
+        }
+
+        // annotations are not exclusive for the processor
+        return false;
+    }
+
+    protected void processComposite(TypeElement composite, List<VariableElement> fields) {
+        if (!isComposite(composite)) {
+            return;
+        }
+
+        List<FieldWiring> wirings = new ArrayList<>();
+        boolean valid = true;
+
+        for (VariableElement field : fields) {
+            FieldWiring wiring = createFieldWiring(field);
+            if (wiring == null) {
+                valid = false;
+            } else if (isAssignable(field)) {
+                wirings.add(wiring);
+            }
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        if (wirings.isEmpty() || !isAccessible(composite)) {
+            getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Wiring is not generated for " + composite.getQualifiedName()
+                            + ": fields are wired by reflection, make the class and its fields non-private"
+                            + " to wire them by generated code", composite);
+            return;
+        }
+
+        try {
+            writeWiring(composite, wirings);
+        } catch (IOException e) {
+            getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write wiring class: " + e.getMessage(), composite);
+        }
+    }
+
+    /**
+     * @return wiring of the field or null if annotations are invalid
+     */
+    protected FieldWiring createFieldWiring(VariableElement field) {
+        AnnotationMirror wire = findAnnotation(field, WIRE);
+        AnnotationMirror findBy = findAnnotation(field, FIND_BY);
+
+        String fieldType = erasure(field.asType());
+
+        if (wire != null) {
+            if (SELENIDE_ELEMENT.equals(fieldType)) {
+                return new FieldWiring(field, FieldKind.SELENIDE_ELEMENT, null);
+            }
+            if (BY.equals(fieldType)) {
+                return new FieldWiring(field, FieldKind.BY, null);
+            }
+            if (LOGGER.equals(fieldType)) {
+                return new FieldWiring(field, FieldKind.LOGGER, null);
+            }
+
+            List<String> path = getPath(wire);
+            if (path.isEmpty()) {
+                path.add(field.getSimpleName().toString());
+            }
+
+            for (String pathElement : path) {
+                if (!isValidPathElement(pathElement)) {
+                    getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Invalid @Wire path element '" + pathElement + "'", field, wire);
+                    return null;
+                }
+            }
+
+            StringBuilder selector = new StringBuilder("com.haulmont.masquerade.Selectors.byPath(");
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) {
+                    selector.append(", ");
+                }
+                selector.append(literal(path.get(i)));
+            }
+            selector.append(")");
+
+            return new FieldWiring(field, FieldKind.COMPONENT, selector.toString());
+        }
+
+        if (findBy != null) {
+            String selector = buildFindBySelector(field, findBy);
+            if (selector == null) {
+                return null;
+            }
+            return new FieldWiring(field, FieldKind.COMPONENT, selector);
+        }
+
+        return null;
+    }
+
+    protected String buildFindBySelector(VariableElement field, AnnotationMirror findBy) {
+        Map<String, Object> values = getValues(findBy);
+
+        String strategy = null;
+        String using = null;
+        for (Map.Entry<String, String> entry : FIND_BY_STRATEGIES.entrySet()) {
+            Object value = values.get(entry.getKey());
+            if (value instanceof String && !((String) value).isEmpty()) {
+                if (strategy != null) {
+                    getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "@FindBy must specify only one location strategy", field, findBy);
+                    return null;
+                }
+                strategy = entry.getValue();
+                using = (String) value;
+            }
+        }
+
+        if (strategy == null) {
+            Object how = values.get("how");
+            Object usingValue = values.get("using");
+            if (usingValue instanceof String && !((String) usingValue).isEmpty()) {
+                strategy = how == null ? "UNSET" : how.toString();
+                using = (String) usingValue;
+            }
+        }
+
+        if (strategy == null) {
+            getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "@FindBy must specify a location strategy", field, findBy);
+            return null;
+        }
+
+        return "org.openqa.selenium.support.How." + strategy + ".buildBy(" + literal(using) + ")";
+    }
+
+    protected void writeWiring(TypeElement composite, List<FieldWiring> wirings) throws IOException {
+        String packageName = getPackage(composite).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(composite).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String wiringName = simpleBinaryName + WIRING_SUFFIX;
+        String compositeName = erasure(composite.asType());
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                (packageName.isEmpty() ? "" : packageName + ".") + wiringName, composite);
+
+        Set<String> constantNames = new HashSet<>();
+        Map<FieldWiring, String> constants = new LinkedHashMap<>();
+        for (FieldWiring wiring : wirings) {
+            if (wiring.selector != null) {
+                String name = toConstantName(wiring.getName());
+                while (!constantNames.add(name)) {
+                    name = name + "_";
+                }
+                constants.put(wiring, name);
+            }
+        }
+
+        try (Writer writer = file.openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+
+            writer.write("/**\n");
+            writer.write(" * Wiring of {@link " + composite.getQualifiedName() + "} generated by masquerade-processor.\n");
+            writer.write(" */\n");
+            writer.write("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+            writer.write("public final class " + wiringName
+                    + " implements com.haulmont.masquerade.sys.CompositeWiring {\n");
+
+            for (Map.Entry<FieldWiring, String> constant : constants.entrySet()) {
+                writer.write("    private static final org.openqa.selenium.By " + constant.getValue()
+                        + " = " + constant.getKey().selector + ";\n");
+            }
+            if (!constants.isEmpty()) {
+                writer.write("\n");
+            }
+
+            writer.write("    @Override\n");
+            writer.write("    public java.util.List<String> getWiredFields() {\n");
+            writer.write("        return java.util.Arrays.asList(");
+            for (int i = 0; i < wirings.size(); i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write(literal(wirings.get(i).getName()));
+            }
+            writer.write(");\n");
+            writer.write("    }\n\n");
+
+            writer.write("    @Override\n");
+            writer.write("    public void wire(Object instance, Class<?> wiredClass, org.openqa.selenium.By parentBy) {\n");
+            writer.write("        " + compositeName + " composite = (" + compositeName + ") instance;\n");
+            for (FieldWiring wiring : wirings) {
+                writer.write("        composite." + wiring.getName() + " = " + wiring.getValueExpression(constants.get(wiring)) + ";\n");
+            }
+            writer.write("    }\n");
+            writer.write("}\n");
+        }
+    }
+
+    protected boolean isAssignable(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        return !modifiers.contains(Modifier.PRIVATE)
+                && !modifiers.contains(Modifier.STATIC)
+                && !modifiers.contains(Modifier.FINAL)
+                && field.asType().getKind() != TypeKind.TYPEVAR;
+    }
+
+    protected boolean isComposite(TypeElement type) {
+        TypeElement compositeType = processingEnv.getElementUtils().getTypeElement(COMPOSITE);
+        if (compositeType == null) {
+            return false;
+        }
+
+        return processingEnv.getTypeUtils().isSubtype(processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(compositeType.asType()));
+    }
+
+    protected boolean isAccessible(TypeElement composite) {
+        Element element = composite;
+        while (element instanceof TypeElement) {
+            TypeElement type = (TypeElement) element;
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)
+                    && type.getKind() == ElementKind.CLASS) {
+                return false;
+            }
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            element = type.getEnclosingElement();
+        }
+        return composite.getKind() == ElementKind.CLASS;
+    }
+
+    protected boolean isValidPathElement(String pathElement) {
+        if (pathElement.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < pathElement.length(); i++) {
+            char c = pathElement.charAt(i);
+            if (Character.isWhitespace(c) || c == '\'' || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected List<String> getPath(AnnotationMirror wire) {
+        List<String> path = new ArrayList<>();
+        Object value = getValues(wire).get("path");
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                path.add(String.valueOf(((AnnotationValue) item).getValue()));
+            }
+        }
+        return path;
+    }
+
+    protected Map<String, Object> getValues(AnnotationMirror annotation) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    protected AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    protected PackageElement getPackage(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element);
+    }
+
+    protected String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    protected Messager getMessager() {
+        return processingEnv.getMessager();
+    }
+
+    static String toConstantName(String fieldName) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(fieldName.charAt(i - 1))) {
+                sb.append('_');
+            }
+            sb.append(c);
+        }
+        return sb.toString().toUpperCase(Locale.ROOT) + "_BY";
+    }
+
+    static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    protected enum FieldKind {
+        SELENIDE_ELEMENT,
+        BY,
+        LOGGER,
+        COMPONENT
+    }
+
+    protected static class FieldWiring {
+        private final VariableElement field;
+        private final FieldKind kind;
+        private final String selector;
+
+        protected FieldWiring(VariableElement field, FieldKind kind, String selector) {
+            this.field = field;
+            this.kind = kind;
+            this.selector = selector;
+        }
+
+        protected String getName() {
+            return field.getSimpleName().toString();
+        }
+
+        protected String getValueExpression(String selectorConstant) {
+            switch (kind) {
+                case SELENIDE_ELEMENT:
+                    return "com.codeborne.selenide.Selenide.$(parentBy)";
+                case BY:
+                    return "parentBy";
+                case LOGGER:
+                    return "org.slf4j.LoggerFactory.getLogger(wiredClass)";
+                case COMPONENT:
+                    String fieldType = field.asType().getKind() == TypeKind.DECLARED
+                            ? ((DeclaredType) field.asType()).asElement().toString()
+                            : field.asType().toString();
+                    return "com.haulmont.masquerade.Components.wireField(" + fieldType + ".class, parentBy, "
+                            + selectorConstant + ")";
+                default:
+                    throw new IllegalStateException("Unsupported field kind " + kind);
+            }
+        }
+    }
+}
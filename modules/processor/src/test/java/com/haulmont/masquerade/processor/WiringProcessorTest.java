@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.processor;
+
+import com.haulmont.masquerade.Components;
+import com.haulmont.masquerade.components.Component;
+import com.haulmont.masquerade.sys.CompositeWiring;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.Selectors.byPath;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class WiringProcessorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void generateWiring() throws Exception {
+        File output = temporaryFolder.newFolder();
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(output, "sample.LoginScreen",
+                "package sample;\n" +
+                "import com.haulmont.masquerade.Wire;\n" +
+                "import com.haulmont.masquerade.base.Composite;\n" +
+                "import com.haulmont.masquerade.components.*;\n" +
+                "import org.openqa.selenium.support.FindBy;\n" +
+                "public class LoginScreen extends Composite<LoginScreen> {\n" +
+                "    @Wire TextField loginField;\n" +
+                "    @Wire(path = {\"form\", \"ok\"}) Button okButton;\n" +
+                "    @FindBy(css = \".caption\") Label caption;\n" +
+                "    @Wire private CheckBox rememberMe;\n" +
+                "}\n");
+
+        assertTrue(diagnostics.getDiagnostics().toString(), isSuccessful(diagnostics));
+        assertTrue(new File(output, "sample/LoginScreen_Wiring.class").exists());
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()},
+                getClass().getClassLoader())) {
+            Class<?> screenClass = classLoader.loadClass("sample.LoginScreen");
+            CompositeWiring wiring = (CompositeWiring) classLoader.loadClass("sample.LoginScreen_Wiring")
+                    .getDeclaredConstructor().newInstance();
+
+            assertEquals(Arrays.asList("loginField", "okButton", "caption"), wiring.getWiredFields());
+
+            Object screen = Components.wire(screenClass, "login");
+
+            assertEquals(byChain(byPath("login"), byPath("loginField")).toString(),
+                    getComponent(screen, "loginField").getBy().toString());
+            assertEquals(byChain(byPath("login"), byPath("form", "ok")).toString(),
+                    getComponent(screen, "okButton").getBy().toString());
+            assertNotNull(getComponent(screen, "caption"));
+            assertNotNull(getComponent(screen, "rememberMe"));
+        }
+    }
+
+    @Test
+    public void privateFieldsOnly() throws Exception {
+        File output = temporaryFolder.newFolder();
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(output, "sample.LoginWindow",
+                "package sample;\n" +
+                "import com.haulmont.masquerade.Wire;\n" +
+                "import com.haulmont.masquerade.base.Composite;\n" +
+                "import com.haulmont.masquerade.components.*;\n" +
+                "public class LoginWindow extends Composite<LoginWindow> {\n" +
+                "    @Wire private TextField loginField;\n" +
+                "    @Wire private PasswordField passwordField;\n" +
+                "}\n");
+
+        assertTrue(isSuccessful(diagnostics));
+        assertFalse(new File(output, "sample/LoginWindow_Wiring.class").exists());
+        assertTrue(diagnostics.getDiagnostics().stream()
+                .anyMatch(d -> d.getKind() == Diagnostic.Kind.NOTE
+                        && d.getMessage(null).contains("Wiring is not generated for sample.LoginWindow")));
+    }
+
+    @Test
+    public void notComposite() throws Exception {
+        File output = temporaryFolder.newFolder();
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(output, "sample.Page",
+                "package sample;\n" +
+                "import com.haulmont.masquerade.Wire;\n" +
+                "import com.haulmont.masquerade.components.*;\n" +
+                "public class Page {\n" +
+                "    @Wire TextField loginField;\n" +
+                "}\n");
+
+        assertTrue(isSuccessful(diagnostics));
+        assertFalse(new File(output, "sample/Page_Wiring.class").exists());
+        assertTrue(diagnostics.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void invalidPath() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(temporaryFolder.newFolder(), "sample.BadScreen",
+                "package sample;\n" +
+                "import com.haulmont.masquerade.Wire;\n" +
+                "import com.haulmont.masquerade.base.Composite;\n" +
+                "import com.haulmont.masquerade.components.*;\n" +
+                "public class BadScreen extends Composite<BadScreen> {\n" +
+                "    @Wire(path = {\"form\", \"ok button\"}) Button okButton;\n" +
+                "}\n");
+
+        assertFalse(isSuccessful(diagnostics));
+        assertTrue(diagnostics.getDiagnostics().toString().contains("Invalid @Wire path element 'ok button'"));
+    }
+
+    @Test
+    public void ambiguousFindBy() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(temporaryFolder.newFolder(), "sample.BadScreen",
+                "package sample;\n" +
+                "import com.haulmont.masquerade.base.Composite;\n" +
+                "import com.haulmont.masquerade.components.*;\n" +
+                "import org.openqa.selenium.support.FindBy;\n" +
+                "public class BadScreen extends Composite<BadScreen> {\n" +
+                "    @FindBy(css = \".caption\", xpath = \"//div\") Label caption;\n" +
+                "}\n");
+
+        assertFalse(isSuccessful(diagnostics));
+        assertTrue(diagnostics.getDiagnostics().toString().contains("only one location strategy"));
+    }
+
+    private static Component getComponent(Object composite, String fieldName) throws Exception {
+        Field field = composite.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return (Component) field.get(composite);
+    }
+
+    private static boolean isSuccessful(DiagnosticCollector<JavaFileObject> diagnostics) {
+        return diagnostics.getDiagnostics().stream()
+                .noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR);
+    }
+
+    private static DiagnosticCollector<JavaFileObject> compile(File output, String className, String source)
+            throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaFileObject file = new SimpleJavaFileObject(
+                    URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                            "-d", output.getAbsolutePath(),
+                            "-s", output.getAbsolutePath()),
+                    null, Collections.singletonList(file));
+            task.setProcessors(Collections.singletonList(new WiringProcessor()));
+            task.call();
+        }
+
+        return diagnostics;
+    }
+}
@@ -20,6 +20,10 @@ import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.base.SelenideElementWrapper;
 import com.haulmont.masquerade.config.ComponentConfig;
 import com.haulmont.masquerade.config.DefaultComponentConfig;
+import com.haulmont.masquerade.metrics.MasqueradeMetrics;
+import com.haulmont.masquerade.metrics.MasqueradeTimeline;
+import com.haulmont.masquerade.sys.CompositeWiring;
+import com.haulmont.masquerade.sys.GeneratedProxies;
 import com.haulmont.masquerade.sys.LoggingInvocationHandler;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.openqa.selenium.By;
@@ -28,10 +32,19 @@ import org.openqa.selenium.support.pagefactory.Annotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
@@ -41,10 +54,27 @@ import static com.haulmont.masquerade.Selectors.byPath;
 import static com.haulmont.masquerade.Selectors.byTarget;
 
 public class Components {
+    /**
+     * Proxy implementation for components: {@code generated} - generated proxy classes,
+     * {@code jdk} - {@link Proxy} with reflective calls. JDK proxies are always used if {@link MasqueradeMetrics}
+     * or {@link MasqueradeTimeline} are enabled, they attribute WebDriver commands to components.
+     */
+    public static final String PROXY_BACKEND = System.getProperty("masquerade.proxy.backend", "generated");
+
+    private static final boolean GENERATED_PROXIES = !"jdk".equals(PROXY_BACKEND)
+            && !MasqueradeMetrics.ENABLED && !MasqueradeTimeline.ENABLED;
+
     private static final By BODY_MARKER_BY = By.tagName("body");
 
     private static final Map<Class, Function<By, ?>> components = new ConcurrentHashMap<>();
 
+    private static final ClassValue<WiringPlan> wiringPlans = new ClassValue<WiringPlan>() {
+        @Override
+        protected WiringPlan computeValue(Class<?> type) {
+            return new WiringPlan(type);
+        }
+    };
+
     static {
         ComponentConfig defaultConfig = new DefaultComponentConfig();
         components.putAll(defaultConfig.getComponents());
@@ -62,10 +92,30 @@ public class Components {
     protected Components() {
     }
 
+    /**
+     * Registers component implementation. Thread-safe, the registration is visible to all the threads that
+     * wire the component after this method returns. Components are usually registered before tests start,
+     * replacing an implementation while other threads wire it is safe but affects only subsequent wiring.
+     *
+     * @param clazz             component interface
+     * @param componentSupplier creates implementation by component selector
+     * @param <T>               component type
+     */
     public static <T> void register(Class<T> clazz, Function<By, T> componentSupplier) {
         components.put(clazz, componentSupplier);
     }
 
+    /**
+     * Wires component or composite. Thread-safe, wiring plans of composite classes are built once and shared.
+     * <br>
+     * Wired objects do not hold browser state: elements are looked up lazily through the Selenide WebDriver
+     * of the thread that calls a component method. An object wired in one thread operates on the browser of the
+     * calling thread when used from another one, so parallel tests should wire their own objects.
+     *
+     * @param clazz component or composite class
+     * @param <T>   type
+     * @return wired object
+     */
     public static <T> T wire(Class<T> clazz) {
         Wire clazzWire = clazz.getAnnotation(Wire.class);
         By targetBy;
@@ -122,95 +172,265 @@ public class Components {
             return proxyComponent(clazz, instance);
         } else {
             // custom composite
+            return wiringPlans.get(clazz).wire(clazz, by);
+        }
+    }
+
+    /**
+     * Wires a component or composite of a composite field.
+     *
+     * @param fieldClass type of field
+     * @param parentBy   selector of the composite
+     * @param fieldBy    selector of the field relative to the composite
+     * @param <T>        type of field
+     * @return field value
+     */
+    public static <T> T wireField(Class<T> fieldClass, By parentBy, By fieldBy) {
+        if (parentBy == BODY_MARKER_BY) {
+            return wireClassBy(fieldClass, fieldBy);
+        }
+        return wireClassBy(fieldClass, byChain(parentBy, fieldBy));
+    }
+
+    /**
+     * Wires a single field of a composite.
+     *
+     * @param clazz    composite class
+     * @param field    field annotated with {@code @Wire} or {@code @FindBy}
+     * @param parentBy selector of the composite
+     * @return field value or null if the field is not annotated
+     * @deprecated composites are wired by {@link WiringPlan}, use {@link #wireField(Class, By, By)}
+     */
+    @Deprecated
+    protected static Object getTargetFieldValue(Class clazz, Field field, By parentBy) {
+        FieldWiring fieldWiring = WiringPlan.createFieldWiring(clazz, field);
+        return fieldWiring != null ? fieldWiring.getValue(parentBy) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T proxyComponent(Class<T> componentClass, T target) {
+        LoggingInvocationHandler invocationHandler = new LoggingInvocationHandler(componentClass, target);
+        invocationHandler.setProxyFactory((interfaceClass, object) -> {
+            if (SelenideElementWrapper.class.isAssignableFrom(interfaceClass)
+                    && interfaceClass.isInterface()) {
+                return proxyComponent(interfaceClass, object);
+            }
+
+            return object;
+        });
+
+        if (GENERATED_PROXIES && GeneratedProxies.isSupported(componentClass)) {
+            return GeneratedProxies.createProxy(componentClass, target, invocationHandler);
+        }
+
+        return (T) Proxy.newProxyInstance(
+                componentClass.getClassLoader(),
+                new Class<?>[]{componentClass},
+                invocationHandler);
+    }
+
+    /**
+     * Precompiled wiring of a composite class: constructor, annotated fields, their relative selectors and setters.
+     * Fields assigned by generated {@link CompositeWiring} classes are not wired by reflection.
+     */
+    protected static class WiringPlan {
+        private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        private final MethodHandle constructor;
+        private final ReflectiveOperationException constructorError;
+        private final List<CompositeWiring> generatedWirings = new ArrayList<>();
+        private final List<FieldWiring> fields = new ArrayList<>();
+
+        protected WiringPlan(Class<?> clazz) {
+            MethodHandle constructor = null;
+            ReflectiveOperationException constructorError = null;
+            try {
+                if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+                    throw new InstantiationException(clazz.getName());
+                }
+
+                Constructor<?> declaredConstructor = clazz.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+                constructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                        .asType(MethodType.methodType(Object.class));
+            } catch (ReflectiveOperationException e) {
+                constructorError = e;
+            }
+            this.constructor = constructor;
+            this.constructorError = constructorError;
+
+            Set<String> generatedFields = new HashSet<>();
+            for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                CompositeWiring generatedWiring = loadGeneratedWiring(c);
+                if (generatedWiring != null) {
+                    generatedWirings.add(generatedWiring);
+                    for (String fieldName : generatedWiring.getWiredFields()) {
+                        generatedFields.add(c.getName() + "#" + fieldName);
+                    }
+                }
+            }
+
+            for (Field field : FieldUtils.getAllFields(clazz)) {
+                if (generatedFields.contains(field.getDeclaringClass().getName() + "#" + field.getName())) {
+                    continue;
+                }
+
+                FieldWiring fieldWiring = createFieldWiring(clazz, field);
+                if (fieldWiring != null) {
+                    fields.add(fieldWiring);
+                }
+            }
+        }
+
+        /**
+         * @param clazz composite class
+         * @param field field of the composite
+         * @return wiring of the field or null if the field is not annotated with {@code @Wire} or {@code @FindBy}
+         */
+        protected static FieldWiring createFieldWiring(Class<?> clazz, Field field) {
+            Wire wire = field.getAnnotation(Wire.class);
+            FindBy findBy = field.getAnnotation(FindBy.class);
+
+            if (wire != null) {
+                if (field.getType() == SelenideElement.class) {
+                    return new FieldWiring(field, FieldKind.SELENIDE_ELEMENT, null, null);
+                } else if (field.getType() == By.class) {
+                    return new FieldWiring(field, FieldKind.BY, null, null);
+                } else if (field.getType() == Logger.class) {
+                    return new FieldWiring(field, FieldKind.LOGGER, null, LoggerFactory.getLogger(clazz));
+                } else {
+                    String[] path = wire.path();
+                    if (path.length == 0) {
+                        path = new String[]{field.getName()};
+                    }
+                    return new FieldWiring(field, FieldKind.COMPONENT, byPath(path), null);
+                }
+            } else if (findBy != null) {
+                By selector = new Annotations(field).buildBy();
+                return new FieldWiring(field, FieldKind.COMPONENT, selector, null);
+            }
+            return null;
+        }
+
+        protected <T> T wire(Class<T> clazz, By by) {
+            if (constructor == null) {
+                throw new RuntimeException("Unable to instantiate composite " + clazz.getName(), constructorError);
+            }
+
             T instance;
             try {
-                instance = clazz.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
+                instance = clazz.cast(constructor.invokeExact());
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
                 throw new RuntimeException("Unable to instantiate composite " + clazz.getName(), e);
             }
 
             // connect fields
-            Field[] allFields = FieldUtils.getAllFields(clazz);
-            for (Field field : allFields) {
-                Object fieldValue = getTargetFieldValue(clazz, field, by);
-
-                if (fieldValue != null) {
-                    try {
-                        field.setAccessible(true);
-                        field.set(instance, fieldValue);
-                    } catch (IllegalAccessException e) {
-                        throw new RuntimeException("Unable to inject field " + field.getName(), e);
-                    }
-                }
+            for (CompositeWiring generatedWiring : generatedWirings) {
+                generatedWiring.wire(instance, clazz, by);
+            }
+            for (FieldWiring field : fields) {
+                field.inject(instance, by);
             }
 
             return instance;
         }
-    }
 
-    protected static Object getTargetFieldValue(Class clazz, Field field, By parentBy) {
-        String fieldName = field.getName();
-
-        Wire wire = field.getAnnotation(Wire.class);
-
-        Object fieldValue;
-        if (wire != null) {
-            if (field.getType() == SelenideElement.class) {
-                fieldValue = $(parentBy);
-            } else if (field.getType() == By.class) {
-                fieldValue = parentBy;
-            } else if (field.getType() == Logger.class) {
-                fieldValue = LoggerFactory.getLogger(clazz);
-            } else {
-                String[] path = wire.path();
-                if (path.length == 0) {
-                    path = new String[]{fieldName};
-                }
+        protected static CompositeWiring loadGeneratedWiring(Class<?> clazz) {
+            Class<?> wiringClass;
+            try {
+                wiringClass = Class.forName(clazz.getName() + CompositeWiring.CLASS_NAME_SUFFIX,
+                        true, clazz.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
 
-                By fieldBy;
-                if (parentBy == BODY_MARKER_BY) {
-                    fieldBy = byPath(path);
-                } else {
-                    fieldBy = byChain(parentBy, byPath(path));
-                }
-                fieldValue = wireClassBy(field.getType(), fieldBy);
+            if (!CompositeWiring.class.isAssignableFrom(wiringClass)) {
+                return null;
             }
-        } else {
-            FindBy findBy = field.getAnnotation(FindBy.class);
-            if (findBy != null) {
-                By selector = new Annotations(field).buildBy();
 
-                By fieldBy;
-                if (parentBy == BODY_MARKER_BY) {
-                    fieldBy = selector;
-                } else {
-                    fieldBy = byChain(parentBy, selector);
+            try {
+                return (CompositeWiring) wiringClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Unable to instantiate generated wiring " + wiringClass.getName(), e);
+            }
+        }
+
+        protected static MethodHandle createSetter(Field field) {
+            field.setAccessible(true);
+
+            MethodHandle setter;
+            try {
+                setter = MethodHandles.lookup().unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                // e.g. final field, use reflective access as before
+                try {
+                    return MethodHandles.lookup()
+                            .findVirtual(Field.class, "set", SETTER_TYPE)
+                            .bindTo(field);
+                } catch (NoSuchMethodException | IllegalAccessException ex) {
+                    throw new RuntimeException("Unable to inject field " + field.getName(), ex);
                 }
+            }
 
-                fieldValue = wireClassBy(field.getType(), fieldBy);
-            } else {
-                fieldValue = null;
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
             }
+            return setter.asType(SETTER_TYPE);
         }
+    }
 
-        return fieldValue;
+    protected enum FieldKind {
+        SELENIDE_ELEMENT,
+        BY,
+        LOGGER,
+        COMPONENT
     }
 
-    @SuppressWarnings("unchecked")
-    public static <T> T proxyComponent(Class<T> componentClass, T target) {
-        LoggingInvocationHandler invocationHandler = new LoggingInvocationHandler(componentClass, target);
-        invocationHandler.setProxyFactory((interfaceClass, object) -> {
-            if (SelenideElementWrapper.class.isAssignableFrom(interfaceClass)
-                    && interfaceClass.isInterface()) {
-                return proxyComponent(interfaceClass, object);
+    protected static class FieldWiring {
+        private final Field field;
+        private final FieldKind kind;
+        private final By relativeBy;
+        private final Object constantValue;
+        private final MethodHandle setter;
+
+        protected FieldWiring(Field field, FieldKind kind, By relativeBy, Object constantValue) {
+            this.field = field;
+            this.kind = kind;
+            this.relativeBy = relativeBy;
+            this.constantValue = constantValue;
+            this.setter = WiringPlan.createSetter(field);
+        }
+
+        protected Object getValue(By parentBy) {
+            switch (kind) {
+                case SELENIDE_ELEMENT:
+                    return $(parentBy);
+                case BY:
+                    return parentBy;
+                case LOGGER:
+                    return constantValue;
+                case COMPONENT:
+                    return wireField(field.getType(), parentBy, relativeBy);
+                default:
+                    throw new IllegalStateException("Unsupported field kind " + kind);
             }
+        }
 
-            return object;
-        });
+        protected void inject(Object instance, By parentBy) {
+            Object fieldValue = getValue(parentBy);
+            if (fieldValue == null) {
+                return;
+            }
 
-        return (T) Proxy.newProxyInstance(
-                componentClass.getClassLoader(),
-                new Class<?>[]{componentClass},
-                invocationHandler);
+            try {
+                setter.invokeExact(instance, fieldValue);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException("Unable to inject field " + field.getName(), e);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -17,13 +17,16 @@
 package com.haulmont.masquerade;
 
 import com.codeborne.selenide.SelenideElement;
+import com.haulmont.masquerade.sys.ByChainCompiler;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.By.ByClassName;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.pagefactory.ByChained;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.codeborne.selenide.Selenide.$;
@@ -167,12 +170,23 @@ public class Selectors extends com.codeborne.selenide.Selectors {
         }
     }
 
+    /**
+     * Chain of selectors. Links are compiled with {@link ByChainCompiler} on creation, so that a chain of
+     * {@link ByCubaId} selectors is resolved with a single descendant CSS selector and adjacent XPath selectors
+     * with a single XPath expression.
+     */
     public static class ByChain extends ByChained {
         private By[] bys;
 
+        private final List<By> documentBys;
+        private final List<By> elementBys;
+
         public ByChain(By... bys) {
             super(bys);
             this.bys = bys;
+
+            this.documentBys = ByChainCompiler.compileForDocument(bys);
+            this.elementBys = ByChainCompiler.compileForElement(bys);
         }
 
         public By[] getBys() {
@@ -182,6 +196,48 @@ public class Selectors extends com.codeborne.selenide.Selectors {
         public By getLastBy() {
             return bys[bys.length - 1];
         }
+
+        /**
+         * @param context search context
+         * @return links that are actually used to find elements in the given context
+         */
+        public List<By> getCompiledBys(SearchContext context) {
+            return context instanceof WebElement ? elementBys : documentBys;
+        }
+
+        @Override
+        public WebElement findElement(SearchContext context) {
+            List<By> links = getCompiledBys(context);
+            if (links.size() == 1) {
+                return links.get(0).findElement(context);
+            }
+
+            List<WebElement> elements = findElements(context);
+            if (elements.isEmpty()) {
+                throw new NoSuchElementException("Cannot locate an element using " + toString());
+            }
+            return elements.get(0);
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            List<By> links = getCompiledBys(context);
+            if (links.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            List<WebElement> elements = links.get(0).findElements(context);
+            for (int i = 1; i < links.size() && !elements.isEmpty(); i++) {
+                By link = links.get(i);
+
+                List<WebElement> nextElements = new ArrayList<>();
+                for (WebElement element : elements) {
+                    nextElements.addAll(element.findElements(link));
+                }
+                elements = nextElements;
+            }
+            return elements;
+        }
     }
 
     public static class ByIndex extends By {
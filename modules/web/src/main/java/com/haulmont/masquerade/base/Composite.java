@@ -21,8 +21,11 @@ import com.haulmont.masquerade.Components;
 import com.haulmont.masquerade.Wire;
 import com.haulmont.masquerade.components.Container;
 import com.haulmont.masquerade.components.impl.AbstractSpecificConditionHandler;
+import com.haulmont.masquerade.sys.FormFields;
 import org.openqa.selenium.By;
 
+import java.util.Map;
+
 /**
  * Convenient parent class for composite UI components: panels, screens, tabs, etc.
  *
@@ -47,4 +50,23 @@ public abstract class Composite<T> extends AbstractSpecificConditionHandler<T> i
     public <X> X actAs(Class<X> clazz) {
         return Components.wire(clazz, by);
     }
+
+    /**
+     * Fills the fields of the composite by their {@code cuba-id}, see {@link FormFields#fill(By, Map)}.
+     *
+     * @param values values by {@code cuba-id} of fields
+     * @return this composite
+     */
+    @SuppressWarnings("unchecked")
+    public T fill(Map<String, String> values) {
+        FormFields.fill(by, values);
+        return (T) this;
+    }
+
+    /**
+     * @return values of all the fields of the composite by their {@code cuba-id}
+     */
+    public Map<String, String> read() {
+        return FormFields.read(impl);
+    }
 }
\ No newline at end of file
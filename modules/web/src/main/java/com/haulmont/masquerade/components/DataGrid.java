@@ -4,9 +4,13 @@ import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.Conditions;
 import com.haulmont.masquerade.Selectors;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
 import com.haulmont.masquerade.util.Log;
 import org.openqa.selenium.By;
 
+import java.util.stream.Stream;
+
 /**
  * DataGrid component.
  * <br>
@@ -171,6 +175,33 @@ public interface DataGrid extends Component<DataGrid> {
 
     SelenideElement getDetailsRow();
 
+    /**
+     * Reads header, rendered rows, cell texts, selection state and row style classes with a single browser call.
+     *
+     * @return immutable snapshot of rendered content
+     */
+    TableSnapshot snapshot();
+
+    /**
+     * Lazily iterates over all the rows of the component, scrolling its body on demand and waiting for
+     * lazy-loading of each page. Rows are emitted once in order of their index, so a short-circuiting
+     * operation, e.g. {@code findFirst()}, stops scrolling.
+     *
+     * @return stream of rows
+     */
+    default Stream<RowSnapshot> streamRows() {
+        return streamRows(0);
+    }
+
+    /**
+     * Lazily iterates over all the rows of the component, scrolling its body on demand and waiting for
+     * lazy-loading of each page.
+     *
+     * @param pageSize maximum number of rows to scroll at once, 0 - scroll to the first not emitted row
+     * @return stream of rows
+     */
+    Stream<RowSnapshot> streamRows(int pageSize);
+
     @Log
     DataGrid sort(String columnId, DataGrid.SortDirection direction);
 
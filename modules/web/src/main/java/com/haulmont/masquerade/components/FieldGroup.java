@@ -16,5 +16,26 @@
 
 package com.haulmont.masquerade.components;
 
+import com.haulmont.masquerade.util.Log;
+
+import java.util.Map;
+
+/**
+ * FieldGroup component.
+ */
 public interface FieldGroup extends Container<FieldGroup> {
+    /**
+     * Fills the fields with values by their {@code cuba-id}. Checks that all the fields are editable with a single
+     * script call and applies the values with the fastest way supported by each field type.
+     *
+     * @param values values by {@code cuba-id} of fields, check boxes take {@code true} or {@code false}
+     * @return this field group
+     */
+    @Log
+    FieldGroup fill(Map<String, String> values);
+
+    /**
+     * @return values of all the fields by their {@code cuba-id}, read with a single script call
+     */
+    Map<String, String> read();
 }
\ No newline at end of file
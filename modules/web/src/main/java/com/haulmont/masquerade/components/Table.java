@@ -20,9 +20,13 @@ import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.Conditions;
 import com.haulmont.masquerade.Selectors;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
 import com.haulmont.masquerade.util.Log;
 import org.openqa.selenium.By;
 
+import java.util.stream.Stream;
+
 import static com.codeborne.selenide.Condition.visible;
 import static com.haulmont.masquerade.Selectors.*;
 
@@ -207,6 +211,33 @@ public interface Table extends Component<Table> {
     @Deprecated
     ElementsCollection getAllLines();
 
+    /**
+     * Reads header, rendered rows, cell texts, selection state and row style classes with a single browser call.
+     *
+     * @return immutable snapshot of rendered content
+     */
+    TableSnapshot snapshot();
+
+    /**
+     * Lazily iterates over all the rows of the component, scrolling its body on demand and waiting for
+     * lazy-loading of each page. Rows are emitted once in order of their index, so a short-circuiting
+     * operation, e.g. {@code findFirst()}, stops scrolling.
+     *
+     * @return stream of rows
+     */
+    default Stream<RowSnapshot> streamRows() {
+        return streamRows(0);
+    }
+
+    /**
+     * Lazily iterates over all the rows of the component, scrolling its body on demand and waiting for
+     * lazy-loading of each page.
+     *
+     * @param pageSize maximum number of rows to scroll at once, 0 - scroll to the first not emitted row
+     * @return stream of rows
+     */
+    Stream<RowSnapshot> streamRows(int pageSize);
+
     @Log
     Table sort(String columnId, SortDirection direction);
 
@@ -22,8 +22,7 @@ import com.haulmont.masquerade.conditions.SpecificCondition;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Selenide.$;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 
 @SuppressWarnings("unchecked")
 public abstract class AbstractComponent<T extends Component>
@@ -50,7 +49,6 @@ public abstract class AbstractComponent<T extends Component>
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .getMatch();
+        return COMPONENT.apply(this, condition);
     }
 }
\ No newline at end of file
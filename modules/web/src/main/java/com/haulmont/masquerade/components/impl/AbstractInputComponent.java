@@ -19,15 +19,19 @@ package com.haulmont.masquerade.components.impl;
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.Component;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
 import static com.haulmont.masquerade.sys.TagNames.INPUT;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.fieldApply;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.fieldConditions;
 
 public class AbstractInputComponent<T extends Component> extends AbstractComponent<T> {
+
+    private static final ConditionTable<AbstractInputComponent<?>> CONDITIONS =
+            fieldConditions(AbstractInputComponent::getInputDelegate);
+
     protected AbstractInputComponent(By by) {
         super(by);
     }
@@ -38,7 +42,6 @@ public class AbstractInputComponent<T extends Component> extends AbstractCompone
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return fieldApply(match(condition), getDelegate(), getInputDelegate())
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 }
\ No newline at end of file
@@ -17,10 +17,12 @@
 package com.haulmont.masquerade.components.impl;
 
 import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.Configuration;
 import com.haulmont.masquerade.base.SelenideElementWrapper;
 import com.haulmont.masquerade.conditions.SpecificCondition;
 import com.haulmont.masquerade.conditions.SpecificConditionContext;
 import com.haulmont.masquerade.conditions.SpecificConditionHandler;
+import com.haulmont.masquerade.sys.ObserverWait;
 import com.leacox.motif.MatchException;
 
 @SuppressWarnings("unchecked")
@@ -48,9 +50,11 @@ public abstract class AbstractSpecificConditionHandler<T>
 
     @Override
     public T should(Condition... conditions) {
-        SpecificConditionContext.with(this, () ->
-                getDelegate().should(conditions)
-        );
+        if (!ObserverWait.waitFor(this, "", Configuration.timeout, conditions)) {
+            SpecificConditionContext.with(this, () ->
+                    getDelegate().should(conditions)
+            );
+        }
         return (T) this;
     }
 
@@ -64,17 +68,21 @@ public abstract class AbstractSpecificConditionHandler<T>
 
     @Override
     public T shouldHave(Condition... conditions) {
-        SpecificConditionContext.with(this, () ->
-                getDelegate().shouldHave(conditions)
-        );
+        if (!ObserverWait.waitFor(this, "have ", Configuration.timeout, conditions)) {
+            SpecificConditionContext.with(this, () ->
+                    getDelegate().shouldHave(conditions)
+            );
+        }
         return (T) this;
     }
 
     @Override
     public T shouldBe(Condition... conditions) {
-        SpecificConditionContext.with(this, () ->
-                getDelegate().shouldBe(conditions)
-        );
+        if (!ObserverWait.waitFor(this, "be ", Configuration.timeout, conditions)) {
+            SpecificConditionContext.with(this, () ->
+                    getDelegate().shouldBe(conditions)
+            );
+        }
         return (T) this;
     }
 
@@ -96,17 +104,21 @@ public abstract class AbstractSpecificConditionHandler<T>
 
     @Override
     public T waitUntil(Condition condition, long timeoutMilliseconds) {
-        SpecificConditionContext.with(this, () ->
-                getDelegate().waitUntil(condition, timeoutMilliseconds)
-        );
+        if (!ObserverWait.waitFor(this, "be ", timeoutMilliseconds, condition)) {
+            SpecificConditionContext.with(this, () ->
+                    getDelegate().waitUntil(condition, timeoutMilliseconds)
+            );
+        }
         return (T) this;
     }
 
     @Override
     public T waitUntil(Condition condition, long timeoutMilliseconds, long pollingIntervalMilliseconds) {
-        SpecificConditionContext.with(this, () ->
-                getDelegate().waitUntil(condition, timeoutMilliseconds, pollingIntervalMilliseconds)
-        );
+        if (!ObserverWait.waitFor(this, "be ", timeoutMilliseconds, pollingIntervalMilliseconds, condition)) {
+            SpecificConditionContext.with(this, () ->
+                    getDelegate().waitUntil(condition, timeoutMilliseconds, pollingIntervalMilliseconds)
+            );
+        }
         return (T) this;
     }
 
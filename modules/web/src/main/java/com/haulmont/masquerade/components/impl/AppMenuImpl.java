@@ -22,13 +22,12 @@ import com.haulmont.masquerade.components.AppMenu;
 import org.openqa.selenium.By;
 import org.openqa.selenium.support.ui.Quotes;
 
-import static com.codeborne.selenide.Condition.enabled;
-import static com.codeborne.selenide.Condition.visible;
 import static com.codeborne.selenide.Selectors.byClassName;
 import static com.codeborne.selenide.Selectors.byXpath;
 import static com.codeborne.selenide.Selenide.$;
 import static com.codeborne.selenide.Selenide.Wait;
 import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_ENABLED;
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
 
 public class AppMenuImpl extends AbstractComponent<AppMenu> implements AppMenu {
@@ -67,8 +66,7 @@ public class AppMenuImpl extends AbstractComponent<AppMenu> implements AppMenu {
             }
 
             menuItemElement
-                    .shouldBe(visible)
-                    .shouldBe(enabled);
+                    .shouldBe(VISIBLE_ENABLED);
 
             Wait().until(elementToBeClickable(menuItemElement));
 
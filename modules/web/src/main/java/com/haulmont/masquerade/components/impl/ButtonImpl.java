@@ -19,23 +19,27 @@ package com.haulmont.masquerade.components.impl;
 import com.haulmont.masquerade.components.Button;
 import com.haulmont.masquerade.conditions.Caption;
 import com.haulmont.masquerade.conditions.SpecificCondition;
-import com.haulmont.masquerade.sys.matchers.InstanceOfCases;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import java.util.Objects;
 
-import static com.codeborne.selenide.Condition.visible;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
-import static com.haulmont.masquerade.sys.VaadinClassNames.disabledClass;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_NOT_DISABLED;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static org.openqa.selenium.By.className;
 
 public class ButtonImpl extends AbstractComponent<Button> implements Button {
 
     public static final String BUTTON_CAPTION_CLASSNAME = "v-button-caption";
 
+    private static final ConditionTable<ButtonImpl> CONDITIONS = ConditionTable.<ButtonImpl>builder()
+            .include(COMPONENT)
+            .when(Caption.class, (b, c) ->
+                    Objects.equals(b.getCaption(), c.getCaption()))
+            .build();
+
     public ButtonImpl(By by) {
         super(by);
     }
@@ -47,16 +51,12 @@ public class ButtonImpl extends AbstractComponent<Button> implements Button {
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(InstanceOfCases.hasType(Caption.class)).get(c ->
-                        Objects.equals(getCaption(), c.getCaption()))
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
     public Button click() {
-        impl.shouldBe(visible)
-                .shouldNotHave(disabledClass)
+        impl.shouldBe(VISIBLE_NOT_DISABLED)
                 .click();
         return this;
     }
@@ -23,6 +23,7 @@ import com.haulmont.masquerade.components.CheckBox;
 import com.haulmont.masquerade.conditions.Caption;
 import com.haulmont.masquerade.conditions.CaptionContains;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
 
@@ -31,49 +32,49 @@ import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Conditions.EDITABLE;
 import static com.haulmont.masquerade.Conditions.READONLY;
 import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_ENABLED;
 import static com.haulmont.masquerade.sys.TagNames.INPUT;
 import static com.haulmont.masquerade.sys.TagNames.LABEL;
 import static com.haulmont.masquerade.sys.VaadinClassNames.readonlyClass;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.MatchesExact.eq;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 
 public class CheckBoxImpl extends AbstractComponent<CheckBox> implements CheckBox {
 
+    private static final ConditionTable<CheckBoxImpl> CONDITIONS = ConditionTable.<CheckBoxImpl>builder()
+            .include(COMPONENT)
+            .when(Conditions.CHECKED, cb ->
+                    $(byChain(cb.by, INPUT)).is(Condition.checked)
+            )
+            .when(Conditions.SELECTED, cb ->
+                    $(byChain(cb.by, INPUT)).is(Condition.selected)
+            )
+            .when(Caption.class, (cb, c) ->
+                    cb.impl.has(exactText(c.getCaption()))
+            )
+            .when(CaptionContains.class, (cb, cc) ->
+                    cb.impl.has(text(cc.getCaptionSubstring()))
+            )
+            .when(READONLY, cb ->
+                    cb.impl.has(readonlyClass)
+            )
+            .when(EDITABLE, cb ->
+                    !cb.impl.has(readonlyClass)
+            )
+            .build();
+
     public CheckBoxImpl(By by) {
         super(by);
     }
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(eq(Conditions.CHECKED)).get(() ->
-                        $(byChain(by, INPUT)).is(Condition.checked)
-                )
-                .when(eq(Conditions.SELECTED)).get(() ->
-                        $(byChain(by, INPUT)).is(Condition.selected)
-                )
-                .when(hasType(Caption.class)).get(c ->
-                        impl.has(exactText(c.getCaption()))
-                )
-                .when(hasType(CaptionContains.class)).get(cc ->
-                        impl.has(text(cc.getCaptionSubstring()))
-                )
-                .when(eq(READONLY)).get(() ->
-                        impl.has(readonlyClass)
-                )
-                .when(eq(EDITABLE)).get(() ->
-                        !impl.has(readonlyClass)
-                )
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
     public CheckBox setChecked(boolean checked) {
         SelenideElement checkBoxInput = $(byChain(by, INPUT))
-                .shouldBe(visible)
-                .shouldBe(enabled);
+                .shouldBe(VISIBLE_ENABLED);
 
         if (checked != checkBoxInput.is(Condition.checked)) {
             checkBoxInput.sendKeys(Keys.SPACE);
@@ -3,10 +3,15 @@ package com.haulmont.masquerade.components.impl;
 import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.WebDriverRunner;
-import com.haulmont.masquerade.Conditions;
 import com.haulmont.masquerade.Selectors;
 import com.haulmont.masquerade.components.DataGrid;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
+import com.haulmont.masquerade.sys.ElementState;
+import com.haulmont.masquerade.sys.TableSnapshotReader;
+import com.haulmont.masquerade.sys.VaadinIdle;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
@@ -15,6 +20,7 @@ import org.openqa.selenium.support.ui.Quotes;
 
 import java.util.Arrays;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.codeborne.selenide.Condition.cssClass;
 import static com.codeborne.selenide.Condition.visible;
@@ -22,36 +28,48 @@ import static com.codeborne.selenide.Selectors.byClassName;
 import static com.codeborne.selenide.Selectors.byXpath;
 import static com.codeborne.selenide.Selenide.$;
 import static com.codeborne.selenide.Selenide.$$;
-import static com.haulmont.masquerade.Conditions.ENABLED;
 import static com.haulmont.masquerade.Conditions.LOADED;
 import static com.haulmont.masquerade.Conditions.VISIBLE;
 import static com.haulmont.masquerade.Selectors.byChain;
 import static com.haulmont.masquerade.Selectors.byCubaId;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_NOT_DISABLED;
+import static com.haulmont.masquerade.sys.VaadinClassNames.DISABLED_CLASSNAME;
+import static com.haulmont.masquerade.sys.VaadinClassNames.SELECTED_CLASSNAME;
 import static com.haulmont.masquerade.sys.VaadinClassNames.selectedClass;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.MatchesExact.eq;
 import static com.leacox.motif.Motif.match;
 
 public class DataGridImpl extends AbstractComponent<DataGrid> implements DataGrid {
+
+    private static final ConditionTable<DataGridImpl> CONDITIONS = ConditionTable.<DataGridImpl>builder()
+            .include(COMPONENT)
+            .when(LOADED, t -> VaadinIdle.isIdle())
+            .build();
+
+    private static final ElementState VISIBLE_LOADED_NOT_DISABLED = ElementState.builder()
+            .visible()
+            .vaadinIdle()
+            .withoutClass(DISABLED_CLASSNAME)
+            .build();
+
+    private static final ElementState VISIBLE_SELECTED = ElementState.builder()
+            .visible()
+            .withClass(SELECTED_CLASSNAME)
+            .build();
+
+    private static final ElementState VISIBLE_SORTABLE = ElementState.builder()
+            .visible()
+            .withClass("sortable")
+            .build();
+
     public DataGridImpl(By by) {
         super(by);
     }
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(eq(Conditions.LOADED)).get(() -> {
-                    // we have to wait for minimal lazy-loading time
-                    try {
-                        Thread.sleep(400);
-                    } catch (InterruptedException e) {
-                        return false;
-                    }
-
-                    return !$(byClassName("v-loading-indicator")).is(visible);
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @SuppressWarnings("CodeBlock2Expr")
@@ -247,8 +265,7 @@ public class DataGridImpl extends AbstractComponent<DataGrid> implements DataGri
 
     @Override
     public SelenideElement selectRow(By rowBy) {
-        this.shouldBe(VISIBLE)
-                .shouldBe(ENABLED);
+        this.shouldBe(VISIBLE_NOT_DISABLED);
 
         SelenideElement row = getRow(rowBy)
                 .shouldBe(visible);
@@ -260,12 +277,10 @@ public class DataGridImpl extends AbstractComponent<DataGrid> implements DataGri
 
     @Override
     public SelenideElement deselectRow(By rowBy) {
-        this.shouldBe(VISIBLE)
-                .shouldBe(ENABLED);
+        this.shouldBe(VISIBLE_NOT_DISABLED);
 
         SelenideElement row = getRow(rowBy)
-                .shouldBe(visible)
-                .shouldHave(selectedClass);
+                .shouldBe(VISIBLE_SELECTED);
 
         WebDriver webDriver = WebDriverRunner.getWebDriver();
         Actions action = new Actions(webDriver);
@@ -281,9 +296,7 @@ public class DataGridImpl extends AbstractComponent<DataGrid> implements DataGri
 
     @Override
     public ElementsCollection selectRows(By rowBy) {
-        this.shouldBe(VISIBLE)
-                .shouldBe(LOADED)
-                .shouldBe(ENABLED);
+        this.shouldBe(VISIBLE_LOADED_NOT_DISABLED);
 
         ElementsCollection rows = getRows(rowBy);
 
@@ -344,6 +357,20 @@ public class DataGridImpl extends AbstractComponent<DataGrid> implements DataGri
         return  $(byChain(by, byClassName("v-grid-header"), byCubaId("column_" + columnId)));
     }
 
+    @Override
+    public TableSnapshot snapshot() {
+        this.shouldBe(VISIBLE);
+
+        return TableSnapshotReader.DATA_GRID.read(impl);
+    }
+
+    @Override
+    public Stream<RowSnapshot> streamRows(int pageSize) {
+        this.shouldBe(VISIBLE);
+
+        return TableSnapshotReader.DATA_GRID.stream(impl, pageSize);
+    }
+
     @Override
     public SelenideElement getDetailsRow() {
         return $(byChain(by, byClassName("v-grid-spacer")));
@@ -356,8 +383,7 @@ public class DataGridImpl extends AbstractComponent<DataGrid> implements DataGri
         }
 
         SelenideElement columnHeaderCell = $(byChain(by, byClassName("v-grid-header"), byCubaId("column_" + columnId)))
-                .shouldBe(visible)
-                .shouldHave(cssClass("sortable"));
+                .shouldBe(VISIBLE_SORTABLE);
 
         DataGrid.SortDirection currentDirection = getSortDirection(columnHeaderCell);
 
@@ -17,10 +17,12 @@
 package com.haulmont.masquerade.components.impl;
 
 import com.haulmont.masquerade.components.DateField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
 
 import static com.codeborne.selenide.Condition.*;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_ENABLED;
 
 public class DateFieldImpl extends AbstractInputComponent<DateField> implements DateField {
 
@@ -31,19 +33,14 @@ public class DateFieldImpl extends AbstractInputComponent<DateField> implements
     @Override
     public String getDateValue() {
         return getInputDelegate()
-                .shouldBe(visible)
-                .shouldBe(enabled)
+                .shouldBe(VISIBLE_ENABLED)
                 .getValue();
     }
 
     @Override
     public DateField setDateValue(String value) {
-        getInputDelegate().shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .click();
-
-        getInputDelegate().sendKeys(Keys.HOME, value);
+        InputStrategy.forComponent(DateField.class, true)
+                .setMaskedValue(getInputDelegate().shouldBe(EDITABLE_INPUT), value);
 
         return this;
     }
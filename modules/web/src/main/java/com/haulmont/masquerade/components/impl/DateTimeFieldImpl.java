@@ -21,80 +21,76 @@ import com.haulmont.masquerade.components.DateTimeField;
 import com.haulmont.masquerade.conditions.DateValue;
 import com.haulmont.masquerade.conditions.SpecificCondition;
 import com.haulmont.masquerade.conditions.TimeValue;
+import com.haulmont.masquerade.sys.InputStrategy;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
 
 import static com.codeborne.selenide.Condition.*;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Conditions.*;
 import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_ENABLED;
 import static com.haulmont.masquerade.sys.VaadinClassNames.readonlyClass;
 import static com.haulmont.masquerade.sys.VaadinClassNames.requiredClass;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.MatchesExact.eq;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static org.openqa.selenium.By.cssSelector;
 
 public class DateTimeFieldImpl extends AbstractComponent<DateTimeField> implements DateTimeField {
 
     public static final By DATEPART = cssSelector("div[class*='popupcalendar'] > input");
+
     public static final By TIMEPART = cssSelector("input[class*='maskedfield']");
 
+    private static final ConditionTable<DateTimeFieldImpl> CONDITIONS = ConditionTable.<DateTimeFieldImpl>builder()
+            .include(COMPONENT)
+            .when(REQUIRED, f ->
+                    f.impl.has(requiredClass)
+            )
+            .when(READONLY, f ->
+                    f.impl.has(readonlyClass)
+            )
+            .when(EDITABLE, f ->
+                    !f.impl.has(readonlyClass)
+            )
+            .when(DateValue.class, (f, dv) -> {
+                SelenideElement dateFieldImpl = $(byChain(f.by, DATEPART));
+                return dateFieldImpl.has(exactValue(dv.getExpectedValue()));
+            })
+            .when(TimeValue.class, (f, tv) -> {
+                SelenideElement timeFieldImpl = $(byChain(f.by, TIMEPART));
+                return timeFieldImpl.has(exactValue(tv.getExpectedValue()));
+            })
+            .build();
+
     public DateTimeFieldImpl(By by) {
         super(by);
     }
 
-    @SuppressWarnings("CodeBlock2Expr")
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), impl)
-                .when(eq(REQUIRED)).get(() -> {
-                    return impl.has(requiredClass);
-                })
-                .when(eq(READONLY)).get(() -> {
-                    return impl.has(readonlyClass);
-                })
-                .when(eq(EDITABLE)).get(() -> {
-                    return !impl.has(readonlyClass);
-                })
-                .when(hasType(DateValue.class)).get(dv -> {
-                    SelenideElement dateFieldImpl = $(byChain(by, DATEPART));
-                    return dateFieldImpl.has(exactValue(dv.getExpectedValue()));
-                })
-                .when(hasType(TimeValue.class)).get(tv -> {
-                    SelenideElement timeFieldImpl = $(byChain(by, TIMEPART));
-                    return timeFieldImpl.has(exactValue(tv.getExpectedValue()));
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
     public String getDateValue() {
         return $(byChain(by, DATEPART))
-                .shouldBe(visible)
-                .shouldBe(enabled)
+                .shouldBe(VISIBLE_ENABLED)
                 .getValue();
     }
 
     @Override
     public DateTimeField setDateValue(String value) {
         SelenideElement dateFieldImpl = $(byChain(by, DATEPART));
-        dateFieldImpl
-                .shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .click();
-
-        dateFieldImpl.sendKeys(Keys.HOME, value);
+        InputStrategy.forComponent(DateTimeField.class, true)
+                .setMaskedValue(dateFieldImpl.shouldBe(EDITABLE_INPUT), value);
         return this;
     }
 
     @Override
     public String getTimeValue() {
         return $(byChain(by, TIMEPART))
-                .shouldBe(visible)
-                .shouldBe(enabled)
+                .shouldBe(VISIBLE_ENABLED)
                 .getValue();
     }
 
@@ -102,13 +98,8 @@ public class DateTimeFieldImpl extends AbstractComponent<DateTimeField> implemen
     public DateTimeField setTimeValue(String value) {
         SelenideElement timeFieldImpl = $(byChain(by, TIMEPART));
 
-        timeFieldImpl
-                .shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .click();
-
-        timeFieldImpl.sendKeys(Keys.HOME, value);
+        InputStrategy.forComponent(DateTimeField.class, true)
+                .setMaskedValue(timeFieldImpl.shouldBe(EDITABLE_INPUT), value);
         return this;
     }
 }
\ No newline at end of file
@@ -21,37 +21,40 @@ import com.haulmont.masquerade.components.DialogWindow;
 import com.haulmont.masquerade.conditions.Caption;
 import com.haulmont.masquerade.conditions.CaptionContains;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static org.openqa.selenium.By.className;
 
 public class DialogWindowImpl extends AbstractComponent<DialogWindow> implements DialogWindow {
 
     public static final By CLOSE_BUTTON = className("v-window-closebox");
+
     public static final By HEADER = className("v-window-header");
 
+    private static final ConditionTable<DialogWindowImpl> CONDITIONS = ConditionTable.<DialogWindowImpl>builder()
+            .include(COMPONENT)
+            .when(Caption.class, (w, c) -> {
+                SelenideElement headerImpl = $(byChain(w.by, HEADER));
+                return headerImpl.has(exactText(c.getCaption()));
+            })
+            .when(CaptionContains.class, (w, cc) -> {
+                SelenideElement headerImpl = $(byChain(w.by, HEADER));
+                return headerImpl.has(text(cc.getCaptionSubstring()));
+            })
+            .build();
+
     public DialogWindowImpl(By by) {
         super(by);
     }
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(hasType(Caption.class)).get(c -> {
-                    SelenideElement headerImpl = $(byChain(by, HEADER));
-                    return headerImpl.has(exactText(c.getCaption()));
-                })
-                .when(hasType(CaptionContains.class)).get(cc -> {
-                    SelenideElement headerImpl = $(byChain(by, HEADER));
-                    return headerImpl.has(text(cc.getCaptionSubstring()));
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
@@ -17,10 +17,24 @@
 package com.haulmont.masquerade.components.impl;
 
 import com.haulmont.masquerade.components.FieldGroup;
+import com.haulmont.masquerade.sys.FormFields;
 import org.openqa.selenium.By;
 
+import java.util.Map;
+
 public class FieldGroupImpl extends AbstractComponent<FieldGroup> implements FieldGroup {
     public FieldGroupImpl(By by) {
         super(by);
     }
+
+    @Override
+    public FieldGroup fill(Map<String, String> values) {
+        FormFields.fill(by, values);
+        return this;
+    }
+
+    @Override
+    public Map<String, String> read() {
+        return FormFields.read(impl);
+    }
 }
\ No newline at end of file
@@ -22,15 +22,13 @@ import com.haulmont.masquerade.components.GroupBox;
 import com.haulmont.masquerade.conditions.Caption;
 import com.haulmont.masquerade.conditions.CaptionContains;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.MatchesExact.eq;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static org.openqa.selenium.By.cssSelector;
 
 public class GroupBoxImpl extends AbstractComponent<GroupBox> implements GroupBox {
@@ -38,29 +36,32 @@ public class GroupBoxImpl extends AbstractComponent<GroupBox> implements GroupBo
     public static final String EXPANDED = "expanded";
 
     public static final By EXPANDER = cssSelector("div[class*='captionwrap'] span[class*='expander']");
+
     public static final By CAPTION_TEXT = cssSelector("div[class*='captionwrap'] span[class*='caption-text']");
 
+    private static final ConditionTable<GroupBoxImpl> CONDITIONS = ConditionTable.<GroupBoxImpl>builder()
+            .include(COMPONENT)
+            .when(Conditions.EXPANDED, g ->
+                    $(byChain(g.by, EXPANDER)).has(cssClass(EXPANDED))
+            )
+            .when(Conditions.COLLAPSED, g ->
+                    !$(byChain(g.by, EXPANDER)).has(cssClass(EXPANDED))
+            )
+            .when(Caption.class, (g, c) ->
+                    $(byChain(g.by, CAPTION_TEXT)).has(exactText(c.getCaption()))
+            )
+            .when(CaptionContains.class, (g, cc) ->
+                    $(byChain(g.by, CAPTION_TEXT)).has(text(cc.getCaptionSubstring()))
+            )
+            .build();
+
     public GroupBoxImpl(By by) {
         super(by);
     }
 
-    @SuppressWarnings("CodeBlock2Expr")
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(eq(Conditions.EXPANDED)).get(() -> {
-                    return $(byChain(by, EXPANDER)).has(cssClass(EXPANDED));
-                })
-                .when(eq(Conditions.COLLAPSED)).get(() -> {
-                    return !$(byChain(by, EXPANDER)).has(cssClass(EXPANDED));
-                })
-                .when(hasType(Caption.class)).get(c -> {
-                    return $(byChain(by, CAPTION_TEXT)).has(exactText(c.getCaption()));
-                })
-                .when(hasType(CaptionContains.class)).get(cc -> {
-                    return $(byChain(by, CAPTION_TEXT)).has(text(cc.getCaptionSubstring()));
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
@@ -20,15 +20,25 @@ import com.haulmont.masquerade.components.Label;
 import com.haulmont.masquerade.conditions.SpecificCondition;
 import com.haulmont.masquerade.conditions.Value;
 import com.haulmont.masquerade.conditions.ValueContains;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.exactTextCaseSensitive;
 import static com.codeborne.selenide.Condition.text;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 
 public class LabelImpl extends AbstractComponent<Label> implements Label {
+
+    private static final ConditionTable<LabelImpl> CONDITIONS = ConditionTable.<LabelImpl>builder()
+            .include(COMPONENT)
+            .when(Value.class, (l, v) ->
+                    l.impl.has(exactTextCaseSensitive(v.getExpectedValue()))
+            )
+            .when(ValueContains.class, (l, v) ->
+                    l.impl.has(text(v.getExpectedValueSubstring()))
+            )
+            .build();
+
     public LabelImpl(By by) {
         super(by);
     }
@@ -40,13 +50,6 @@ public class LabelImpl extends AbstractComponent<Label> implements Label {
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(hasType(Value.class)).get(v ->
-                        impl.has(exactTextCaseSensitive(v.getExpectedValue()))
-                )
-                .when(hasType(ValueContains.class)).get(v ->
-                        impl.has(text(v.getExpectedValueSubstring()))
-                )
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 }
\ No newline at end of file
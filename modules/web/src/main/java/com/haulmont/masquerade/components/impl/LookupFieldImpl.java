@@ -18,6 +18,7 @@ package com.haulmont.masquerade.components.impl;
 
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.LookupField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
@@ -26,6 +27,7 @@ import static com.codeborne.selenide.Selectors.byText;
 import static com.codeborne.selenide.Selenide.$;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
 import static com.haulmont.masquerade.sys.TagNames.DIV;
 
 public class LookupFieldImpl extends AbstractInputComponent<LookupField> implements LookupField {
@@ -68,16 +70,13 @@ public class LookupFieldImpl extends AbstractInputComponent<LookupField> impleme
     public LookupField setFilter(String filter) {
         SelenideElement inputImpl = getInputDelegate();
 
-        inputImpl.shouldBe(visible)
-                .shouldNotBe(readonly)
-                .shouldBe(enabled)
+        inputImpl.shouldBe(EDITABLE_INPUT)
                 .click();
 
         inputImpl.clear();
 
         if (!isNullOrEmpty(filter)) {
-            // todo may be replace with javascript set to speed up this call
-            inputImpl.sendKeys(filter);
+            InputStrategy.forComponent(LookupField.class, false).setValueAndType(inputImpl, filter);
         }
 
         return this;
@@ -19,6 +19,7 @@ package com.haulmont.masquerade.components.impl;
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.Components;
 import com.haulmont.masquerade.components.LookupPickerField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
@@ -29,8 +30,9 @@ import static com.haulmont.masquerade.Selectors.byChain;
 import static com.haulmont.masquerade.Selectors.byCubaId;
 import static com.haulmont.masquerade.components.impl.LookupFieldImpl.VAADIN_COMBOBOX_OPTIONLIST;
 import static com.haulmont.masquerade.components.impl.LookupFieldImpl.V_FILTERSELECT_BUTTON;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_NOT_DISABLED;
 import static com.haulmont.masquerade.sys.TagNames.DIV;
-import static com.haulmont.masquerade.sys.VaadinClassNames.disabledClass;
 
 public class LookupPickerFieldImpl extends AbstractInputComponent<LookupPickerField> implements LookupPickerField {
     public LookupPickerFieldImpl(By by) {
@@ -62,16 +64,13 @@ public class LookupPickerFieldImpl extends AbstractInputComponent<LookupPickerFi
     public LookupPickerField setFilter(String filter) {
         SelenideElement inputImpl = getInputDelegate();
 
-        inputImpl.shouldBe(visible)
-                .shouldNotBe(readonly)
-                .shouldBe(enabled)
+        inputImpl.shouldBe(EDITABLE_INPUT)
                 .click();
 
         inputImpl.clear();
 
         if (!isNullOrEmpty(filter)) {
-            // todo may be replace with javascript set to speed up this call
-            inputImpl.sendKeys(filter);
+            InputStrategy.forComponent(LookupPickerField.class, false).setValueAndType(inputImpl, filter);
         }
 
         return this;
@@ -80,8 +79,7 @@ public class LookupPickerFieldImpl extends AbstractInputComponent<LookupPickerFi
     @Override
     public void triggerAction(Action action) {
         $(byChain(by, DIV, byCubaId(action.getId())))
-                .shouldBe(visible)
-                .shouldNotHave(disabledClass)
+                .shouldBe(VISIBLE_NOT_DISABLED)
                 .click();
     }
 
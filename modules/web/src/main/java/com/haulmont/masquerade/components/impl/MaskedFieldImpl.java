@@ -17,10 +17,11 @@
 package com.haulmont.masquerade.components.impl;
 
 import com.haulmont.masquerade.components.MaskedField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
 
 import static com.codeborne.selenide.Condition.*;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
 
 public class MaskedFieldImpl extends AbstractInputComponent<MaskedField> implements MaskedField {
     public MaskedFieldImpl(By by) {
@@ -29,12 +30,8 @@ public class MaskedFieldImpl extends AbstractInputComponent<MaskedField> impleme
 
     @Override
     public MaskedField setValue(String value) {
-        impl.shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .click();
-
-        impl.sendKeys(Keys.HOME, value);
+        InputStrategy.forComponent(MaskedField.class, true)
+                .setMaskedValue(impl.shouldBe(EDITABLE_INPUT), value);
 
         return this;
     }
@@ -19,6 +19,7 @@ package com.haulmont.masquerade.components.impl;
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.Notification;
 import com.haulmont.masquerade.conditions.*;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import java.util.Objects;
@@ -26,15 +27,37 @@ import java.util.Objects;
 import static com.codeborne.selenide.Condition.*;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.Motif.match;
 import static org.openqa.selenium.By.className;
 
 public class NotificationImpl extends AbstractSpecificConditionHandler<Notification> implements Notification {
 
     public static final By NOTIFICATION_CAPTION = className("v-Notification-caption");
+
     public static final By NOTIFICATION_DESCRIPTION = className("v-Notification-description");
 
+    private static final ConditionTable<NotificationImpl> CONDITIONS = ConditionTable.<NotificationImpl>builder()
+            .when(Caption.class, (n, c) -> {
+                SelenideElement captionImpl = $(byChain(n.by, NOTIFICATION_CAPTION));
+                return captionImpl.has(exactText(c.getCaption()));
+            })
+            .when(Description.class, (n, d) -> {
+                SelenideElement descriptionImpl = $(byChain(n.by, NOTIFICATION_DESCRIPTION));
+                return descriptionImpl.has(exactText(d.getDescription()));
+            })
+            .when(CaptionContains.class, (n, cc) -> {
+                SelenideElement captionImpl = $(byChain(n.by, NOTIFICATION_CAPTION));
+                return captionImpl.has(text(cc.getCaptionSubstring()));
+            })
+            .when(DescriptionContains.class, (n, dc) -> {
+                SelenideElement descriptionImpl = $(byChain(n.by, NOTIFICATION_DESCRIPTION));
+                return descriptionImpl.has(text(dc.getDescriptionSubstring()));
+            })
+            .when(NotificationType.class, (n, t) -> {
+                Type type = n.getTypeInternal();
+                return Objects.equals(type, t.getType());
+            })
+            .build();
+
     protected By by;
     protected SelenideElement impl;
 
@@ -57,28 +80,7 @@ public class NotificationImpl extends AbstractSpecificConditionHandler<Notificat
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return match(condition)
-                .when(hasType(Caption.class)).get(c-> {
-                    SelenideElement captionImpl = $(byChain(by, NOTIFICATION_CAPTION));
-                    return captionImpl.has(exactText(c.getCaption()));
-                })
-                .when(hasType(Description.class)).get(d-> {
-                    SelenideElement descriptionImpl = $(byChain(by, NOTIFICATION_DESCRIPTION));
-                    return descriptionImpl.has(exactText(d.getDescription()));
-                })
-                .when(hasType(CaptionContains.class)).get(cc-> {
-                    SelenideElement captionImpl = $(byChain(by, NOTIFICATION_CAPTION));
-                    return captionImpl.has(text(cc.getCaptionSubstring()));
-                })
-                .when(hasType(DescriptionContains.class)).get(dc-> {
-                    SelenideElement descriptionImpl = $(byChain(by, NOTIFICATION_DESCRIPTION));
-                    return descriptionImpl.has(text(dc.getDescriptionSubstring()));
-                })
-                .when(hasType(NotificationType.class)).get(t-> {
-                    Type type = getTypeInternal();
-                    return Objects.equals(type, t.getType());
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
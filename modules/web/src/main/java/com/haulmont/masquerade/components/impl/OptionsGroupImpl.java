@@ -24,6 +24,7 @@ import com.haulmont.masquerade.conditions.Options;
 import com.haulmont.masquerade.conditions.OptionsCount;
 import com.haulmont.masquerade.conditions.SpecificCondition;
 import com.haulmont.masquerade.conditions.Value;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import java.util.List;
@@ -34,38 +35,40 @@ import static com.codeborne.selenide.Selenide.$;
 import static com.codeborne.selenide.Selenide.$$;
 import static com.haulmont.masquerade.Selectors.byChain;
 import static com.haulmont.masquerade.sys.TagNames.SPAN;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.Motif.match;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static org.openqa.selenium.By.tagName;
 import static org.openqa.selenium.By.xpath;
 
 public class OptionsGroupImpl extends AbstractComponent<OptionsGroup> implements OptionsGroup {
 
     public static final By SELECTED_OPTION = xpath(".//input[@checked]/following-sibling::label");
+
     public static final By OPTION_LABEL = tagName("label");
 
+    private static final ConditionTable<OptionsGroupImpl> CONDITIONS = ConditionTable.<OptionsGroupImpl>builder()
+            .include(COMPONENT)
+            .when(Value.class, (g, v) -> {
+                String value = $(byChain(g.by, SELECTED_OPTION)).getText();
+
+                return Objects.equals(value, v.getExpectedValue());
+            })
+            .when(Options.class, (g, opts) -> {
+                List<String> texts = $$(byChain(g.by, OPTION_LABEL)).texts();
+                return Objects.equals(texts, opts.getOptions());
+            })
+            .when(OptionsCount.class, (g, optsCount) -> {
+                ElementsCollection opts = $$(byChain(g.by, OPTION_LABEL));
+                return opts.size() == optsCount.getCount();
+            })
+            .build();
+
     public OptionsGroupImpl(By by) {
         super(by);
     }
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(hasType(Value.class)).get(v -> {
-                    String value = $(byChain(by, SELECTED_OPTION)).getText();
-
-                    return Objects.equals(value, v.getExpectedValue());
-                })
-                .when(hasType(Options.class)).get(opts -> {
-                    List<String> texts = $$(byChain(by, OPTION_LABEL)).texts();
-                    return Objects.equals(texts, opts.getOptions());
-                })
-                .when(hasType(OptionsCount.class)).get(optsCount -> {
-                    ElementsCollection opts = $$(byChain(by, OPTION_LABEL));
-                    return opts.size() == optsCount.getCount();
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
@@ -24,6 +24,7 @@ import com.haulmont.masquerade.conditions.ContainOptions;
 import com.haulmont.masquerade.conditions.Options;
 import com.haulmont.masquerade.conditions.OptionsCount;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 
 import java.util.List;
@@ -40,14 +41,36 @@ import static com.haulmont.masquerade.components.HasOptionsPopup.OptionsPopup;
 import static com.haulmont.masquerade.components.impl.LookupFieldImpl.*;
 import static com.haulmont.masquerade.sys.TagNames.SPAN;
 import static com.haulmont.masquerade.sys.TagNames.TD;
-import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.Motif.match;
 import static org.openqa.selenium.By.className;
 
 public class OptionsPopupImpl<T extends Component>
         extends AbstractSpecificConditionHandler<OptionsPopup>
         implements OptionsPopup<T> {
 
+    private static final ConditionTable<OptionsPopupImpl<?>> CONDITIONS = ConditionTable.<OptionsPopupImpl<?>>builder()
+            .when(Options.class, (p, opts) -> {
+                List<String> options = opts.getOptions().stream()
+                        .map(o -> isNullOrEmpty(o) ? EMPTY_OPTION_VALUE : o)
+                        .collect(Collectors.toList());
+
+                List<String> texts = $$(byChain(p.by, TD, SPAN)).texts();
+                return texts.equals(options);
+            })
+            .when(OptionsCount.class, (p, optsCount) ->
+                    $$(byChain(p.by, TD, SPAN)).size() == optsCount.getCount()
+            )
+            .when(ContainOptions.class, (p, opts) -> {
+                Set<String> options = opts.getOptions().stream()
+                        .map(o -> isNullOrEmpty(o) ? EMPTY_OPTION_VALUE : o)
+                        .collect(Collectors.toSet());
+
+                ElementsCollection optionElements = $$(byChain(p.by, TD, SPAN));
+                Set<String> texts = Sets.newHashSet(optionElements.texts());
+
+                return texts.containsAll(options);
+            })
+            .build();
+
     private final By by;
     private final SelenideElement impl;
     private T parent;
@@ -123,32 +146,9 @@ public class OptionsPopupImpl<T extends Component>
         return by;
     }
 
-    @SuppressWarnings("CodeBlock2Expr")
     @Override
     public boolean apply(SpecificCondition condition) {
-        return match(condition)
-                .when(hasType(Options.class)).get(opts -> {
-                    List<String> options = opts.getOptions().stream()
-                            .map(o -> isNullOrEmpty(o) ? EMPTY_OPTION_VALUE : o)
-                            .collect(Collectors.toList());
-
-                    List<String> texts = $$(byChain(by, TD, SPAN)).texts();
-                    return texts.equals(options);
-                })
-                .when(hasType(OptionsCount.class)).get(optsCount -> {
-                    return $$(byChain(by, TD, SPAN)).size() == optsCount.getCount();
-                })
-                .when(hasType(ContainOptions.class)).get(opts -> {
-                    Set<String> options = opts.getOptions().stream()
-                            .map(o -> isNullOrEmpty(o) ? EMPTY_OPTION_VALUE : o)
-                            .collect(Collectors.toSet());
-
-                    ElementsCollection optionElements = $$(byChain(by, TD, SPAN));
-                    Set<String> texts = Sets.newHashSet(optionElements.texts());
-
-                    return texts.containsAll(options);
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @Override
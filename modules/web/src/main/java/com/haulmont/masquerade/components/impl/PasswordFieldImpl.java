@@ -18,9 +18,11 @@ package com.haulmont.masquerade.components.impl;
 
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.PasswordField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
 
 public class PasswordFieldImpl extends AbstractInputComponent<PasswordField> implements PasswordField {
 
@@ -35,10 +37,8 @@ public class PasswordFieldImpl extends AbstractInputComponent<PasswordField> imp
 
     @Override
     public PasswordField setValue(String value) {
-        impl.shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .setValue(value);
+        InputStrategy.forComponent(PasswordField.class, false)
+                .setValue(impl.shouldBe(EDITABLE_INPUT), value);
         return this;
     }
 
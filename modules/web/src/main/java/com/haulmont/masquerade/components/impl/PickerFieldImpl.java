@@ -24,8 +24,8 @@ import static com.codeborne.selenide.Condition.visible;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
 import static com.haulmont.masquerade.Selectors.byCubaId;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_NOT_DISABLED;
 import static com.haulmont.masquerade.sys.TagNames.DIV;
-import static com.haulmont.masquerade.sys.VaadinClassNames.disabledClass;
 
 public class PickerFieldImpl extends AbstractInputComponent<PickerField> implements PickerField {
     public PickerFieldImpl(By by) {
@@ -35,8 +35,7 @@ public class PickerFieldImpl extends AbstractInputComponent<PickerField> impleme
     @Override
     public void triggerAction(Action action) {
         $(byChain(by, DIV, byCubaId(action.getId())))
-                .shouldBe(visible)
-                .shouldNotHave(disabledClass)
+                .shouldBe(VISIBLE_NOT_DISABLED)
                 .click();
     }
 
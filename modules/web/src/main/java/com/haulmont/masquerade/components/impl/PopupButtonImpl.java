@@ -27,8 +27,8 @@ import static com.codeborne.selenide.Selectors.byText;
 import static com.codeborne.selenide.Selenide.$;
 import static com.codeborne.selenide.Selenide.$$;
 import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_NOT_DISABLED;
 import static com.haulmont.masquerade.sys.TagNames.SPAN;
-import static com.haulmont.masquerade.sys.VaadinClassNames.disabledClass;
 import static org.openqa.selenium.By.className;
 
 public class PopupButtonImpl extends AbstractComponent<PopupButton> implements PopupButton {
@@ -45,8 +45,7 @@ public class PopupButtonImpl extends AbstractComponent<PopupButton> implements P
 
     @Override
     public PopupContent openPopupContent() {
-        impl.shouldBe(visible)
-                .shouldNotHave(disabledClass)
+        impl.shouldBe(VISIBLE_NOT_DISABLED)
                 .click();
 
         PopupContentImpl popupContent = new PopupContentImpl(By.cssSelector("div.v-popupbutton-popup"));
@@ -86,8 +85,7 @@ public class PopupButtonImpl extends AbstractComponent<PopupButton> implements P
         public void select(String option) {
             $(byChain(by, SPAN, byText(option)))
                     .parent().parent()
-                    .shouldBe(visible)
-                    .shouldNotHave(disabledClass)
+                    .shouldBe(VISIBLE_NOT_DISABLED)
                     .click();
         }
 
@@ -24,6 +24,8 @@ import com.haulmont.masquerade.components.TabSheet;
 import com.haulmont.masquerade.conditions.Caption;
 import com.haulmont.masquerade.conditions.CaptionContains;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.sys.ElementState;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 import org.openqa.selenium.support.ui.Quotes;
 
@@ -38,14 +40,33 @@ import static com.codeborne.selenide.Selenide.$$;
 import static com.haulmont.masquerade.Conditions.SELECTED;
 import static com.haulmont.masquerade.Conditions.VISIBLE;
 import static com.haulmont.masquerade.Selectors.*;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.MatchesExact.eq;
 import static com.leacox.motif.Motif.match;
 import static org.openqa.selenium.By.className;
 import static org.openqa.selenium.By.xpath;
 
 public class TabSheetImpl extends AbstractComponent<TabSheet> implements TabSheet {
+    private static final ConditionTable<TabImpl> TAB_CONDITIONS = ConditionTable.<TabImpl>builder()
+            .include(COMPONENT)
+            .when(SELECTED, t ->
+                    t.impl.has(cssClass("v-tabsheet-tabitemcell-selected"))
+            )
+            .when(Caption.class, (t, caption) ->
+                    $(byChain(t.by, byXpath(".//div[contains(@class, 'v-captiontext')]")))
+                            .has(exactText(caption.getCaption()))
+            )
+            .when(CaptionContains.class, (t, caption) ->
+                    $(byChain(t.by, byXpath(".//div[contains(@class, 'v-captiontext')]")))
+                            .has(text(caption.getCaptionSubstring()))
+            )
+            .build();
+
+    private static final ElementState VISIBLE_NOT_SELECTED = ElementState.builder()
+            .visible()
+            .withoutClass("v-tabsheet-tabitemcell-selected")
+            .build();
+
     public TabSheetImpl(By by) {
         super(by);
     }
@@ -122,8 +143,7 @@ public class TabSheetImpl extends AbstractComponent<TabSheet> implements TabShee
 
         @Override
         public void select() {
-            impl.shouldBe(visible)
-                    .shouldNotHave(cssClass("v-tabsheet-tabitemcell-selected"))
+            impl.shouldBe(VISIBLE_NOT_SELECTED)
                     .find(className("v-caption"))
                     .click();
         }
@@ -156,22 +176,9 @@ public class TabSheetImpl extends AbstractComponent<TabSheet> implements TabShee
             return loggingId;
         }
 
-        @SuppressWarnings("CodeBlock2Expr")
         @Override
         public boolean apply(SpecificCondition condition) {
-            return componentApply(match(condition), getDelegate())
-                    .when(eq(SELECTED)).get(() -> {
-                        return impl.has(cssClass("v-tabsheet-tabitemcell-selected"));
-                    })
-                    .when(hasType(Caption.class)).get(caption -> {
-                        return $(byChain(by, byXpath(".//div[contains(@class, 'v-captiontext')]")))
-                                .has(exactText(caption.getCaption()));
-                    })
-                    .when(hasType(CaptionContains.class)).get(caption -> {
-                        return $(byChain(by, byXpath(".//div[contains(@class, 'v-captiontext')]")))
-                                .has(text(caption.getCaptionSubstring()));
-                    })
-                    .getMatch();
+            return TAB_CONDITIONS.apply(this, condition);
         }
     }
 }
\ No newline at end of file
@@ -19,11 +19,17 @@ package com.haulmont.masquerade.components.impl;
 import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.WebDriverRunner;
-import com.haulmont.masquerade.Conditions;
 import com.haulmont.masquerade.Selectors.*;
 import com.haulmont.masquerade.components.Table;
 import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
+import com.haulmont.masquerade.sys.ElementState;
+import com.haulmont.masquerade.sys.TableRowIndex;
+import com.haulmont.masquerade.sys.TableSnapshotReader;
 import com.haulmont.masquerade.sys.TagNames;
+import com.haulmont.masquerade.sys.VaadinIdle;
+import com.haulmont.masquerade.sys.matchers.ConditionTable;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
@@ -32,6 +38,7 @@ import org.openqa.selenium.support.ui.Quotes;
 
 import java.util.Arrays;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.codeborne.selenide.Condition.cssClass;
 import static com.codeborne.selenide.Condition.visible;
@@ -42,13 +49,40 @@ import static com.codeborne.selenide.Selenide.$;
 import static com.codeborne.selenide.Selenide.$$;
 import static com.haulmont.masquerade.Conditions.*;
 import static com.haulmont.masquerade.Selectors.*;
+import static com.haulmont.masquerade.sys.ElementState.VISIBLE_NOT_DISABLED;
+import static com.haulmont.masquerade.sys.VaadinClassNames.DISABLED_CLASSNAME;
+import static com.haulmont.masquerade.sys.VaadinClassNames.SELECTED_CLASSNAME;
 import static com.haulmont.masquerade.sys.VaadinClassNames.selectedClass;
-import static com.haulmont.masquerade.sys.matchers.ConditionCases.componentApply;
+import static com.haulmont.masquerade.sys.matchers.ConditionCases.COMPONENT;
 import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
-import static com.leacox.motif.MatchesExact.eq;
 import static com.leacox.motif.Motif.match;
 
 public class TableImpl extends AbstractComponent<Table> implements Table {
+    private static final ConditionTable<TableImpl> CONDITIONS = ConditionTable.<TableImpl>builder()
+            .include(COMPONENT)
+            .when(LOADED, t -> VaadinIdle.isIdle())
+            .build();
+
+    private static final ElementState VISIBLE_LOADED = ElementState.builder()
+            .visible()
+            .vaadinIdle()
+            .build();
+
+    private static final ElementState VISIBLE_LOADED_NOT_DISABLED = ElementState.builder()
+            .visible()
+            .vaadinIdle()
+            .withoutClass(DISABLED_CLASSNAME)
+            .build();
+
+    private static final ElementState VISIBLE_SELECTED = ElementState.builder()
+            .visible()
+            .withClass(SELECTED_CLASSNAME)
+            .build();
+
+    private static final ElementState VISIBLE_SORTABLE = ElementState.builder()
+            .visible()
+            .withClass("v-table-header-sortable")
+            .build();
 
     public TableImpl(By by) {
         super(by);
@@ -56,18 +90,7 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
 
     @Override
     public boolean apply(SpecificCondition condition) {
-        return componentApply(match(condition), getDelegate())
-                .when(eq(Conditions.LOADED)).get(() -> {
-                    // we have to wait for minimal lazy-loading time
-                    try {
-                        Thread.sleep(400);
-                    } catch (InterruptedException e) {
-                        return false;
-                    }
-
-                    return !$(byClassName("v-loading-indicator")).is(visible);
-                })
-                .getMatch();
+        return CONDITIONS.apply(this, condition);
     }
 
     @SuppressWarnings("CodeBlock2Expr")
@@ -77,6 +100,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(ByTargetText.class)).get(byText -> {
                     String text = byText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $(byChain(by, TableRowIndex.TABLE.rowsByText(text)));
+                    }
+
                     String trsXpath = ".//tr[.//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[normalize-space(.) = " + Quotes.escape(text) + "]]]";
 
@@ -85,6 +112,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(WithTargetText.class)).get(withText -> {
                     String text = withText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $(byChain(by, TableRowIndex.TABLE.rowsWithText(text)));
+                    }
+
                     String tdsXpath = ".//tr[.//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[contains(normalize-space(.), " + Quotes.escape(text) + ")]]]";
 
@@ -112,6 +143,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(ByCells.class)).get(byCells -> {
                     String[] values = byCells.getCellValues();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $(byChain(by, TableRowIndex.TABLE.rowsByCells(values)));
+                    }
+
                     String tds = Arrays.stream(values)
                             .map(text ->
                                     ".//td[contains(@class, 'v-table-cell-content') " +
@@ -135,6 +170,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(ByTargetText.class)).get(byText -> {
                     String text = byText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $$(byChain(by, TableRowIndex.TABLE.rowsByText(text)));
+                    }
+
                     String trsXpath = ".//tr[.//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[normalize-space(.) = " + Quotes.escape(text) + "]]]";
 
@@ -143,6 +182,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(WithTargetText.class)).get(withText -> {
                     String text = withText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $$(byChain(by, TableRowIndex.TABLE.rowsWithText(text)));
+                    }
+
                     String tdsXpath = ".//tr[.//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[contains(normalize-space(.), " + Quotes.escape(text) + ")]]]";
 
@@ -170,6 +213,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(ByCells.class)).get(byCells -> {
                     String[] values = byCells.getCellValues();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $$(byChain(by, TableRowIndex.TABLE.rowsByCells(values)));
+                    }
+
                     String tds = Arrays.stream(values)
                             .map(text ->
                                     ".//td[contains(@class, 'v-table-cell-content') " +
@@ -192,6 +239,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(ByTargetText.class)).get(byText -> {
                     String text = byText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $(byChain(by, TableRowIndex.TABLE.cellsByText(text)));
+                    }
+
                     String tdXpath = ".//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[normalize-space(.) = " + Quotes.escape(text) + "]]";
 
@@ -200,6 +251,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(WithTargetText.class)).get(withText -> {
                     String text = withText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $(byChain(by, TableRowIndex.TABLE.cellsWithText(text)));
+                    }
+
                     String tdXpath = ".//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[contains(normalize-space(.), " + Quotes.escape(text) + ")]]";
 
@@ -230,6 +285,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(ByTargetText.class)).get(byText -> {
                     String text = byText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $$(byChain(by, TableRowIndex.TABLE.cellsByText(text)));
+                    }
+
                     String tdXpath = ".//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[normalize-space(.) = " + Quotes.escape(text) + "]]";
 
@@ -238,6 +297,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
                 .when(hasType(WithTargetText.class)).get(withText -> {
                     String text = withText.getElementText();
 
+                    if (TableRowIndex.ENABLED) {
+                        return $$(byChain(by, TableRowIndex.TABLE.cellsWithText(text)));
+                    }
+
                     String tdsXpath = ".//td[contains(@class, 'v-table-cell-content') " +
                             "and .//text()[contains(normalize-space(.), " + Quotes.escape(text) + ")]]";
 
@@ -263,8 +326,7 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
 
     @Override
     public SelenideElement selectRow(By rowBy) {
-        this.shouldBe(VISIBLE)
-                .shouldBe(ENABLED);
+        this.shouldBe(VISIBLE_NOT_DISABLED);
 
         SelenideElement row = getRow(rowBy)
                 .shouldBe(visible);
@@ -276,12 +338,10 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
 
     @Override
     public SelenideElement deselectRow(By rowBy) {
-        this.shouldBe(VISIBLE)
-                .shouldBe(ENABLED);
+        this.shouldBe(VISIBLE_NOT_DISABLED);
 
         SelenideElement row = getRow(rowBy)
-                .shouldBe(visible)
-                .shouldHave(selectedClass);
+                .shouldBe(VISIBLE_SELECTED);
 
         WebDriver webDriver = WebDriverRunner.getWebDriver();
         Actions action = new Actions(webDriver);
@@ -297,9 +357,7 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
 
     @Override
     public ElementsCollection selectRows(By rowBy) {
-        this.shouldBe(VISIBLE)
-                .shouldBe(LOADED)
-                .shouldBe(ENABLED);
+        this.shouldBe(VISIBLE_LOADED_NOT_DISABLED);
 
         ElementsCollection rows = getRows(rowBy);
 
@@ -340,12 +398,25 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
     @Override
     @Deprecated
     public ElementsCollection getAllLines() {
-        this.shouldBe(VISIBLE)
-                .shouldBe(LOADED);
+        this.shouldBe(VISIBLE_LOADED);
 
         return impl.findAll(TagNames.TR);
     }
 
+    @Override
+    public TableSnapshot snapshot() {
+        this.shouldBe(VISIBLE);
+
+        return TableSnapshotReader.TABLE.read(impl);
+    }
+
+    @Override
+    public Stream<RowSnapshot> streamRows(int pageSize) {
+        this.shouldBe(VISIBLE);
+
+        return TableSnapshotReader.TABLE.stream(impl, pageSize);
+    }
+
     @Override
     public Table sort(String columnId, SortDirection direction) {
         if (columnId.startsWith("column_")) {
@@ -353,8 +424,7 @@ public class TableImpl extends AbstractComponent<Table> implements Table {
         }
 
         SelenideElement columnHeaderCell = $(byChain(by, byClassName("v-table-header"), byCubaId("column_" + columnId)))
-                .shouldBe(visible)
-                .shouldHave(cssClass("v-table-header-sortable"));
+                .shouldBe(VISIBLE_SORTABLE);
 
         SortDirection currentDirection = getSortDirection(columnHeaderCell);
 
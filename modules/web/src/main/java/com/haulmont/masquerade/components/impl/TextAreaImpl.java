@@ -18,11 +18,13 @@ package com.haulmont.masquerade.components.impl;
 
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.TextArea;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
 import static com.codeborne.selenide.Selenide.$;
 import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
 import static com.haulmont.masquerade.sys.TagNames.TEXTAREA;
 
 public class TextAreaImpl extends AbstractInputComponent<TextArea> implements TextArea {
@@ -33,11 +35,8 @@ public class TextAreaImpl extends AbstractInputComponent<TextArea> implements Te
 
     @Override
     public TextArea setValue(String value) {
-        getInputDelegate()
-                .shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .setValue(value);
+        InputStrategy.forComponent(TextArea.class, false)
+                .setValue(getInputDelegate().shouldBe(EDITABLE_INPUT), value);
         return this;
     }
 
@@ -18,9 +18,11 @@ package com.haulmont.masquerade.components.impl;
 
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.TextField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
 
 import static com.codeborne.selenide.Condition.*;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
 
 public class TextFieldImpl extends AbstractInputComponent<TextField> implements TextField {
 
@@ -35,10 +37,8 @@ public class TextFieldImpl extends AbstractInputComponent<TextField> implements
 
     @Override
     public TextField setValue(String value) {
-        impl.shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .setValue(value);
+        InputStrategy.forComponent(TextField.class, false)
+                .setValue(impl.shouldBe(EDITABLE_INPUT), value);
         return this;
     }
 
@@ -18,10 +18,11 @@ package com.haulmont.masquerade.components.impl;
 
 import com.codeborne.selenide.SelenideElement;
 import com.haulmont.masquerade.components.TimeField;
+import com.haulmont.masquerade.sys.InputStrategy;
 import org.openqa.selenium.By;
-import org.openqa.selenium.Keys;
 
 import static com.codeborne.selenide.Condition.*;
+import static com.haulmont.masquerade.sys.ElementState.EDITABLE_INPUT;
 
 public class TimeFieldImpl extends AbstractInputComponent<TimeField> implements TimeField {
     public TimeFieldImpl(By by) {
@@ -42,12 +43,8 @@ public class TimeFieldImpl extends AbstractInputComponent<TimeField> implements
 
     @Override
     public TimeField setValue(String value) {
-        impl.shouldBe(visible)
-                .shouldBe(enabled)
-                .shouldNotBe(readonly)
-                .click();
-
-        impl.sendKeys(Keys.HOME, value);
+        InputStrategy.forComponent(TimeField.class, true)
+                .setMaskedValue(impl.shouldBe(EDITABLE_INPUT), value);
         return this;
     }
 }
\ No newline at end of file
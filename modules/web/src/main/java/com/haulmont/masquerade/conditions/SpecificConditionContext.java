@@ -23,24 +23,35 @@ public class SpecificConditionContext {
     private static final ThreadLocal<SpecificConditionHandler> holder = new ThreadLocal<>();
 
     public static void with(SpecificConditionHandler handler, Runnable r) {
+        SpecificConditionHandler previous = holder.get();
         holder.set(handler);
         try {
             r.run();
         } finally {
-            holder.set(null);
+            restore(previous);
         }
     }
 
     public static <T> T get(SpecificConditionHandler handler, Supplier<T> supplier) {
+        SpecificConditionHandler previous = holder.get();
         holder.set(handler);
         try {
             return supplier.get();
         } finally {
-            holder.set(null);
+            restore(previous);
         }
     }
 
     public static SpecificConditionHandler getHandler() {
         return holder.get();
     }
-}
\ No newline at end of file
+
+    private static void restore(SpecificConditionHandler previous) {
+        if (previous != null) {
+            holder.set(previous);
+        } else {
+            // do not leave entries in pooled test threads
+            holder.remove();
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import com.codeborne.selenide.WebDriverRunner;
+import com.haulmont.masquerade.util.Log;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.internal.WrapsDriver;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counts WebDriver commands and records their latency per command type, per component class, per {@link Log}
+ * operation of components and per named scope.
+ * <br>
+ * Enabled with {@code -Dmasquerade.metrics=true}: WebDriver of Selenide is instrumented on first component call and
+ * the report is logged at JVM shutdown, {@code -Dmasquerade.metrics.report=<file>} writes it to a file as well.
+ * Drivers created outside of Selenide can be instrumented with {@link #instrument(WebDriver)}.
+ * <pre>
+ * try (MasqueradeMetrics.Scope scope = MasqueradeMetrics.scope("LoginScreen")) {
+ *     loginScreen.login();
+ * }
+ * </pre>
+ */
+public final class MasqueradeMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("masquerade.metrics");
+
+    public static final String REPORT_FILE = System.getProperty("masquerade.metrics.report");
+
+    private static final Logger log = LoggerFactory.getLogger(MasqueradeMetrics.class);
+
+    private static final String NO_COMPONENT = "(none)";
+
+    private static final ThreadLocal<Frame> currentFrame = new ThreadLocal<>();
+
+    private static final Map<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> components = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> operations = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> scopes = new ConcurrentHashMap<>();
+
+    private static final Map<Method, String> operationNames = new ConcurrentHashMap<>();
+
+    private static volatile WeakReference<WebDriver> instrumentedDriver = new WeakReference<>(null);
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(MasqueradeMetrics::writeReport,
+                    "masquerade-metrics-report"));
+        }
+    }
+
+    private MasqueradeMetrics() {
+    }
+
+    /**
+     * Replaces command executor of the driver with a timed one. Does nothing if the driver is already instrumented.
+     *
+     * @param driver driver or a wrapper of RemoteWebDriver, e.g. EventFiringWebDriver
+     * @return the same driver
+     */
+    public static WebDriver instrument(WebDriver driver) {
+        checkNotNull(driver);
+
+        WebDriver unwrapped = driver;
+        while (unwrapped instanceof WrapsDriver) {
+            unwrapped = ((WrapsDriver) unwrapped).getWrappedDriver();
+        }
+
+        if (!(unwrapped instanceof RemoteWebDriver)) {
+            log.warn("Unable to instrument {}, only RemoteWebDriver is supported", driver.getClass().getName());
+            return driver;
+        }
+
+        RemoteWebDriver remoteDriver = (RemoteWebDriver) unwrapped;
+        CommandExecutor executor = remoteDriver.getCommandExecutor();
+        if (!(executor instanceof TimedCommandExecutor)) {
+            try {
+                Method setter = RemoteWebDriver.class.getDeclaredMethod("setCommandExecutor", CommandExecutor.class);
+                setter.setAccessible(true);
+                setter.invoke(remoteDriver, new TimedCommandExecutor(executor));
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Unable to instrument " + driver.getClass().getName(), e);
+            }
+        }
+
+        instrumentedDriver = new WeakReference<>(driver);
+        return driver;
+    }
+
+    /**
+     * Starts a named scope, e.g. a screen or a test step. Commands are attributed to the innermost scope
+     * of the current thread until the scope is closed.
+     *
+     * @param name scope name
+     * @return scope to close
+     */
+    public static Scope scope(String name) {
+        checkNotNull(name);
+
+        Frame parent = currentFrame.get();
+        String component = parent != null ? parent.component : null;
+        String operation = parent != null ? parent.operation : null;
+        return enter(new Frame(component, operation, name));
+    }
+
+    /**
+     * Attributes commands of the current thread to a component call until the returned scope is closed.
+     * Called by proxies of components.
+     *
+     * @param componentClass component interface
+     * @param method         called method
+     * @return scope to close
+     */
+    public static Scope enterComponent(Class<?> componentClass, Method method) {
+        instrumentCurrentDriver();
+
+        Frame parent = currentFrame.get();
+        String operation = method.isAnnotationPresent(Log.class)
+                ? operationNames.computeIfAbsent(method, m -> componentClass.getSimpleName() + "." + m.getName())
+                : parent != null ? parent.operation : null;
+        String scope = parent != null ? parent.scope : null;
+        return enter(new Frame(componentClass.getSimpleName(), operation, scope));
+    }
+
+    /**
+     * @return histograms by WebDriver command name
+     */
+    public static Map<String, LatencyHistogram> getCommands() {
+        return Collections.unmodifiableMap(commands);
+    }
+
+    /**
+     * @return histograms of commands by simple name of component interface
+     */
+    public static Map<String, LatencyHistogram> getComponents() {
+        return Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * @return histograms of commands by {@link Log} operation, e.g. {@code Button.click}
+     */
+    public static Map<String, LatencyHistogram> getOperations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * @return histograms of commands by scope name, see {@link #scope(String)}
+     */
+    public static Map<String, LatencyHistogram> getScopes() {
+        return Collections.unmodifiableMap(scopes);
+    }
+
+    public static long getCommandCount() {
+        long count = 0;
+        for (LatencyHistogram histogram : commands.values()) {
+            count += histogram.getCount();
+        }
+        return count;
+    }
+
+    public static void reset() {
+        commands.clear();
+        components.clear();
+        operations.clear();
+        scopes.clear();
+    }
+
+    /**
+     * @return text report with command counts and latencies, sorted by count
+     */
+    public static String report() {
+        long totalNanos = 0;
+        for (LatencyHistogram histogram : commands.values()) {
+            totalNanos += histogram.getTotalNanos();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Masquerade metrics: %d commands, %.1f ms%n",
+                getCommandCount(), totalNanos / 1e6));
+
+        appendSection(sb, "Command", commands);
+        appendSection(sb, "Component", components);
+        appendSection(sb, "Operation", operations);
+        appendSection(sb, "Scope", scopes);
+
+        return sb.toString();
+    }
+
+    static void record(String command, long nanos) {
+        histogram(commands, command).record(nanos);
+
+        Frame frame = currentFrame.get();
+        histogram(components, frame != null && frame.component != null ? frame.component : NO_COMPONENT)
+                .record(nanos);
+
+        if (frame != null && frame.operation != null) {
+            histogram(operations, frame.operation).record(nanos);
+        }
+        if (frame != null && frame.scope != null) {
+            histogram(scopes, frame.scope).record(nanos);
+        }
+    }
+
+    private static Scope enter(Frame frame) {
+        Frame previous = currentFrame.get();
+        currentFrame.set(frame);
+        return new Scope(previous);
+    }
+
+    static void instrumentCurrentDriver() {
+        if (!WebDriverRunner.hasWebDriverStarted()) {
+            return;
+        }
+
+        WebDriver driver = WebDriverRunner.getWebDriver();
+        if (driver != instrumentedDriver.get()) {
+            instrument(driver);
+        }
+    }
+
+    private static LatencyHistogram histogram(Map<String, LatencyHistogram> histograms, String key) {
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    private static void appendSection(StringBuilder sb, String title, Map<String, LatencyHistogram> histograms) {
+        if (histograms.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> e) -> e.getValue().getCount())
+                .reversed()
+                .thenComparing(Map.Entry::getKey));
+
+        sb.append(String.format(Locale.ROOT, "%n%-40s %8s %10s %8s %8s %8s %8s %8s%n",
+                title, "count", "total ms", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, LatencyHistogram> entry : entries) {
+            LatencyHistogram h = entry.getValue();
+            sb.append(String.format(Locale.ROOT, "%-40s %8d %10.1f %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    entry.getKey(), h.getCount(), h.getTotalNanos() / 1e6, h.getMeanNanos() / 1e6,
+                    h.getPercentileNanos(50) / 1e6, h.getPercentileNanos(95) / 1e6,
+                    h.getPercentileNanos(99) / 1e6, h.getMaxNanos() / 1e6));
+        }
+    }
+
+    private static void writeReport() {
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        String report = report();
+        log.info("{}", report);
+
+        if (REPORT_FILE != null && !REPORT_FILE.isEmpty()) {
+            try {
+                Files.write(Paths.get(REPORT_FILE), report.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                log.warn("Unable to write metrics report to {}", REPORT_FILE, e);
+            }
+        }
+    }
+
+    /**
+     * Attribution of commands of the current thread, restores the previous one on close.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Frame previous;
+
+        private Scope(Frame previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                currentFrame.set(previous);
+            } else {
+                currentFrame.remove();
+            }
+        }
+    }
+
+    private static final class Frame {
+        private final String component;
+        private final String operation;
+        private final String scope;
+
+        private Frame(String component, String operation, String scope) {
+            this.component = component;
+            this.operation = operation;
+            this.scope = scope;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records proxied component calls and WebDriver commands issued during them as a timeline in Chrome trace-event
+ * format, one JSON file per test. Files can be opened with {@code chrome://tracing} or Perfetto UI.
+ * <br>
+ * Enabled with {@code -Dmasquerade.timeline=true}, files are written to {@code masquerade.timeline.dir}
+ * ({@code build/masquerade-timeline} by default).
+ * <pre>
+ * &#64;Before
+ * public void setUp() {
+ *     MasqueradeTimeline.startTest(getClass().getSimpleName() + "." + testName.getMethodName());
+ * }
+ *
+ * &#64;After
+ * public void tearDown() {
+ *     MasqueradeTimeline.finishTest();
+ * }
+ * </pre>
+ * Each thread records its own timeline, so tests running in parallel write separate files. {@code startTest} and
+ * {@code finishTest} should be called in the thread that runs the test. Events recorded by a thread outside of
+ * a test are written to a file named after the time of the first event and the thread id.
+ */
+public final class MasqueradeTimeline {
+    public static final boolean ENABLED = Boolean.getBoolean("masquerade.timeline");
+
+    public static final String DIR = System.getProperty("masquerade.timeline.dir", "build/masquerade-timeline");
+
+    private static final int MAX_ARG_LENGTH = 64;
+
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private static final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+
+    private static final ThreadLocal<TraceWriter> currentWriter = new ThreadLocal<>();
+
+    private static final Set<TraceWriter> openWriters = ConcurrentHashMap.newKeySet();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(MasqueradeTimeline::finishAll,
+                    "masquerade-timeline-finish"));
+        }
+    }
+
+    private MasqueradeTimeline() {
+    }
+
+    /**
+     * Finishes the timeline file of the current thread and starts a new one for the test.
+     *
+     * @param testName test name, used as file name
+     */
+    public static void startTest(String testName) {
+        checkNotNull(testName);
+
+        if (!ENABLED) {
+            return;
+        }
+
+        startTrace(Paths.get(DIR, testName.replaceAll("[^A-Za-z0-9._-]", "_") + ".json"));
+    }
+
+    /**
+     * Finishes the timeline file of the current thread and waits until it is written.
+     */
+    public static void finishTest() {
+        TraceWriter finished = currentWriter.get();
+        currentWriter.remove();
+
+        if (finished != null) {
+            close(finished);
+        }
+    }
+
+    /**
+     * Starts a component call of the current thread. Called by proxies of components.
+     *
+     * @return started call, should be passed to {@link #endCall(Call, String, Class, Method, Object[])}
+     */
+    public static Call beginCall() {
+        MasqueradeMetrics.instrumentCurrentDriver();
+
+        Call call = new Call(currentCall.get(), System.nanoTime());
+        currentCall.set(call);
+        return call;
+    }
+
+    /**
+     * Finishes the component call and records its event.
+     *
+     * @param call           started call
+     * @param componentId    id of component as shown in log
+     * @param componentClass component interface
+     * @param method         called method
+     * @param args           method arguments
+     */
+    public static void endCall(Call call, String componentId, Class<?> componentClass, Method method, Object[] args) {
+        long end = System.nanoTime();
+
+        if (call.parent != null) {
+            currentCall.set(call.parent);
+        } else {
+            currentCall.remove();
+        }
+
+        Map<String, Object> eventArgs = new LinkedHashMap<>();
+        eventArgs.put("component", componentId);
+        eventArgs.put("class", componentClass.getSimpleName());
+        eventArgs.put("method", method.getName());
+        if (args != null && args.length > 0) {
+            eventArgs.put("args", digest(args));
+        }
+        eventArgs.put("commands", call.commands);
+
+        record(new TraceEvent(componentClass.getSimpleName() + "." + method.getName(), "component",
+                call.startNanos, end, Thread.currentThread().getId(), Thread.currentThread().getName(), eventArgs));
+    }
+
+    static void recordCommand(String command, long startNanos, long endNanos) {
+        if (!ENABLED) {
+            return;
+        }
+
+        for (Call call = currentCall.get(); call != null; call = call.parent) {
+            call.commands++;
+        }
+
+        record(new TraceEvent(command, "webdriver", startNanos, endNanos,
+                Thread.currentThread().getId(), Thread.currentThread().getName(), null));
+    }
+
+    static String digest(Object[] args) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(StringUtils.abbreviate(String.valueOf(args[i]), MAX_ARG_LENGTH));
+        }
+        return sb.toString();
+    }
+
+    private static void record(TraceEvent event) {
+        while (true) {
+            TraceWriter current = currentWriter.get();
+            if (current == null) {
+                current = startTrace(Paths.get(DIR, "masquerade-"
+                        + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                        + "-" + Thread.currentThread().getId() + ".json"));
+            }
+
+            if (current.write(event)) {
+                return;
+            }
+
+            // closed by finishAll, write to a new file
+            if (currentWriter.get() == current) {
+                currentWriter.remove();
+            }
+        }
+    }
+
+    private static TraceWriter startTrace(Path file) {
+        TraceWriter previous = currentWriter.get();
+
+        TraceWriter started = new TraceWriter(file, BASE_NANOS);
+        openWriters.add(started);
+        currentWriter.set(started);
+
+        if (previous != null) {
+            close(previous);
+        }
+        return started;
+    }
+
+    private static void close(TraceWriter writer) {
+        openWriters.remove(writer);
+        writer.close();
+    }
+
+    /**
+     * Finishes timeline files of all the threads, called on shutdown.
+     */
+    static void finishAll() {
+        for (TraceWriter writer : openWriters) {
+            close(writer);
+        }
+    }
+
+    /**
+     * Component call in progress.
+     */
+    public static final class Call {
+        private final Call parent;
+        private final long startNanos;
+        private int commands;
+
+        private Call(Call parent, long startNanos) {
+            this.parent = parent;
+            this.startNanos = startNanos;
+        }
+    }
+}
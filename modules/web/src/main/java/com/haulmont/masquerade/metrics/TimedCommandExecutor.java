@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+
+/**
+ * Decorates {@link CommandExecutor} of RemoteWebDriver and records latency of every command
+ * to {@link MasqueradeMetrics} and {@link MasqueradeTimeline}.
+ */
+class TimedCommandExecutor implements CommandExecutor {
+    private final CommandExecutor delegate;
+
+    TimedCommandExecutor(CommandExecutor delegate) {
+        this.delegate = delegate;
+    }
+
+    CommandExecutor getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Response execute(Command command) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(command);
+        } finally {
+            long end = System.nanoTime();
+
+            MasqueradeMetrics.record(command.getName(), end - start);
+            MasqueradeTimeline.recordCommand(command.getName(), start, end);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import java.util.Map;
+
+/**
+ * Complete event of Chrome trace-event format.
+ */
+final class TraceEvent {
+    final String name;
+    final String category;
+    final long startNanos;
+    final long endNanos;
+    final long threadId;
+    final String threadName;
+    final Map<String, Object> args;
+
+    TraceEvent(String name, String category, long startNanos, long endNanos,
+               long threadId, String threadName, Map<String, Object> args) {
+        this.name = name;
+        this.category = category;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        this.threadId = threadId;
+        this.threadName = threadName;
+        this.args = args;
+    }
+
+    void appendJson(StringBuilder sb, long baseNanos) {
+        sb.append("{\"name\":");
+        appendString(sb, name);
+        sb.append(",\"cat\":");
+        appendString(sb, category);
+        sb.append(",\"ph\":\"X\",\"ts\":").append((startNanos - baseNanos) / 1000)
+                .append(",\"dur\":").append(Math.max(endNanos - startNanos, 0) / 1000)
+                .append(",\"pid\":1,\"tid\":").append(threadId);
+
+        if (args != null && !args.isEmpty()) {
+            sb.append(",\"args\":{");
+            boolean first = true;
+            for (Map.Entry<String, Object> arg : args.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+
+                appendString(sb, arg.getKey());
+                sb.append(':');
+                if (arg.getValue() instanceof Number || arg.getValue() instanceof Boolean) {
+                    sb.append(arg.getValue());
+                } else {
+                    appendString(sb, arg.getValue() == null ? null : arg.getValue().toString());
+                }
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+    }
+
+    void appendThreadNameJson(StringBuilder sb) {
+        sb.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(threadId)
+                .append(",\"args\":{\"name\":");
+        appendString(sb, threadName);
+        sb.append("}}");
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes trace events to a JSON file in a background thread, so that tests only enqueue events.
+ * <br>
+ * Events are not accepted after {@link #close()}, and are discarded if the file cannot be written.
+ */
+final class TraceWriter implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(TraceWriter.class);
+
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final long CLOSE_TIMEOUT_MS = 10000;
+
+    private static final TraceEvent END = new TraceEvent("", "", 0, 0, 0, "", null);
+
+    private final Path file;
+    private final long baseNanos;
+    private final BlockingQueue<TraceEvent> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread thread;
+
+    private final Object lock = new Object();
+    private boolean closed; // guarded by lock
+    private volatile boolean failed;
+
+    TraceWriter(Path file, long baseNanos) {
+        this.file = file;
+        this.baseNanos = baseNanos;
+
+        this.thread = new Thread(this::run, "masquerade-timeline-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Enqueues the event.
+     *
+     * @param event event
+     * @return false if the writer is closed and the event should be written to another writer
+     */
+    boolean write(TraceEvent event) {
+        if (failed) {
+            // the file cannot be written, producers should not block
+            return true;
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                return false;
+            }
+            put(event);
+        }
+        return true;
+    }
+
+    /**
+     * Completes the file and waits for the writer thread.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            put(END);
+        }
+
+        try {
+            thread.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(TraceEvent event) {
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeEvents(writer);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to write timeline to {}", file, e);
+            drain();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeEvents(BufferedWriter writer) throws IOException, InterruptedException {
+        writer.write("{\"traceEvents\":[");
+
+        Set<Long> namedThreads = new HashSet<>();
+        StringBuilder sb = new StringBuilder(256);
+        boolean first = true;
+
+        TraceEvent event;
+        while ((event = queue.take()) != END) {
+            sb.setLength(0);
+            if (namedThreads.add(event.threadId)) {
+                sb.append(first ? "\n" : ",\n");
+                event.appendThreadNameJson(sb);
+                first = false;
+            }
+            sb.append(first ? "\n" : ",\n");
+            event.appendJson(sb, baseNanos);
+            first = false;
+
+            writer.append(sb);
+        }
+
+        writer.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+    }
+
+    private void drain() {
+        failed = true;
+
+        // discard enqueued events, new events are not enqueued anymore
+        TraceEvent event;
+        do {
+            event = queue.poll();
+        } while (event != null && event != END);
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.session;
+
+import com.codeborne.selenide.WebDriverRunner;
+import com.codeborne.selenide.impl.WebDriverContainer;
+import com.codeborne.selenide.impl.WebDriverThreadLocalContainer;
+import com.codeborne.selenide.webdriver.WebDriverFactory;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Bounded pool of browsers for parallel test execution. A browser is leased by a test thread, bound to it as the
+ * Selenide WebDriver of the thread, cleaned up and returned to the pool when the lease is closed.
+ * <pre>
+ * private BrowserPool.Lease browser;
+ *
+ * &#64;Before
+ * public void setUp() {
+ *     browser = BrowserPool.getDefault().lease();
+ * }
+ *
+ * &#64;After
+ * public void tearDown() {
+ *     browser.close();
+ * }
+ * </pre>
+ * At most {@code size} browsers are open at once, a thread that leases a browser from an exhausted pool waits
+ * for a browser to be returned. Browsers are started on first demand or in advance with {@link #prestart()},
+ * and are quit on {@link #close()} or JVM shutdown.
+ * <br>
+ * The size of the default pool is {@code masquerade.pool.size}, the number of available processors by default.
+ */
+public class BrowserPool implements AutoCloseable {
+    public static final int DEFAULT_SIZE =
+            Integer.getInteger("masquerade.pool.size", Runtime.getRuntime().availableProcessors());
+
+    public static final long LEASE_TIMEOUT_MS = Long.getLong("masquerade.pool.leaseTimeout", 300_000L);
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserPool.class);
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "try { window.localStorage && window.localStorage.clear(); } catch (e) {}\n" +
+            "try { window.sessionStorage && window.sessionStorage.clear(); } catch (e) {}";
+
+    private final int size;
+    private final Supplier<WebDriver> driverFactory;
+    private final Consumer<WebDriver> cleanup;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<WebDriver> idle = new LinkedBlockingDeque<>();
+    private final Set<WebDriver> drivers = ConcurrentHashMap.newKeySet();
+    private final Map<Thread, Lease> leases = new ConcurrentHashMap<>();
+
+    private final Thread shutdownHook = new Thread(this::close, "masquerade-browser-pool-shutdown");
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool of {@link #DEFAULT_SIZE} browsers started by Selenide according to its configuration.
+     */
+    public BrowserPool() {
+        this(DEFAULT_SIZE);
+    }
+
+    public BrowserPool(int size) {
+        this(size, () -> new WebDriverFactory().createWebDriver(null));
+    }
+
+    /**
+     * Creates a pool of browsers started by Selenide with custom cleanup, e.g. {@link #closeExtraWindows(WebDriver)}
+     * keeps cookies of the browsers for {@link BrowserSession}.
+     *
+     * @param size    maximum number of open browsers
+     * @param cleanup resets a browser before it is returned to the pool, the browser is quit if it throws
+     */
+    public BrowserPool(int size, Consumer<WebDriver> cleanup) {
+        this(size, () -> new WebDriverFactory().createWebDriver(null), cleanup);
+    }
+
+    public BrowserPool(int size, Supplier<WebDriver> driverFactory) {
+        this(size, driverFactory, BrowserPool::clearBrowserState);
+    }
+
+    /**
+     * @param size          maximum number of open browsers
+     * @param driverFactory starts a new browser
+     * @param cleanup       resets a browser before it is returned to the pool, the browser is quit if it throws
+     */
+    public BrowserPool(int size, Supplier<WebDriver> driverFactory, Consumer<WebDriver> cleanup) {
+        checkArgument(size > 0, "size should be positive");
+        checkNotNull(driverFactory);
+        checkNotNull(cleanup);
+
+        this.size = size;
+        this.driverFactory = driverFactory;
+        this.cleanup = cleanup;
+        this.permits = new Semaphore(size, true);
+
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * @return pool shared by all the tests of the JVM, created on first use
+     */
+    public static BrowserPool getDefault() {
+        return DefaultPoolHolder.INSTANCE;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of open browsers, both leased and idle
+     */
+    public int getOpenCount() {
+        return drivers.size();
+    }
+
+    /**
+     * @return number of open browsers that are not leased
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Starts browsers in parallel until the pool is full, so that tests do not pay for browser startup.
+     *
+     * @return this pool
+     */
+    public BrowserPool prestart() {
+        checkState(!closed, "Pool is closed");
+
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(size);
+        try {
+            // each free permit is either an idle browser or a room for a new one
+            int count = permits.drainPermits();
+            int missing = count - idle.size();
+            for (int i = 0; i < missing; i++) {
+                futures.add(executor.submit(() -> idle.offerFirst(startDriver())));
+            }
+            permits.release(count);
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while starting browsers", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to start browser", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return this;
+    }
+
+    /**
+     * Leases a browser and binds it to the current thread, waits at most {@link #LEASE_TIMEOUT_MS}
+     * if all the browsers are leased.
+     *
+     * @return lease that should be closed when the test finishes
+     */
+    public Lease lease() {
+        return lease(LEASE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public Lease lease(long timeout, TimeUnit unit) {
+        checkState(!closed, "Pool is closed");
+
+        Thread thread = Thread.currentThread();
+        checkState(!leases.containsKey(thread), "Current thread already holds a browser of the pool");
+
+        try {
+            if (!permits.tryAcquire(timeout, unit)) {
+                throw new RuntimeException("No browser available in the pool of " + size + " after "
+                        + unit.toMillis(timeout) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a browser", e);
+        }
+
+        WebDriver driver;
+        try {
+            driver = idle.pollFirst();
+            if (driver == null) {
+                driver = startDriver();
+            }
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+
+        Lease lease = new Lease(thread, driver);
+        leases.put(thread, lease);
+
+        WebDriverRunner.setWebDriver(driver);
+        return lease;
+    }
+
+    /**
+     * @return lease of the current thread or null
+     */
+    public Lease getCurrentLease() {
+        return leases.get(Thread.currentThread());
+    }
+
+    /**
+     * Quits all the idle browsers, leased browsers are quit when returned.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM is shutting down, quit all the browsers including leased ones
+            for (WebDriver driver : drivers) {
+                quitDriver(driver);
+            }
+            return;
+        }
+
+        WebDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            quitDriver(driver);
+        }
+    }
+
+    /**
+     * Default cleanup: closes all the windows except one, clears cookies and web storage and opens a blank page.
+     *
+     * @param driver browser
+     */
+    public static void clearBrowserState(WebDriver driver) {
+        closeExtraWindows(driver);
+
+        if (driver instanceof JavascriptExecutor) {
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+        }
+        driver.manage().deleteAllCookies();
+        driver.get("about:blank");
+    }
+
+    /**
+     * Closes all the browser windows except the first one and switches to its top-level document.
+     *
+     * @param driver browser
+     */
+    public static void closeExtraWindows(WebDriver driver) {
+        Set<String> handles = driver.getWindowHandles();
+        String main = handles.iterator().next();
+        if (handles.size() > 1) {
+            for (String handle : handles) {
+                if (!handle.equals(main)) {
+                    driver.switchTo().window(handle).close();
+                }
+            }
+        }
+        driver.switchTo().window(main);
+        driver.switchTo().defaultContent();
+    }
+
+    protected WebDriver startDriver() {
+        WebDriver driver = driverFactory.get();
+        drivers.add(driver);
+
+        log.info("Started browser {} of {}", drivers.size(), size);
+        return driver;
+    }
+
+    protected void release(Lease lease) {
+        leases.remove(lease.thread, lease);
+        unbindDriver(lease.thread, lease.driver);
+
+        try {
+            if (closed) {
+                quitDriver(lease.driver);
+            } else {
+                try {
+                    cleanup.accept(lease.driver);
+                    idle.offerFirst(lease.driver);
+                } catch (RuntimeException e) {
+                    log.warn("Unable to clean up browser, it will be replaced", e);
+                    quitDriver(lease.driver);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    protected void quitDriver(WebDriver driver) {
+        drivers.remove(driver);
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            log.warn("Unable to quit browser", e);
+        }
+    }
+
+    /**
+     * Removes the driver from Selenide thread binding, so that it is not used or closed by the thread after release.
+     */
+    protected static void unbindDriver(Thread thread, WebDriver driver) {
+        WebDriverContainer container = WebDriverRunner.webdriverContainer;
+        if (!(container instanceof WebDriverThreadLocalContainer)) {
+            return;
+        }
+
+        try {
+            Field field = WebDriverThreadLocalContainer.class.getDeclaredField("THREAD_WEB_DRIVER");
+            field.setAccessible(true);
+
+            @SuppressWarnings("unchecked")
+            Map<Long, WebDriver> threadDrivers = (Map<Long, WebDriver>) field.get(container);
+            threadDrivers.remove(thread.getId(), driver);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Unable to unbind WebDriver from " + thread.getName(), e);
+        }
+    }
+
+    /**
+     * Browser leased by a thread. Closing the lease returns the browser to the pool, the browser must not be used
+     * after that.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Thread thread;
+        private final WebDriver driver;
+
+        private boolean released;
+
+        private Lease(Thread thread, WebDriver driver) {
+            this.thread = thread;
+            this.driver = driver;
+        }
+
+        public WebDriver getWebDriver() {
+            return driver;
+        }
+
+        public BrowserPool getPool() {
+            return BrowserPool.this;
+        }
+
+        /**
+         * Returns the browser to the pool without cleanup, the browser is quit.
+         */
+        public void discard() {
+            if (released) {
+                return;
+            }
+            released = true;
+
+            leases.remove(thread, this);
+            unbindDriver(thread, driver);
+            quitDriver(driver);
+            permits.release();
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+
+            release(this);
+        }
+    }
+
+    private static final class DefaultPoolHolder {
+        private static final BrowserPool INSTANCE = new BrowserPool();
+    }
+}
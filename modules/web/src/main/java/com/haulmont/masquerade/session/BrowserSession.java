@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.session;
+
+import com.codeborne.selenide.WebDriverRunner;
+import com.haulmont.masquerade.sys.VaadinIdle;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.codeborne.selenide.Condition.visible;
+import static com.codeborne.selenide.Selenide.$;
+import static com.codeborne.selenide.Selenide.open;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.haulmont.masquerade.Selectors.byCubaId;
+
+/**
+ * Keeps the application open and logged in across tests. The application is opened and the login action is
+ * performed once per browser, between tests {@link #prepare()} returns the UI to a known state:
+ * <ul>
+ *     <li>extra browser windows are closed</li>
+ *     <li>all {@code DialogWindow}s are closed, top-most first</li>
+ *     <li>all the tabs of the main window are closed</li>
+ * </ul>
+ * The session is dirty if it cannot be reset: a dialog without close button, an unsaved changes confirmation that
+ * keeps a tab open, session expiration message or a missing main window, e.g. after logout. Only a dirty session
+ * is recycled: cookies are deleted, the application is opened and the login action is performed again.
+ * <pre>
+ * private static final BrowserSession session = new BrowserSession("http://localhost:8080/app",
+ *         () -&gt; _$(LoginWindow.class).login("admin", "admin"));
+ *
+ * &#64;Before
+ * public void setUp() {
+ *     session.prepare();
+ * }
+ * </pre>
+ * Login state is tracked per WebDriver, so the same session can be prepared from parallel threads and used
+ * with {@link BrowserPool} created with {@link BrowserPool#closeExtraWindows(WebDriver)} cleanup.
+ */
+public class BrowserSession {
+    /**
+     * Default marker of the main window.
+     */
+    public static final By MAIN_MENU = byCubaId("mainMenu");
+
+    /**
+     * Style name of the tabsheet of the main window in TABBED mode.
+     */
+    public static final String MAIN_TABSHEET_CLASS = "c-main-tabsheet";
+
+    public static final int MAX_RESET_STEPS = Integer.getInteger("masquerade.session.maxResetSteps", 20);
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserSession.class);
+
+    /**
+     * Closes one top-most window or main window tab per call, so that each close is a separate server round trip.
+     */
+    static final String RESET_STEP_SCRIPT =
+            "var tabSheetClass = arguments[0];\n" +
+            "function visible(el) { return el.offsetWidth > 0 || el.offsetHeight > 0; }\n" +
+            "if (document.querySelector('.v-Notification.system')) { return 'expired'; }\n" +
+            "var windows = document.querySelectorAll('.v-window');\n" +
+            "for (var i = windows.length - 1; i >= 0; i--) {\n" +
+            "  if (!visible(windows[i])) { continue; }\n" +
+            "  var closeBox = windows[i].querySelector('.v-window-closebox');\n" +
+            "  if (closeBox && visible(closeBox)) { closeBox.click(); return 'window'; }\n" +
+            "  return 'blocked';\n" +
+            "}\n" +
+            "var tabSheet = document.getElementsByClassName(tabSheetClass)[0];\n" +
+            "var tabs = tabSheet && tabSheet.querySelector('.v-tabsheet-tabcontainer');\n" +
+            "if (tabs) {\n" +
+            "  var closeButtons = tabs.querySelectorAll('.v-tabsheet-caption-close');\n" +
+            "  if (closeButtons.length > 0) { closeButtons[closeButtons.length - 1].click(); return 'tab'; }\n" +
+            "}\n" +
+            "return 'clean';";
+
+    private final String url;
+    private final By mainWindowBy;
+    private final Runnable login;
+
+    // drivers with the application opened and logged in, false if marked as dirty
+    private final Map<WebDriver, Boolean> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final AtomicInteger resetCount = new AtomicInteger();
+    private final AtomicInteger recycleCount = new AtomicInteger();
+
+    public BrowserSession(String url, Runnable login) {
+        this(url, MAIN_MENU, login);
+    }
+
+    /**
+     * @param url          application URL
+     * @param mainWindowBy selector of an element that is present only in the main window of logged in user
+     * @param login        performs login on the login window
+     */
+    public BrowserSession(String url, By mainWindowBy, Runnable login) {
+        checkNotNull(url);
+        checkNotNull(mainWindowBy);
+        checkNotNull(login);
+
+        this.url = url;
+        this.mainWindowBy = mainWindowBy;
+        this.login = login;
+    }
+
+    /**
+     * Prepares the browser of the current thread for a test: starts the session on first use, resets it
+     * on subsequent calls and recycles it if it is dirty.
+     */
+    public void prepare() {
+        WebDriver driver = WebDriverRunner.hasWebDriverStarted() ? WebDriverRunner.getWebDriver() : null;
+
+        Boolean clean = driver != null ? sessions.get(driver) : null;
+        if (clean == null) {
+            start();
+            return;
+        }
+        if (!clean) {
+            log.info("Session is marked as dirty, logging in again");
+            recycle();
+            return;
+        }
+
+        String state;
+        try {
+            state = reset(driver);
+        } catch (WebDriverException e) {
+            log.warn("Browser is not available, it will be restarted", e);
+
+            sessions.remove(driver);
+            WebDriverRunner.closeWebDriver();
+            start();
+            return;
+        }
+
+        if ("clean".equals(state)) {
+            resetCount.incrementAndGet();
+        } else {
+            log.info("Session is dirty ({}), logging in again", state);
+            recycle();
+        }
+    }
+
+    /**
+     * Marks the session of the current thread as dirty, e.g. after a failed test, so that it is recycled
+     * by the next {@link #prepare()}.
+     */
+    public void markDirty() {
+        if (WebDriverRunner.hasWebDriverStarted()) {
+            sessions.replace(WebDriverRunner.getWebDriver(), Boolean.FALSE);
+        }
+    }
+
+    /**
+     * @return number of tests that reused a session
+     */
+    public int getResetCount() {
+        return resetCount.get();
+    }
+
+    /**
+     * @return number of times dirty sessions were recycled
+     */
+    public int getRecycleCount() {
+        return recycleCount.get();
+    }
+
+    protected void start() {
+        open(url);
+        VaadinIdle.waitForIdle();
+
+        if (!isMainWindowOpened(WebDriverRunner.getWebDriver())) {
+            login.run();
+        }
+        $(mainWindowBy).shouldBe(visible);
+
+        sessions.put(WebDriverRunner.getWebDriver(), Boolean.TRUE);
+    }
+
+    protected void recycle() {
+        recycleCount.incrementAndGet();
+
+        WebDriver driver = WebDriverRunner.getWebDriver();
+        sessions.remove(driver);
+        driver.manage().deleteAllCookies();
+
+        start();
+    }
+
+    /**
+     * Closes windows and tabs until the main window is clean.
+     *
+     * @param driver browser
+     * @return {@code clean} or the reason the session is dirty
+     */
+    protected String reset(WebDriver driver) {
+        BrowserPool.closeExtraWindows(driver);
+
+        for (int i = 0; i < MAX_RESET_STEPS; i++) {
+            if (!isMainWindowOpened(driver)) {
+                return "logged out";
+            }
+
+            Object state = ((JavascriptExecutor) driver).executeScript(RESET_STEP_SCRIPT, MAIN_TABSHEET_CLASS);
+            if (!"window".equals(state) && !"tab".equals(state)) {
+                return String.valueOf(state);
+            }
+
+            VaadinIdle.waitForIdle();
+        }
+        return "not reset in " + MAX_RESET_STEPS + " steps";
+    }
+
+    protected boolean isMainWindowOpened(WebDriver driver) {
+        return !driver.findElements(mainWindowBy).isEmpty();
+    }
+}
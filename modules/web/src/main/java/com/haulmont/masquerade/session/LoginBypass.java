@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.session;
+
+import com.codeborne.selenide.Selenide;
+import com.codeborne.selenide.WebDriverRunner;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpCookie;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Opens application screens as an authenticated user without the login window. Credentials are obtained over HTTP
+ * and injected into the browser as cookies before the screen URL is opened:
+ * <ul>
+ *     <li>{@link #token(Supplier)} - access token, e.g. REST-API token of {@code Connectors.restApiToken(...)},
+ *     is set as {@link #TOKEN_COOKIE} cookie</li>
+ *     <li>{@link #endpoint(String, String, String)} - credentials are posted to a login endpoint, session cookies
+ *     of the response and {@code access_token} of a JSON response are set</li>
+ * </ul>
+ * <pre>
+ * LoginBypass.endpoint("http://localhost:8080/app/test-login", "admin", "admin")
+ *         .open("http://localhost:8080/app/#!/sec$User.browse");
+ * </pre>
+ * The application must accept the injected credentials, e.g. with a filter of the test profile that authenticates
+ * the UI session by the token cookie. Tests of the login window itself should use the UI.
+ */
+public class LoginBypass {
+    public static final String TOKEN_COOKIE = System.getProperty("masquerade.login.tokenCookie", "masquerade_token");
+
+    /**
+     * Path of a page of the application host opened to set cookies when the browser is not on the host yet.
+     */
+    public static final String COOKIE_PAGE = System.getProperty("masquerade.login.cookiePage", "/favicon.ico");
+
+    public static final int TIMEOUT_MS = Integer.getInteger("masquerade.login.timeout", 30_000);
+
+    private static final Logger log = LoggerFactory.getLogger(LoginBypass.class);
+
+    private final Supplier<List<HttpCookie>> authenticator;
+
+    /**
+     * @param authenticator obtains cookies of an authenticated session
+     */
+    public LoginBypass(Supplier<List<HttpCookie>> authenticator) {
+        checkNotNull(authenticator);
+
+        this.authenticator = authenticator;
+    }
+
+    /**
+     * @param tokenSupplier provides access token
+     * @return login bypass that sets the token as {@link #TOKEN_COOKIE} cookie
+     */
+    public static LoginBypass token(Supplier<String> tokenSupplier) {
+        checkNotNull(tokenSupplier);
+
+        return new LoginBypass(() -> Collections.singletonList(tokenCookie(tokenSupplier.get())));
+    }
+
+    /**
+     * @param loginUrl URL that accepts {@code username} and {@code password} form parameters
+     * @param user     user login
+     * @param password user password
+     * @return login bypass that posts credentials to the endpoint for each login
+     */
+    public static LoginBypass endpoint(String loginUrl, String user, String password) {
+        checkNotNull(loginUrl);
+
+        return new LoginBypass(() -> postCredentials(loginUrl, user, password));
+    }
+
+    /**
+     * Injects credentials into the browser of the current thread and opens the URL.
+     *
+     * @param url screen or application URL
+     */
+    public void open(String url) {
+        inject(url);
+        Selenide.open(url);
+    }
+
+    /**
+     * Injects credentials into the browser of the current thread for the host of the URL. Opens
+     * {@link #COOKIE_PAGE} of the host if the browser is on another host.
+     *
+     * @param url application URL
+     */
+    public void inject(String url) {
+        List<HttpCookie> cookies = authenticator.get();
+
+        WebDriver driver = WebDriverRunner.getWebDriver();
+        URI target = URI.create(url);
+        if (!isSameOrigin(driver.getCurrentUrl(), target)) {
+            Selenide.open(target.resolve(COOKIE_PAGE).toString());
+        }
+
+        for (HttpCookie cookie : cookies) {
+            driver.manage().deleteCookieNamed(cookie.getName());
+            driver.manage().addCookie(toSeleniumCookie(cookie));
+        }
+
+        log.info("Injected cookies {} for {}", cookieNames(cookies), target.getHost());
+    }
+
+    static List<HttpCookie> postCredentials(String loginUrl, String user, String password) {
+        checkArgument(user != null && password != null, "user and password should not be null");
+
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(loginUrl).openConnection();
+            connection.setRequestMethod("POST");
+            // session cookies are usually set by a redirecting response
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+
+            byte[] form = ("username=" + encode(user) + "&password=" + encode(password))
+                    .getBytes(StandardCharsets.UTF_8);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(form);
+            }
+
+            int code = connection.getResponseCode();
+            if (code >= 400) {
+                throw new RuntimeException("Login endpoint " + loginUrl + " returned " + code);
+            }
+
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = read(in);
+            }
+
+            List<HttpCookie> cookies = parseResponse(connection.getHeaderFields(), connection.getContentType(), body);
+            if (cookies.isEmpty()) {
+                throw new RuntimeException("Login endpoint " + loginUrl + " returned neither cookies nor access token");
+            }
+            return cookies;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to login with " + loginUrl, e);
+        }
+    }
+
+    static List<HttpCookie> parseResponse(Map<String, List<String>> headers, String contentType, String body) {
+        List<HttpCookie> cookies = new ArrayList<>();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if ("Set-Cookie".equalsIgnoreCase(header.getKey())) {
+                for (String value : header.getValue()) {
+                    cookies.addAll(HttpCookie.parse(value));
+                }
+            }
+        }
+
+        if (contentType != null && contentType.contains("json") && !body.isEmpty()) {
+            Map<String, Object> json = new Json().toType(body, Json.MAP_TYPE);
+            Object token = json.get("access_token");
+            if (token != null) {
+                cookies.add(tokenCookie(token.toString()));
+            }
+        }
+        return cookies;
+    }
+
+    static Cookie toSeleniumCookie(HttpCookie cookie) {
+        Cookie.Builder builder = new Cookie.Builder(cookie.getName(), cookie.getValue())
+                .path(cookie.getPath() != null ? cookie.getPath() : "/")
+                .isSecure(cookie.getSecure())
+                .isHttpOnly(cookie.isHttpOnly());
+
+        if (cookie.getMaxAge() > 0) {
+            builder.expiresOn(new Date(System.currentTimeMillis() + cookie.getMaxAge() * 1000));
+        }
+        // domain is not set, cookie is bound to the host of the current page
+        return builder.build();
+    }
+
+    static boolean isSameOrigin(String currentUrl, URI target) {
+        if (currentUrl == null || !currentUrl.contains("://")) {
+            return false;
+        }
+
+        URI current = URI.create(currentUrl);
+        return target.getScheme().equalsIgnoreCase(current.getScheme())
+                && target.getHost().equalsIgnoreCase(current.getHost())
+                && target.getPort() == current.getPort();
+    }
+
+    private static HttpCookie tokenCookie(String token) {
+        checkArgument(token != null && !token.isEmpty(), "access token should not be empty");
+
+        HttpCookie cookie = new HttpCookie(TOKEN_COOKIE, token);
+        cookie.setPath("/");
+        return cookie;
+    }
+
+    private static List<String> cookieNames(List<HttpCookie> cookies) {
+        List<String> names = new ArrayList<>(cookies.size());
+        for (HttpCookie cookie : cookies) {
+            names.add(cookie.getName());
+        }
+        return names;
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.snapshot;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Immutable state of a table header cell.
+ */
+public final class ColumnSnapshot {
+    private final String id;
+    private final String caption;
+
+    public ColumnSnapshot(@Nullable String id, String caption) {
+        this.id = id;
+        this.caption = caption;
+    }
+
+    /**
+     * @return column id without {@code column_} prefix or null if the header cell does not have cuba-id
+     */
+    @Nullable
+    public String getId() {
+        return id;
+    }
+
+    public String getCaption() {
+        return caption;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnSnapshot that = (ColumnSnapshot) o;
+        return Objects.equals(id, that.id)
+                && Objects.equals(caption, that.caption);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, caption);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnSnapshot{" +
+                "id='" + id + '\'' +
+                ", caption='" + caption + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable state of a table row.
+ */
+public final class RowSnapshot {
+    private final int index;
+    private final List<String> columnIds;
+    private final List<String> cells;
+    private final boolean selected;
+    private final Set<String> styleClasses;
+
+    /**
+     * @param index        absolute index of the row in the data set
+     * @param columnIds    ids of columns in order of cells, may contain nulls
+     * @param cells        cell texts
+     * @param selected     whether the row is selected
+     * @param styleClasses CSS classes of the row element
+     */
+    public RowSnapshot(int index, List<String> columnIds, List<String> cells,
+                       boolean selected, Set<String> styleClasses) {
+        this.index = index;
+        this.columnIds = Collections.unmodifiableList(new ArrayList<>(columnIds));
+        this.cells = Collections.unmodifiableList(new ArrayList<>(cells));
+        this.selected = selected;
+        this.styleClasses = Collections.unmodifiableSet(new LinkedHashSet<>(styleClasses));
+    }
+
+    /**
+     * Absolute index of the row in the data set, estimated from the scroll position of the rendered rows.
+     * It is used as a row key.
+     *
+     * @return row index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public List<String> getCells() {
+        return cells;
+    }
+
+    /**
+     * @param columnIndex index of column
+     * @return cell text
+     */
+    public String getCell(int columnIndex) {
+        return cells.get(columnIndex);
+    }
+
+    /**
+     * @param columnId id of column with or without {@code column_} prefix
+     * @return cell text
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public String getCell(String columnId) {
+        String id = columnId.startsWith("column_") ? columnId.substring("column_".length()) : columnId;
+        int columnIndex = columnIds.indexOf(id);
+        if (columnIndex < 0 || columnIndex >= cells.size()) {
+            throw new IllegalArgumentException("Unable to find column " + columnId);
+        }
+        return cells.get(columnIndex);
+    }
+
+    /**
+     * @param cellValues expected cell texts
+     * @return true if the row contains cells with all the given texts
+     */
+    public boolean hasCells(String... cellValues) {
+        return cells.containsAll(Arrays.asList(cellValues));
+    }
+
+    /**
+     * @param text substring
+     * @return true if any of the cells contains text
+     */
+    public boolean containsText(String text) {
+        for (String cell : cells) {
+            if (cell.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isSelected() {
+        return selected;
+    }
+
+    public Set<String> getStyleClasses() {
+        return styleClasses;
+    }
+
+    public boolean hasStyleClass(String styleClass) {
+        return styleClasses.contains(styleClass);
+    }
+
+    /**
+     * @param other row
+     * @return true if rows have the same cells, selection and style classes regardless of index
+     */
+    public boolean contentEquals(RowSnapshot other) {
+        return selected == other.selected
+                && cells.equals(other.cells)
+                && styleClasses.equals(other.styleClasses);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RowSnapshot that = (RowSnapshot) o;
+        return index == that.index && contentEquals(that);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, cells, selected, styleClasses);
+    }
+
+    @Override
+    public String toString() {
+        return "RowSnapshot{" +
+                "index=" + index +
+                ", cells=" + cells +
+                ", selected=" + selected +
+                '}';
+    }
+}
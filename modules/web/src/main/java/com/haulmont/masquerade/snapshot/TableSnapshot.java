@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory state of rendered rows of Table or DataGrid.
+ * <br>
+ * Snapshot is obtained with a single browser call and can be queried, compared and asserted
+ * without further communication with the browser.
+ *
+ * <pre><code>
+ * TableSnapshot snapshot = usersTable.snapshot();
+ *
+ * assertEquals(Arrays.asList("admin", "anonymous"), snapshot.getColumnValues("login"));
+ * assertTrue(snapshot.findRow(row -&gt; row.hasCells("admin")).isPresent());
+ * </code></pre>
+ */
+public final class TableSnapshot {
+    private final List<ColumnSnapshot> columns;
+    private final List<RowSnapshot> rows;
+
+    public TableSnapshot(List<ColumnSnapshot> columns, List<RowSnapshot> rows) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+    }
+
+    public List<ColumnSnapshot> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return column ids in order of cells, may contain nulls
+     */
+    public List<String> getColumnIds() {
+        return columns.stream()
+                .map(ColumnSnapshot::getId)
+                .collect(Collectors.toList());
+    }
+
+    public List<String> getColumnCaptions() {
+        return columns.stream()
+                .map(ColumnSnapshot::getCaption)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return rendered rows in order of appearance
+     */
+    public List<RowSnapshot> getRows() {
+        return rows;
+    }
+
+    /**
+     * @param position position of the row in snapshot
+     * @return row
+     */
+    public RowSnapshot getRow(int position) {
+        return rows.get(position);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    /**
+     * @param index absolute index of the row
+     * @return row with the given index if it is rendered
+     */
+    public Optional<RowSnapshot> findRowByIndex(int index) {
+        return findRow(row -> row.getIndex() == index);
+    }
+
+    public Optional<RowSnapshot> findRow(Predicate<RowSnapshot> predicate) {
+        return rows.stream()
+                .filter(predicate)
+                .findFirst();
+    }
+
+    public List<RowSnapshot> findRows(Predicate<RowSnapshot> predicate) {
+        return rows.stream()
+                .filter(predicate)
+                .collect(Collectors.toList());
+    }
+
+    public List<RowSnapshot> getSelectedRows() {
+        return findRows(RowSnapshot::isSelected);
+    }
+
+    /**
+     * @param columnId id of column with or without {@code column_} prefix
+     * @return texts of the column cells in order of rows
+     */
+    public List<String> getColumnValues(String columnId) {
+        return rows.stream()
+                .map(row -> row.getCell(columnId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Compares rows of this snapshot with rows of a newer snapshot using row index as a key.
+     *
+     * @param newer newer snapshot of the same component
+     * @return difference
+     */
+    public Diff diff(TableSnapshot newer) {
+        Map<Integer, RowSnapshot> oldRows = indexRows(rows);
+        Map<Integer, RowSnapshot> newRows = indexRows(newer.rows);
+
+        List<RowSnapshot> added = new ArrayList<>();
+        List<RowSnapshot> changed = new ArrayList<>();
+        for (RowSnapshot row : newRows.values()) {
+            RowSnapshot oldRow = oldRows.get(row.getIndex());
+            if (oldRow == null) {
+                added.add(row);
+            } else if (!oldRow.contentEquals(row)) {
+                changed.add(row);
+            }
+        }
+
+        List<RowSnapshot> removed = oldRows.values().stream()
+                .filter(row -> !newRows.containsKey(row.getIndex()))
+                .collect(Collectors.toList());
+
+        return new Diff(added, removed, changed);
+    }
+
+    private static Map<Integer, RowSnapshot> indexRows(List<RowSnapshot> rows) {
+        Map<Integer, RowSnapshot> result = new LinkedHashMap<>(rows.size());
+        for (RowSnapshot row : rows) {
+            result.put(row.getIndex(), row);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TableSnapshot that = (TableSnapshot) o;
+        return columns.equals(that.columns)
+                && rows.equals(that.rows);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(columns, rows);
+    }
+
+    @Override
+    public String toString() {
+        return "TableSnapshot{" +
+                "columns=" + getColumnCaptions() +
+                ", rows=" + rows.size() +
+                '}';
+    }
+
+    /**
+     * Difference between two snapshots.
+     */
+    public static final class Diff {
+        private final List<RowSnapshot> added;
+        private final List<RowSnapshot> removed;
+        private final List<RowSnapshot> changed;
+
+        public Diff(List<RowSnapshot> added, List<RowSnapshot> removed, List<RowSnapshot> changed) {
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+            this.changed = Collections.unmodifiableList(changed);
+        }
+
+        /**
+         * @return rows present only in the newer snapshot
+         */
+        public List<RowSnapshot> getAdded() {
+            return added;
+        }
+
+        /**
+         * @return rows present only in the older snapshot
+         */
+        public List<RowSnapshot> getRemoved() {
+            return removed;
+        }
+
+        /**
+         * @return rows of the newer snapshot with changed content
+         */
+        public List<RowSnapshot> getChanged() {
+            return changed;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Diff{" +
+                    "added=" + added +
+                    ", removed=" + removed +
+                    ", changed=" + changed +
+                    '}';
+        }
+    }
+}
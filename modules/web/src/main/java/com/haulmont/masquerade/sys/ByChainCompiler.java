@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.Selectors.ByChain;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles links of {@link ByChain} into as few selectors as possible.
+ * <br>
+ * Adjacent relative XPath links are fused into a single XPath expression. Leading CSS-expressible links
+ * ({@link By.ByCssSelector}, {@link By.ByClassName}, {@link By.ByTagName}, {@link By.ById}) are fused into a single
+ * descendant CSS selector, but only for document-level lookup: CSS descendant combinator matches ancestors outside
+ * of the search context element. All other links are looked up one by one.
+ */
+public final class ByChainCompiler {
+    private static final Pattern CSS_IDENTIFIER = Pattern.compile("-?[_a-zA-Z][_a-zA-Z0-9-]*");
+
+    private static final ClassValue<Boolean> STANDARD_LOOKUP = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return isStandardLookup(type);
+        }
+    };
+
+    private ByChainCompiler() {
+    }
+
+    /**
+     * Compiles links for lookup from a document-level search context, e.g. WebDriver.
+     *
+     * @param bys chain links
+     * @return compiled links
+     */
+    public static List<By> compileForDocument(By[] bys) {
+        return compile(flatten(bys), true);
+    }
+
+    /**
+     * Compiles links for lookup from an element.
+     *
+     * @param bys chain links
+     * @return compiled links
+     */
+    public static List<By> compileForElement(By[] bys) {
+        return compile(flatten(bys), false);
+    }
+
+    private static List<By> flatten(By[] bys) {
+        List<By> result = new ArrayList<>(bys.length);
+        for (By by : bys) {
+            if (by instanceof ByChain) {
+                result.addAll(flatten(((ByChain) by).getBys()));
+            } else {
+                result.add(by);
+            }
+        }
+        return result;
+    }
+
+    private static List<By> compile(List<By> links, boolean documentContext) {
+        List<By> result = new ArrayList<>(links.size());
+
+        int i = 0;
+        if (documentContext) {
+            List<String> cssParts = new ArrayList<>();
+            while (i < links.size()) {
+                String css = toCss(links.get(i));
+                if (css == null) {
+                    break;
+                }
+                cssParts.add(css);
+                i++;
+            }
+
+            if (cssParts.size() > 1) {
+                result.add(By.cssSelector(String.join(" ", cssParts)));
+            } else if (cssParts.size() == 1) {
+                result.add(links.get(0));
+            }
+        }
+
+        while (i < links.size()) {
+            By link = links.get(i);
+            String xpath = toXpath(link);
+            if (xpath == null) {
+                result.add(link);
+                i++;
+                continue;
+            }
+
+            int fused = 1;
+            while (i + fused < links.size()) {
+                String nextXpath = toXpath(links.get(i + fused));
+                if (nextXpath == null || !isRelative(nextXpath)) {
+                    break;
+                }
+                xpath = xpath + nextXpath.substring(1);
+                fused++;
+            }
+
+            result.add(fused > 1 ? By.xpath(xpath) : link);
+            i += fused;
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    @Nullable
+    static String toCss(By by) {
+        if (!STANDARD_LOOKUP.get(by.getClass())) {
+            return null;
+        }
+
+        if (by instanceof By.ByCssSelector) {
+            String css = readField(by, "cssSelector");
+            // selector lists cannot be combined with descendant combinator
+            return css != null && css.indexOf(',') < 0 ? css.trim() : null;
+        }
+        if (by instanceof By.ByClassName) {
+            String className = readField(by, "className");
+            return isIdentifier(className) ? "." + className : null;
+        }
+        if (by instanceof By.ByTagName) {
+            String tagName = readField(by, "tagName");
+            return isIdentifier(tagName) ? tagName : null;
+        }
+        if (by instanceof By.ById) {
+            String id = readField(by, "id");
+            return isIdentifier(id) ? "#" + id : null;
+        }
+        return null;
+    }
+
+    @Nullable
+    static String toXpath(By by) {
+        if (by instanceof By.ByXPath && STANDARD_LOOKUP.get(by.getClass())) {
+            String xpath = readField(by, "xpathExpression");
+            // unions cannot be safely concatenated
+            return xpath != null && xpath.indexOf('|') < 0 ? xpath : null;
+        }
+        return null;
+    }
+
+    private static boolean isRelative(String xpath) {
+        return xpath.startsWith("./");
+    }
+
+    private static boolean isIdentifier(@Nullable String value) {
+        return value != null && CSS_IDENTIFIER.matcher(value).matches();
+    }
+
+    @Nullable
+    private static String readField(By by, String fieldName) {
+        try {
+            return (String) FieldUtils.readField(by, fieldName, true);
+        } catch (IllegalAccessException | IllegalArgumentException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that the selector class does not redefine lookup of a standard Selenium selector.
+     */
+    private static boolean isStandardLookup(Class<?> type) {
+        try {
+            Class<?> declaringClass = type.getMethod("findElements", SearchContext.class).getDeclaringClass();
+            return declaringClass == By.ByCssSelector.class
+                    || declaringClass == By.ByClassName.class
+                    || declaringClass == By.ByTagName.class
+                    || declaringClass == By.ById.class
+                    || declaringClass == By.ByXPath.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import org.openqa.selenium.By;
+
+import java.util.List;
+
+/**
+ * Wiring of composite fields generated at compile time by masquerade-processor.
+ * <br>
+ * Implementation for a class {@code Foo} is named {@code Foo_Wiring} and assigns non-private instance fields
+ * of {@code Foo} annotated with {@link com.haulmont.masquerade.Wire} or
+ * {@link org.openqa.selenium.support.FindBy} directly. Fields of other classes of the hierarchy and fields that
+ * cannot be assigned from generated code are wired by reflection.
+ */
+public interface CompositeWiring {
+    /**
+     * Suffix of generated class names.
+     */
+    String CLASS_NAME_SUFFIX = "_Wiring";
+
+    /**
+     * @return names of fields assigned by {@link #wire(Object, Class, By)}
+     */
+    List<String> getWiredFields();
+
+    /**
+     * Assigns fields of the composite.
+     *
+     * @param instance   composite instance
+     * @param wiredClass class of the composite being wired, may be a subclass of the generated class target
+     * @param parentBy   selector of the composite
+     */
+    void wire(Object instance, Class<?> wiredClass, By parentBy);
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.Condition;
+import com.google.common.collect.ImmutableList;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.haulmont.masquerade.sys.VaadinClassNames.DISABLED_CLASSNAME;
+
+/**
+ * Condition that checks visibility, enabled / readonly state, CSS classes, text and value of an element
+ * with a single script call per poll, instead of a WebDriver command per condition in chains like
+ * {@code shouldBe(visible).shouldBe(enabled).shouldNotBe(readonly)}.
+ * <pre>
+ * private static final ElementState SORTABLE = ElementState.builder()
+ *         .visible()
+ *         .withClass("sortable")
+ *         .build();
+ * </pre>
+ */
+public final class ElementState extends Condition {
+    /**
+     * Visible and enabled, same as {@code shouldBe(visible).shouldBe(enabled)}.
+     */
+    public static final ElementState VISIBLE_ENABLED = builder()
+            .visible()
+            .enabled()
+            .build();
+
+    /**
+     * Visible, enabled and not readonly input.
+     */
+    public static final ElementState EDITABLE_INPUT = builder()
+            .visible()
+            .enabled()
+            .notReadonly()
+            .build();
+
+    /**
+     * Visible component without {@link VaadinClassNames#DISABLED_CLASSNAME}.
+     */
+    public static final ElementState VISIBLE_NOT_DISABLED = builder()
+            .visible()
+            .withoutClass(DISABLED_CLASSNAME)
+            .build();
+
+    /**
+     * JS function of element and checks that returns index of the first failed check or -1,
+     * shared with {@link ObserverWait}.
+     */
+    static final String EVALUATE_FUNCTION =
+            "function(element, checks) {\n" +
+            "  var isIdle = " + VaadinIdle.IDLE_FUNCTION + ";\n" +
+            "  function hasPositiveSize(e) {\n" +
+            "    var rect = e.getBoundingClientRect();\n" +
+            "    if (rect.width > 0 && rect.height > 0) { return true; }\n" +
+            "    for (var child = e.firstElementChild; child; child = child.nextElementSibling) {\n" +
+            "      if (hasPositiveSize(child)) { return true; }\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "  function clips(style, axis) {\n" +
+            "    var value = style['overflow' + axis];\n" +
+            "    if (!value || value === 'visible') {\n" +
+            "      value = style.overflow && style.overflow.indexOf(' ') < 0 ? style.overflow : 'visible';\n" +
+            "    }\n" +
+            "    return value !== 'visible';\n" +
+            "  }\n" +
+            "  function isClipped(e) {\n" +
+            "    var rect = e.getBoundingClientRect();\n" +
+            "    if (rect.width <= 0 || rect.height <= 0) { return false; }\n" +
+            "    for (var p = e.parentElement; p; p = p.parentElement) {\n" +
+            "      var style = window.getComputedStyle(p);\n" +
+            "      var clipX = clips(style, 'X'), clipY = clips(style, 'Y');\n" +
+            "      if (!clipX && !clipY) { continue; }\n" +
+            "      var box = p.getBoundingClientRect();\n" +
+            "      if (clipX && (rect.left + rect.width <= box.left || rect.left >= box.left + box.width)) {\n" +
+            "        return true;\n" +
+            "      }\n" +
+            "      if (clipY && (rect.top + rect.height <= box.top || rect.top >= box.top + box.height)) {\n" +
+            "        return true;\n" +
+            "      }\n" +
+            "    }\n" +
+            "    return false;\n" +
+            "  }\n" +
+            "  function isVisible(e) {\n" +
+            "    if (e.getClientRects().length === 0) { return false; }\n" +
+            "    var visibility = window.getComputedStyle(e).visibility;\n" +
+            "    if (visibility === 'hidden' || visibility === 'collapse') { return false; }\n" +
+            "    for (var p = e; p && p.nodeType === 1; p = p.parentNode) {\n" +
+            "      if (window.getComputedStyle(p).opacity === '0') { return false; }\n" +
+            "    }\n" +
+            "    return hasPositiveSize(e) && !isClipped(e);\n" +
+            "  }\n" +
+            "  function hasClass(e, className) {\n" +
+            "    var classes = (e.getAttribute('class') || '').split(/\\s+/);\n" +
+            "    return classes.indexOf(className) >= 0;\n" +
+            "  }\n" +
+            "  function normalizedText(e) {\n" +
+            "    return (e.innerText || e.textContent || '').replace(/\\s+/g, ' ').trim().toLowerCase();\n" +
+            "  }\n" +
+            "  for (var i = 0; i < checks.length; i++) {\n" +
+            "    var type = checks[i][0], arg = checks[i][1], actual;\n" +
+            "    switch (type) {\n" +
+            "      case 'visible': actual = isVisible(element); break;\n" +
+            "      case 'enabled': actual = !element.disabled; break;\n" +
+            "      case 'readonly': actual = element.hasAttribute('readonly'); break;\n" +
+            "      case 'class': actual = hasClass(element, arg); break;\n" +
+            "      case 'value': actual = String(element.value == null ? '' : element.value) === arg; break;\n" +
+            "      case 'text': actual = normalizedText(element).indexOf(arg.toLowerCase()) >= 0; break;\n" +
+            "      case 'exactText': actual = normalizedText(element) === arg.toLowerCase(); break;\n" +
+            "      case 'idle': actual = isIdle(); break;\n" +
+            "      default: throw new Error('Unsupported check ' + type);\n" +
+            "    }\n" +
+            "    if (actual !== checks[i][2]) { return i; }\n" +
+            "  }\n" +
+            "  return -1;\n" +
+            "}";
+
+    private static final String STATE_SCRIPT = "return (" + EVALUATE_FUNCTION + ")(arguments[0], arguments[1]);";
+
+    private final List<Check> checks;
+    private final List<List<Object>> scriptChecks;
+
+    private ElementState(String name, List<Check> checks) {
+        super(name);
+
+        this.checks = checks;
+
+        List<List<Object>> scriptChecks = new ArrayList<>(checks.size());
+        for (Check check : checks) {
+            // checks without argument pass an empty string, not every driver converts null list items
+            scriptChecks.add(Arrays.asList(check.type, check.arg != null ? check.arg : "", check.expected));
+        }
+        this.scriptChecks = scriptChecks;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean apply(WebElement element) {
+        return getFailedCheck(element) < 0;
+    }
+
+    @Override
+    public String actualValue(WebElement element) {
+        return describeFailure(getFailedCheck(element));
+    }
+
+    List<List<Object>> getScriptChecks() {
+        return scriptChecks;
+    }
+
+    String describeFailure(int failedCheck) {
+        return failedCheck >= 0 && failedCheck < checks.size() ? checks.get(failedCheck).failure : name;
+    }
+
+    private int getFailedCheck(WebElement element) {
+        Object result = executeJavaScript(STATE_SCRIPT, element, scriptChecks);
+        if (!(result instanceof Number)) {
+            throw new RuntimeException("Unable to check element state, unexpected script result: " + result);
+        }
+        return ((Number) result).intValue();
+    }
+
+    private static final class Check {
+        private final String type;
+        private final String arg;
+        private final boolean expected;
+        private final String description;
+        private final String failure;
+
+        private Check(String type, String arg, boolean expected, String description, String failure) {
+            this.type = type;
+            this.arg = arg;
+            this.expected = expected;
+            this.description = description;
+            this.failure = failure;
+        }
+    }
+
+    public static final class Builder {
+        private final List<Check> checks = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Like {@link Condition#visible}, the element should have client rects, should not be hidden by
+         * {@code visibility} or zero {@code opacity}, should have a positive size or a child with it and should not
+         * be clipped away by {@code overflow} of an ancestor.
+         *
+         * @return this builder
+         */
+        public Builder visible() {
+            return add(new Check("visible", null, true, "visible", "hidden"));
+        }
+
+        /**
+         * Same as {@link Condition#enabled}, checks {@code disabled} property of the element.
+         *
+         * @return this builder
+         */
+        public Builder enabled() {
+            return add(new Check("enabled", null, true, "enabled", "disabled"));
+        }
+
+        public Builder notReadonly() {
+            return add(new Check("readonly", null, false, "not readonly", "readonly"));
+        }
+
+        public Builder withClass(String className) {
+            checkNotNull(className);
+            return add(new Check("class", className, true,
+                    "css class '" + className + "'", "no css class '" + className + "'"));
+        }
+
+        public Builder withoutClass(String className) {
+            checkNotNull(className);
+            return add(new Check("class", className, false,
+                    "no css class '" + className + "'", "css class '" + className + "'"));
+        }
+
+        public Builder exactValue(String value) {
+            checkNotNull(value);
+            return add(new Check("value", value, true,
+                    "exact value '" + value + "'", "value is not '" + value + "'"));
+        }
+
+        /**
+         * Same as {@link Condition#text(String)}, case insensitive substring of the element text.
+         *
+         * @param text text
+         * @return this builder
+         */
+        public Builder text(String text) {
+            checkNotNull(text);
+            return add(new Check("text", text, true, "text '" + text + "'", "no text '" + text + "'"));
+        }
+
+        /**
+         * Same as {@link Condition#exactText(String)}, case insensitive.
+         *
+         * @param text text
+         * @return this builder
+         */
+        public Builder exactText(String text) {
+            checkNotNull(text);
+            return add(new Check("exactText", text, true,
+                    "exact text '" + text + "'", "text is not '" + text + "'"));
+        }
+
+        /**
+         * Checks that Vaadin client is idle, see {@link VaadinIdle}.
+         *
+         * @return this builder
+         */
+        public Builder vaadinIdle() {
+            return add(new Check("idle", null, true, "vaadin idle", "vaadin client is active"));
+        }
+
+        /**
+         * Adds all the checks of another state.
+         *
+         * @param state state
+         * @return this builder
+         */
+        public Builder include(ElementState state) {
+            checks.addAll(state.checks);
+            return this;
+        }
+
+        private Builder add(Check check) {
+            checks.add(check);
+            return this;
+        }
+
+        public ElementState build() {
+            if (checks.isEmpty()) {
+                throw new IllegalStateException("ElementState should have at least one check");
+            }
+
+            List<String> descriptions = new ArrayList<>(checks.size());
+            for (Check check : checks) {
+                descriptions.add(check.description);
+            }
+
+            return new ElementState(String.join(", ", descriptions), ImmutableList.copyOf(checks));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.SelenideElement;
+import com.google.common.collect.ImmutableMap;
+import com.haulmont.masquerade.Components;
+import com.haulmont.masquerade.components.DateField;
+import com.haulmont.masquerade.components.DateTimeField;
+import com.haulmont.masquerade.components.LookupField;
+import com.haulmont.masquerade.components.MaskedField;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.codeborne.selenide.Condition.visible;
+import static com.codeborne.selenide.Selenide.$;
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.Selectors.byCubaId;
+
+/**
+ * Fills and reads fields of a container by {@code cuba-id} with a few script calls instead of
+ * a component per field.
+ * <br>
+ * Text fields, text areas and check boxes are set with a single script call. Fields with input masks use
+ * {@link InputStrategy} of their component type, lookup fields are filled with {@link LookupField#setValue(String)}.
+ * Fields with several inputs, e.g. DateTimeField, take space separated values, one per input.
+ */
+public final class FormFields {
+    private static final String FIELD_FUNCTIONS =
+            "function findField(root, id) {\n" +
+            "  return root.querySelector('[cuba-id=\"' + id.replace(/[\"\\\\]/g, '\\\\$&') + '\"]');\n" +
+            "}\n" +
+            "function ownerOf(input) {\n" +
+            "  var e = input;\n" +
+            "  while (e && !(e.getAttribute && e.getAttribute('cuba-id') !== null)) { e = e.parentNode; }\n" +
+            "  return e;\n" +
+            "}\n" +
+            "function inputsOf(field) {\n" +
+            "  var tag = field.tagName.toLowerCase();\n" +
+            "  if (tag === 'input' || tag === 'textarea') { return [field]; }\n" +
+            "  var all = field.querySelectorAll('input, textarea'), inputs = [];\n" +
+            "  for (var i = 0; i < all.length; i++) {\n" +
+            "    if (all[i].type !== 'hidden' && ownerOf(all[i]) === field) { inputs.push(all[i]); }\n" +
+            "  }\n" +
+            "  return inputs;\n" +
+            "}\n" +
+            "function hasClass(el, className) {\n" +
+            "  return (' ' + String(el.className || '') + ' ').indexOf(' ' + className + ' ') >= 0;\n" +
+            "}\n" +
+            "function kindOf(field, inputs) {\n" +
+            "  if (inputs.length === 1 && inputs[0].type === 'checkbox') { return 'checkbox'; }\n" +
+            "  if (hasClass(field, 'v-filterselect') || field.querySelector('.v-filterselect')) { return 'lookup'; }\n" +
+            "  var classes = String(field.className || '');\n" +
+            "  for (var i = 0; i < inputs.length; i++) { classes += ' ' + String(inputs[i].className || ''); }\n" +
+            "  if (/datefield|popupcalendar/.test(classes)) { return inputs.length > 1 ? 'datetime' : 'date'; }\n" +
+            "  if (/maskedfield/.test(classes)) { return 'masked'; }\n" +
+            "  return 'text';\n" +
+            "}\n" +
+            "function valueOf(inputs) {\n" +
+            "  if (inputs.length === 1 && inputs[0].type === 'checkbox') { return String(inputs[0].checked); }\n" +
+            "  return inputs.map(function(input) { return input.value; }).join(' ');\n" +
+            "}\n";
+
+    private static final String CHECK_SCRIPT =
+            FIELD_FUNCTIONS +
+            "var root = arguments[0], ids = arguments[1];\n" +
+            "var failures = [], kinds = {};\n" +
+            "for (var i = 0; i < ids.length; i++) {\n" +
+            "  var field = findField(root, ids[i]);\n" +
+            "  var inputs = field ? inputsOf(field) : [];\n" +
+            "  if (inputs.length === 0) { failures.push(ids[i] + ' not found'); continue; }\n" +
+            "  if (!(field.offsetWidth || field.offsetHeight || field.getClientRects().length)) {\n" +
+            "    failures.push(ids[i] + ' hidden'); continue;\n" +
+            "  }\n" +
+            "  var kind = kindOf(field, inputs);\n" +
+            "  // inputs of lookup and date fields are readonly when text input is not allowed\n" +
+            "  var checkInputs = kind !== 'lookup' && kind !== 'date' && kind !== 'datetime';\n" +
+            "  var disabled = hasClass(field, 'v-disabled'), readonly = hasClass(field, 'v-readonly');\n" +
+            "  for (var j = 0; j < inputs.length; j++) {\n" +
+            "    disabled = disabled || inputs[j].disabled;\n" +
+            "    readonly = readonly || (checkInputs && inputs[j].readOnly);\n" +
+            "  }\n" +
+            "  if (disabled) { failures.push(ids[i] + ' disabled'); continue; }\n" +
+            "  if (readonly) { failures.push(ids[i] + ' readonly'); continue; }\n" +
+            "  kinds[ids[i]] = kind;\n" +
+            "}\n" +
+            "return {failures: failures, kinds: kinds};";
+
+    private static final String FILL_SCRIPT =
+            FIELD_FUNCTIONS +
+            "var setValue = " + InputStrategy.SET_VALUE_FUNCTION + ";\n" +
+            "var root = arguments[0], values = arguments[1], typedIds = arguments[2];\n" +
+            "for (var i = 0; i < values.length; i++) {\n" +
+            "  var input = inputsOf(findField(root, values[i][0]))[0];\n" +
+            "  if (input.type === 'checkbox') {\n" +
+            "    if (input.checked !== values[i][1]) { input.click(); }\n" +
+            "  } else {\n" +
+            "    setValue(input, values[i][1]);\n" +
+            "  }\n" +
+            "}\n" +
+            "return typedIds.map(function(id) { return inputsOf(findField(root, id)); });";
+
+    private static final String READ_SCRIPT =
+            FIELD_FUNCTIONS +
+            "var root = arguments[0], values = [], seen = {};\n" +
+            "var fields = root.querySelectorAll('[cuba-id]');\n" +
+            "for (var i = 0; i < fields.length; i++) {\n" +
+            "  var id = fields[i].getAttribute('cuba-id');\n" +
+            "  var inputs = inputsOf(fields[i]);\n" +
+            "  if (inputs.length === 0 || seen[id]) { continue; }\n" +
+            "  seen[id] = true;\n" +
+            "  values.push([id, valueOf(inputs)]);\n" +
+            "}\n" +
+            "return values;";
+
+    private static final Map<String, Class<?>> TYPED_KINDS = ImmutableMap.of(
+            "date", DateField.class,
+            "datetime", DateTimeField.class,
+            "masked", MaskedField.class);
+
+    private FormFields() {
+    }
+
+    /**
+     * Waits until all the fields are editable and fills them, then waits for Vaadin client to become idle.
+     *
+     * @param rootBy selector of the container
+     * @param values values by {@code cuba-id} of fields, check boxes take {@code true} or {@code false}
+     */
+    public static void fill(By rootBy, Map<String, String> values) {
+        checkNotNull(rootBy);
+        checkNotNull(values);
+
+        if (values.isEmpty()) {
+            return;
+        }
+
+        SelenideElement root = $(rootBy);
+
+        FieldsEditable editable = new FieldsEditable(new ArrayList<>(values.keySet()));
+        root.shouldBe(editable);
+
+        List<List<Object>> scriptValues = new ArrayList<>();
+        List<String> typedIds = new ArrayList<>();
+        List<String> lookupIds = new ArrayList<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String kind = editable.getKinds().get(entry.getKey());
+            String value = entry.getValue() == null ? "" : entry.getValue();
+
+            if ("checkbox".equals(kind)) {
+                scriptValues.add(Arrays.asList(entry.getKey(), Boolean.parseBoolean(value)));
+            } else if ("lookup".equals(kind)) {
+                lookupIds.add(entry.getKey());
+            } else if (TYPED_KINDS.containsKey(kind)) {
+                typedIds.add(entry.getKey());
+            } else {
+                scriptValues.add(Arrays.asList(entry.getKey(), value));
+            }
+        }
+
+        List<?> typedInputs = executeJavaScript(FILL_SCRIPT, root.getWrappedElement(), scriptValues, typedIds);
+        for (int i = 0; i < typedIds.size(); i++) {
+            String id = typedIds.get(i);
+            InputStrategy strategy = InputStrategy.forComponent(TYPED_KINDS.get(editable.getKinds().get(id)), true);
+
+            typeValue(strategy, (List<?>) typedInputs.get(i), values.get(id));
+        }
+
+        for (String id : lookupIds) {
+            Components.wire(LookupField.class, byChain(rootBy, byCubaId(id)))
+                    .setValue(values.get(id));
+        }
+
+        VaadinIdle.waitForIdle();
+    }
+
+    /**
+     * Reads values of all the fields of the container with a single script call.
+     *
+     * @param root container element
+     * @return values by {@code cuba-id} of fields in document order
+     */
+    public static Map<String, String> read(SelenideElement root) {
+        Object result = executeJavaScript(READ_SCRIPT, root.shouldBe(visible).getWrappedElement());
+        if (!(result instanceof List)) {
+            throw new RuntimeException("Unable to read field values, unexpected script result: " + result);
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Object item : (List<?>) result) {
+            List<?> pair = (List<?>) item;
+            values.put((String) pair.get(0), pair.get(1) == null ? "" : pair.get(1).toString());
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static void typeValue(InputStrategy strategy, List<?> inputs, String value) {
+        String[] parts = splitValue(value, inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            strategy.setMaskedValue($((WebElement) inputs.get(i)), parts[i]);
+        }
+    }
+
+    /**
+     * Splits the value of a field with several inputs by whitespace, the last input takes the rest of the value.
+     *
+     * @param value  value
+     * @param inputs count of inputs
+     * @return parts, one per input
+     */
+    static String[] splitValue(String value, int inputs) {
+        String text = value == null ? "" : value;
+        if (inputs == 1) {
+            return new String[]{text};
+        }
+
+        String[] split = text.trim().split("\\s+", inputs);
+        String[] parts = new String[inputs];
+        for (int i = 0; i < inputs; i++) {
+            parts[i] = i < split.length ? split[i] : "";
+        }
+        return parts;
+    }
+
+    static final class FieldsEditable extends Condition {
+        private final List<String> ids;
+
+        private List<String> failures = Collections.emptyList();
+        private Map<String, String> kinds = Collections.emptyMap();
+
+        FieldsEditable(List<String> ids) {
+            super("editable fields " + ids);
+            this.ids = ids;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean apply(WebElement element) {
+            Object result = executeJavaScript(CHECK_SCRIPT, element, ids);
+            if (!(result instanceof Map)) {
+                throw new RuntimeException("Unable to check fields, unexpected script result: " + result);
+            }
+
+            Map<String, Object> state = (Map<String, Object>) result;
+            failures = (List<String>) state.get("failures");
+            kinds = new HashMap<>((Map<String, String>) state.get("kinds"));
+            return failures.isEmpty();
+        }
+
+        @Override
+        public String actualValue(WebElement element) {
+            return String.join(", ", failures);
+        }
+
+        /**
+         * @return kinds of fields by {@code cuba-id} found by the last check
+         */
+        Map<String, String> getKinds() {
+            return kinds;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.util.Log;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.method.ParameterDescription;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.InstrumentedType;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender;
+import net.bytebuddy.implementation.bytecode.StackManipulation;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.implementation.bytecode.collection.ArrayFactory;
+import net.bytebuddy.implementation.bytecode.constant.ClassConstant;
+import net.bytebuddy.implementation.bytecode.constant.TextConstant;
+import net.bytebuddy.implementation.bytecode.member.FieldAccess;
+import net.bytebuddy.implementation.bytecode.member.MethodInvocation;
+import net.bytebuddy.implementation.bytecode.member.MethodReturn;
+import net.bytebuddy.implementation.bytecode.member.MethodVariableAccess;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.isEquals;
+import static net.bytebuddy.matcher.ElementMatchers.isHashCode;
+import static net.bytebuddy.matcher.ElementMatchers.isToString;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+/**
+ * Generates a proxy class per component interface at runtime.
+ * <br>
+ * Generated methods call the target directly. Logging of {@link Log} methods is decided once
+ * for every method when the class is generated and result post-processing is compiled only for methods
+ * returning objects. Both delegate to {@link LoggingInvocationHandler}.
+ */
+public final class GeneratedProxies {
+    private static final String TARGET_FIELD = "target";
+    private static final String HANDLER_FIELD = "handler";
+
+    private static final MethodDescription LOG_EXECUTION;
+    private static final MethodDescription POST_PROCESS_RESULT;
+
+    static {
+        try {
+            LOG_EXECUTION = new MethodDescription.ForLoadedMethod(LoggingInvocationHandler.class
+                    .getMethod("logExecution", String.class, Object[].class));
+            POST_PROCESS_RESULT = new MethodDescription.ForLoadedMethod(LoggingInvocationHandler.class
+                    .getMethod("postProcessResult", Object.class, Object.class, Class.class));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unable to find LoggingInvocationHandler methods", e);
+        }
+    }
+
+    private static final ClassValue<MethodHandle> proxyConstructors = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return generateProxyConstructor(type);
+            } catch (RuntimeException | LinkageError e) {
+                LoggerFactory.getLogger(GeneratedProxies.class)
+                        .warn("Unable to generate proxy class for {}, JDK proxy will be used", type.getName(), e);
+                return null;
+            }
+        }
+    };
+
+    private GeneratedProxies() {
+    }
+
+    /**
+     * @param componentClass component interface
+     * @return true if a proxy class can be generated for the interface
+     */
+    public static boolean isSupported(Class<?> componentClass) {
+        return componentClass.isInterface()
+                && Modifier.isPublic(componentClass.getModifiers())
+                && proxyConstructors.get(componentClass) != null;
+    }
+
+    /**
+     * Creates an instance of generated proxy class.
+     *
+     * @param componentClass component interface
+     * @param target         target object
+     * @param handler        handler used for logging and result post-processing
+     * @param <T>            type of component
+     * @return proxy
+     * @throws IllegalArgumentException if the proxy class cannot be generated
+     */
+    public static <T> T createProxy(Class<T> componentClass, T target, LoggingInvocationHandler handler) {
+        if (!isSupported(componentClass)) {
+            throw new IllegalArgumentException("Unable to generate proxy for " + componentClass.getName());
+        }
+
+        try {
+            return componentClass.cast(proxyConstructors.get(componentClass).invokeExact(target, handler));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Unable to create proxy for " + componentClass.getName(), e);
+        }
+    }
+
+    private static MethodHandle generateProxyConstructor(Class<?> componentClass) {
+        if (!componentClass.isInterface() || !Modifier.isPublic(componentClass.getModifiers())) {
+            return null;
+        }
+
+        Class<?> proxyClass;
+        try {
+            proxyClass = new ByteBuddy(ClassFileVersion.JAVA_V8)
+                    .subclass(Object.class)
+                    .name(componentClass.getName() + "$MasqueradeProxy")
+                    .implement(componentClass)
+                    .defineField(TARGET_FIELD, componentClass, Visibility.PRIVATE)
+                    .defineField(HANDLER_FIELD, LoggingInvocationHandler.class, Visibility.PRIVATE)
+                    .defineConstructor(Visibility.PUBLIC)
+                    .withParameters(componentClass, LoggingInvocationHandler.class)
+                    .intercept(MethodCall.invoke(Object.class.getConstructor())
+                            .andThen(FieldAccessor.ofField(TARGET_FIELD).setsArgumentAt(0)
+                                    .andThen(FieldAccessor.ofField(HANDLER_FIELD).setsArgumentAt(1))))
+                    .method(not(isDeclaredBy(Object.class)).or(isEquals()).or(isHashCode()).or(isToString()))
+                    .intercept(new ForwardingImplementation())
+                    .make()
+                    .load(componentClass.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                    .getLoaded();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unable to find Object constructor", e);
+        }
+
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(proxyClass, MethodType.methodType(void.class,
+                            componentClass, LoggingInvocationHandler.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, LoggingInvocationHandler.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Unable to find constructor of generated proxy", e);
+        }
+    }
+
+    private static class ForwardingImplementation implements Implementation {
+        @Override
+        public InstrumentedType prepare(InstrumentedType instrumentedType) {
+            return instrumentedType;
+        }
+
+        @Override
+        public ByteCodeAppender appender(Target implementationTarget) {
+            TypeDescription proxyType = implementationTarget.getInstrumentedType();
+
+            FieldDescription targetField = proxyType.getDeclaredFields()
+                    .filter(named(TARGET_FIELD)).getOnly();
+            FieldDescription handlerField = proxyType.getDeclaredFields()
+                    .filter(named(HANDLER_FIELD)).getOnly();
+
+            return (methodVisitor, implementationContext, method) -> {
+                List<StackManipulation> code = new ArrayList<>();
+
+                if (method.getDeclaredAnnotations().isAnnotationPresent(Log.class)) {
+                    code.add(MethodVariableAccess.loadThis());
+                    code.add(FieldAccess.forField(handlerField).read());
+                    code.add(new TextConstant(method.getName()));
+                    code.add(argumentsArray(method));
+                    code.add(MethodInvocation.invoke(LOG_EXECUTION));
+                }
+
+                TypeDescription.Generic returnType = method.getReturnType();
+                boolean postProcess = !returnType.isPrimitive();
+
+                if (postProcess) {
+                    code.add(MethodVariableAccess.loadThis());
+                    code.add(FieldAccess.forField(handlerField).read());
+                    code.add(MethodVariableAccess.loadThis());
+                }
+
+                code.add(MethodVariableAccess.loadThis());
+                code.add(FieldAccess.forField(targetField).read());
+                code.add(MethodVariableAccess.allArgumentsOf(method));
+                code.add(MethodInvocation.invoke(method));
+
+                if (postProcess) {
+                    code.add(ClassConstant.of(returnType.asErasure()));
+                    code.add(MethodInvocation.invoke(POST_PROCESS_RESULT));
+                    code.add(Assigner.DEFAULT.assign(TypeDescription.Generic.OBJECT, returnType,
+                            Assigner.Typing.DYNAMIC));
+                }
+
+                code.add(MethodReturn.of(returnType));
+
+                StackManipulation.Size size = new StackManipulation.Compound(code)
+                        .apply(methodVisitor, implementationContext);
+                return new ByteCodeAppender.Size(size.getMaximalSize(), method.getStackSize());
+            };
+        }
+
+        private static StackManipulation argumentsArray(MethodDescription method) {
+            List<StackManipulation> values = new ArrayList<>();
+            for (ParameterDescription parameter : method.getParameters()) {
+                values.add(new StackManipulation.Compound(
+                        MethodVariableAccess.load(parameter),
+                        Assigner.DEFAULT.assign(parameter.getType(), TypeDescription.Generic.OBJECT,
+                                Assigner.Typing.STATIC)));
+            }
+            return ArrayFactory.forType(TypeDescription.Generic.OBJECT).withValues(values);
+        }
+    }
+}
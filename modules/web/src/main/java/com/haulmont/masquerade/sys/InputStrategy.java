@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.WebDriverRunner;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.Locale;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Strategy of entering text into inputs of fields.
+ * <br>
+ * Configured per component type with {@code masquerade.input.strategy.<ComponentType>} system property,
+ * e.g. {@code -Dmasquerade.input.strategy.TextField=javascript}. Values: {@code keystrokes}, {@code javascript},
+ * {@code clipboard}. {@code masquerade.input.strategy} sets the default for fields without input masks,
+ * masked fields such as MaskedField or DateField use keystrokes unless configured explicitly.
+ * <br>
+ * Fields resolve the strategy on each call, so the properties can be changed while tests are running.
+ */
+public enum InputStrategy {
+    /**
+     * Types the value with {@code sendKeys}: clears and types into plain inputs, types over the mask of masked
+     * inputs from the start.
+     */
+    KEYSTROKES,
+
+    /**
+     * Sets the value with a script and dispatches {@code input}, {@code change} and {@code blur} events.
+     */
+    JAVASCRIPT,
+
+    /**
+     * Pastes the value from clipboard, the field receives a single paste instead of a key event per character.
+     * The clipboard is shared by local browsers, copy and paste are serialized within the JVM, browsers of other
+     * processes on the same machine may still interfere.
+     */
+    CLIPBOARD;
+
+    public static final String PROPERTY_PREFIX = "masquerade.input.strategy";
+
+    /**
+     * JS function of input and value that sets the value and dispatches events, shared with {@link FormFields}.
+     */
+    static final String SET_VALUE_FUNCTION =
+            "function(input, value) {\n" +
+            "  input.focus();\n" +
+            "  var proto = Object.getPrototypeOf(input);\n" +
+            "  var descriptor = proto ? Object.getOwnPropertyDescriptor(proto, 'value') : null;\n" +
+            "  if (descriptor && descriptor.set) { descriptor.set.call(input, value); } else { input.value = value; }\n" +
+            "  input.dispatchEvent(new Event('input', {bubbles: true}));\n" +
+            "  input.dispatchEvent(new Event('change', {bubbles: true}));\n" +
+            "  if (document.activeElement === input) {\n" +
+            "    input.blur();\n" +
+            "  } else {\n" +
+            "    input.dispatchEvent(new FocusEvent('blur'));\n" +
+            "  }\n" +
+            "}";
+
+    private static final String SET_VALUE_SCRIPT = "(" + SET_VALUE_FUNCTION + ")(arguments[0], arguments[1]);";
+
+    /**
+     * Sets the value and dispatches {@code input} only, the input keeps focus. Vaadin combo boxes restore
+     * the caption of the selected item on blur.
+     */
+    private static final String SET_FILTER_SCRIPT =
+            "var input = arguments[0], value = arguments[1];\n" +
+            "input.focus();\n" +
+            "var proto = Object.getPrototypeOf(input);\n" +
+            "var descriptor = proto ? Object.getOwnPropertyDescriptor(proto, 'value') : null;\n" +
+            "if (descriptor && descriptor.set) { descriptor.set.call(input, value); } else { input.value = value; }\n" +
+            "input.dispatchEvent(new Event('input', {bubbles: true}));";
+
+    // the operating system clipboard is shared by all the browsers of the machine
+    private static final Object CLIPBOARD_LOCK = new Object();
+
+    private static final String CLIPBOARD_BUFFER_SCRIPT =
+            "var buffer = document.createElement('textarea');\n" +
+            "buffer.value = arguments[0];\n" +
+            "buffer.style.position = 'fixed';\n" +
+            "buffer.style.top = '0';\n" +
+            "buffer.style.left = '0';\n" +
+            "buffer.style.opacity = '0';\n" +
+            "document.body.appendChild(buffer);\n" +
+            "buffer.focus();\n" +
+            "buffer.select();\n" +
+            "return buffer;";
+
+    private static final String REMOVE_SCRIPT =
+            "var e = arguments[0]; if (e.parentNode) { e.parentNode.removeChild(e); }";
+
+    /**
+     * Resolves strategy of the component type.
+     *
+     * @param componentType component interface, e.g. TextField
+     * @param masked        true if the field has an input mask and keystrokes should be used by default
+     * @return strategy
+     */
+    public static InputStrategy forComponent(Class<?> componentType, boolean masked) {
+        String value = System.getProperty(PROPERTY_PREFIX + "." + componentType.getSimpleName());
+        if (isNullOrEmpty(value) && !masked) {
+            value = System.getProperty(PROPERTY_PREFIX);
+        }
+        if (isNullOrEmpty(value)) {
+            return KEYSTROKES;
+        }
+
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported input strategy '" + value + "' for "
+                    + componentType.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Replaces the value of the input.
+     *
+     * @param input input element
+     * @param value value
+     */
+    public void setValue(SelenideElement input, String value) {
+        switch (this) {
+            case KEYSTROKES:
+                input.setValue(value);
+                break;
+
+            case JAVASCRIPT:
+                executeJavaScript(SET_VALUE_SCRIPT, input.getWrappedElement(), value);
+                break;
+
+            case CLIPBOARD:
+                if (isNullOrEmpty(value)) {
+                    input.clear();
+                } else {
+                    paste(input, value);
+                }
+                break;
+
+            default:
+                throw new UnsupportedOperationException("Unsupported input strategy " + this);
+        }
+    }
+
+    /**
+     * Replaces the value of the input with an input mask. {@link #KEYSTROKES} types the value from the start of
+     * the mask without clearing it, other strategies work as {@link #setValue(SelenideElement, String)}.
+     *
+     * @param input input element
+     * @param value value
+     */
+    public void setMaskedValue(SelenideElement input, String value) {
+        if (this == KEYSTROKES) {
+            input.click();
+            input.sendKeys(Keys.HOME, value);
+        } else {
+            setValue(input, value);
+        }
+    }
+
+    /**
+     * Replaces the value of the input and types its last character, so that the field receives a key event,
+     * e.g. to filter options of LookupField. {@link #JAVASCRIPT} keeps the input focused and does not dispatch
+     * {@code change}, so that the field does not restore its caption.
+     *
+     * @param input input element
+     * @param value value
+     */
+    public void setValueAndType(SelenideElement input, String value) {
+        if (this == KEYSTROKES || value.isEmpty()) {
+            input.sendKeys(value);
+            return;
+        }
+
+        if (value.length() > 1) {
+            String filter = value.substring(0, value.length() - 1);
+            if (this == JAVASCRIPT) {
+                executeJavaScript(SET_FILTER_SCRIPT, input.getWrappedElement(), filter);
+            } else {
+                setValue(input, filter);
+            }
+        }
+        input.sendKeys(Keys.END, value.substring(value.length() - 1));
+    }
+
+    private static void paste(SelenideElement input, String value) {
+        JavascriptExecutor executor = (JavascriptExecutor) WebDriverRunner.getWebDriver();
+        Keys modifier = isMac() ? Keys.COMMAND : Keys.CONTROL;
+
+        // copy and paste together, so that browsers of parallel tests do not paste values of each other
+        synchronized (CLIPBOARD_LOCK) {
+            WebElement buffer = (WebElement) executor.executeScript(CLIPBOARD_BUFFER_SCRIPT, value);
+            try {
+                buffer.sendKeys(Keys.chord(modifier, "c"));
+            } finally {
+                executor.executeScript(REMOVE_SCRIPT, buffer);
+            }
+
+            input.click();
+            input.sendKeys(Keys.chord(modifier, "a"), Keys.chord(modifier, "v"));
+        }
+    }
+
+    private static boolean isMac() {
+        WebDriver webDriver = WebDriverRunner.getWebDriver();
+        if (webDriver instanceof HasCapabilities) {
+            Platform platform = ((HasCapabilities) webDriver).getCapabilities().getPlatform();
+            if (platform != null && platform != Platform.ANY) {
+                return platform.is(Platform.MAC);
+            }
+        }
+        return System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("mac");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.SelenideElement;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
+import com.haulmont.masquerade.sys.TableSnapshotReader.ScrollState;
+import org.openqa.selenium.TimeoutException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Iterates over all the rows of lazily loaded Table or DataGrid.
+ * <br>
+ * The component body is scrolled only when all the rendered rows have been consumed, so that the first
+ * not emitted row becomes the first visible one. Rows are emitted once in order of their index and only
+ * the rows of the current page are kept in memory.
+ */
+public class LazyRowSpliterator extends Spliterators.AbstractSpliterator<RowSnapshot> {
+    private final TableSnapshotReader reader;
+    private final SelenideElement element;
+    private final int pageSize;
+
+    private final Deque<RowSnapshot> buffer = new ArrayDeque<>();
+
+    private ScrollState state;
+    private int lastIndex = -1;
+    private boolean finished = false;
+
+    public LazyRowSpliterator(TableSnapshotReader reader, SelenideElement element, int pageSize) {
+        super(Long.MAX_VALUE, ORDERED | DISTINCT | NONNULL);
+
+        this.reader = reader;
+        this.element = element;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super RowSnapshot> action) {
+        while (buffer.isEmpty()) {
+            if (finished) {
+                return false;
+            }
+            loadNextPage();
+        }
+
+        action.accept(buffer.poll());
+        return true;
+    }
+
+    protected void loadNextPage() {
+        if (state == null) {
+            state = scroll(0);
+        } else {
+            ScrollState previous = state;
+            if (previous.rowHeight <= 0) {
+                finished = true;
+                return;
+            }
+
+            long targetIndex = lastIndex + 1;
+            if (pageSize > 0) {
+                targetIndex = Math.min(targetIndex, previous.getFirstVisibleIndex() + pageSize);
+            }
+
+            state = scroll(targetIndex * previous.rowHeight);
+            if (state.scrollTop <= previous.scrollTop) {
+                // the end of the table, all the rendered rows have been emitted
+                finished = true;
+                return;
+            }
+        }
+
+        TableSnapshot page = waitForPage();
+        for (RowSnapshot row : page.getRows()) {
+            if (row.getIndex() > lastIndex) {
+                buffer.add(row);
+                lastIndex = row.getIndex();
+            }
+        }
+
+        if (buffer.isEmpty() && state.rowHeight <= 0) {
+            finished = true;
+        }
+    }
+
+    /**
+     * Waits until the lazy-loading round trip is finished and rendered rows cover the first visible row.
+     */
+    protected TableSnapshot waitForPage() {
+        long deadline = System.currentTimeMillis() + Configuration.timeout;
+        int firstVisibleIndex = state.getFirstVisibleIndex();
+
+        while (true) {
+            if (isIdle()) {
+                TableSnapshot page = readPage();
+                if (covers(page, firstVisibleIndex)) {
+                    return page;
+                }
+                // row height could be unknown before the first rows are rendered
+                state = scroll(-1);
+                firstVisibleIndex = state.getFirstVisibleIndex();
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                throw new TimeoutException("Rows are not loaded after " + Configuration.timeout + " ms");
+            }
+
+            try {
+                Thread.sleep(Configuration.pollingInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for rows", e);
+            }
+        }
+    }
+
+    protected ScrollState scroll(long scrollTop) {
+        return reader.scroll(element, scrollTop);
+    }
+
+    protected TableSnapshot readPage() {
+        return reader.read(element);
+    }
+
+    protected boolean isIdle() {
+        return VaadinIdle.isIdle();
+    }
+
+    protected boolean covers(TableSnapshot page, int firstVisibleIndex) {
+        if (page.isEmpty()) {
+            // empty table
+            return state.rowHeight <= 0;
+        }
+
+        int minIndex = page.getRow(0).getIndex();
+        int maxIndex = page.getRow(page.size() - 1).getIndex();
+        return minIndex <= firstVisibleIndex && firstVisibleIndex <= maxIndex;
+    }
+}
@@ -20,6 +20,8 @@ import com.haulmont.masquerade.Selectors;
 import com.haulmont.masquerade.base.ByLocator;
 import com.haulmont.masquerade.components.Component;
 import com.haulmont.masquerade.components.Element;
+import com.haulmont.masquerade.metrics.MasqueradeMetrics;
+import com.haulmont.masquerade.metrics.MasqueradeTimeline;
 import com.haulmont.masquerade.util.Log;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
@@ -32,18 +34,26 @@ import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.StringUtils.splitByCharacterTypeCamelCase;
 
 public class LoggingInvocationHandler implements InvocationHandler {
+    private static final Map<Method, Boolean> loggedMethods = new ConcurrentHashMap<>();
+    private static final Map<String, String> formattedMethodNames = new ConcurrentHashMap<>();
+
+    private final Class componentClass;
     private final Logger log;
-    private final String targetId;
     private final Object target;
     private ProxyFactory proxyFactory;
 
+    // computed on first log output
+    private String targetId;
+
     public LoggingInvocationHandler(Class componentClass, Object target) {
+        this.componentClass = componentClass;
         this.log = LoggerFactory.getLogger(componentClass);
-        this.targetId = getTargetId(target);
         this.target = target;
     }
 
@@ -57,10 +67,35 @@ public class LoggingInvocationHandler implements InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if (method.getAnnotation(Log.class) != null) {
-            logExecution(method, args);
+        if (isLogged(method)) {
+            logExecution(method.getName(), args);
+        }
+
+        if (MasqueradeMetrics.ENABLED || MasqueradeTimeline.ENABLED) {
+            return invokeInstrumented(proxy, method, args);
         }
 
+        return invokeTarget(proxy, method, args);
+    }
+
+    private Object invokeInstrumented(Object proxy, Method method, Object[] args) throws Throwable {
+        MasqueradeTimeline.Call call = MasqueradeTimeline.ENABLED ? MasqueradeTimeline.beginCall() : null;
+
+        MasqueradeMetrics.Scope scope = MasqueradeMetrics.ENABLED
+                ? MasqueradeMetrics.enterComponent(componentClass, method) : null;
+        try {
+            return invokeTarget(proxy, method, args);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+            if (call != null) {
+                MasqueradeTimeline.endCall(call, getTargetId(), componentClass, method, args);
+            }
+        }
+    }
+
+    private Object invokeTarget(Object proxy, Method method, Object[] args) throws Throwable {
         Object result;
         try {
             result = method.invoke(target, args);
@@ -73,39 +108,83 @@ public class LoggingInvocationHandler implements InvocationHandler {
             }
         }
 
-        return postProcessResult(proxy, method, result);
+        return postProcessResult(proxy, result, method.getReturnType());
     }
 
-    private Object postProcessResult(Object proxy, Method method, Object result) {
+    /**
+     * Replaces the target returned from a method with the proxy and wraps returned components into proxies.
+     * Used by generated proxies as well.
+     *
+     * @param proxy      proxy
+     * @param result     result of the target method
+     * @param returnType declared return type of the method
+     * @return result to be returned from the proxy
+     */
+    public Object postProcessResult(Object proxy, Object result, Class<?> returnType) {
         if (result == target) {
             // return proxy
             return proxy;
         }
 
         if (proxyFactory != null && result != null) {
-            return proxyFactory.createProxy(method.getReturnType(), result);
+            return proxyFactory.createProxy(returnType, result);
         }
 
         return result;
     }
 
-    private void logExecution(Method method, Object[] args) {
+    /**
+     * Logs execution of a method annotated with {@link Log}. Used by generated proxies as well.
+     *
+     * @param methodName method name
+     * @param args       method arguments
+     */
+    public void logExecution(String methodName, Object[] args) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
         if (args != null && args.length >= 1) {
-            if (method.getName().startsWith("set") && args.length == 1) {
-                String propertyName = StringUtils.uncapitalize(method.getName().substring("set".length()));
+            if (methodName.startsWith("set") && args.length == 1) {
+                String propertyName = StringUtils.uncapitalize(methodName.substring("set".length()));
 
-                log.info("Set '{}' of '{}' to '{}'", propertyName, targetId, args[0]);
+                log.info("Set '{}' of '{}' to '{}'", propertyName, getTargetId(), args[0]);
             } else {
-                log.info("{} of '{}' with {}", formatMethodName(method), targetId, args);
+                log.info("{} of '{}' with {}", formatMethodName(methodName), getTargetId(), args);
             }
         } else {
-            log.info("{} '{}'", formatMethodName(method), targetId);
+            log.info("{} '{}'", formatMethodName(methodName), getTargetId());
+        }
+    }
+
+    private static boolean isLogged(Method method) {
+        Boolean logged = loggedMethods.get(method);
+        if (logged == null) {
+            logged = method.getAnnotation(Log.class) != null;
+            loggedMethods.put(method, logged);
         }
+        return logged;
     }
 
-    private String formatMethodName(Method method) {
-        String name = method.getName();
+    private String getTargetId() {
+        String id = targetId;
+        if (id == null) {
+            id = getTargetId(target);
+            targetId = id;
+        }
+        return id;
+    }
+
+    private static String formatMethodName(String name) {
+        String formatted = formattedMethodNames.get(name);
+        if (formatted == null) {
+            formatted = splitMethodName(name);
+            formattedMethodNames.put(name, formatted);
+        }
+        return formatted;
+    }
 
+    private static String splitMethodName(String name) {
         String[] strings = splitByCharacterTypeCamelCase(StringUtils.capitalize(name));
 
         List<String> parts = new ArrayList<>(strings.length);
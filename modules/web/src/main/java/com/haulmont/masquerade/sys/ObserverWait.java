@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.WebDriverRunner;
+import com.codeborne.selenide.ex.ElementNotFound;
+import com.codeborne.selenide.ex.ElementShould;
+import com.codeborne.selenide.ex.UIAssertionError;
+import com.haulmont.masquerade.Conditions;
+import com.haulmont.masquerade.base.SelenideElementWrapper;
+import com.haulmont.masquerade.components.impl.AbstractComponent;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.haulmont.masquerade.sys.VaadinClassNames.DISABLED_CLASSNAME;
+
+/**
+ * Opt-in wait engine for {@code should}, {@code shouldBe}, {@code shouldHave} and {@code waitUntil} of components,
+ * enabled with {@code -Dmasquerade.wait.engine=observer}.
+ * <br>
+ * Instead of polling the browser, installs a {@code MutationObserver} on the element subtree and its ancestors and
+ * blocks in a single {@code executeAsyncScript} call until the conditions hold or the timeout expires. Supports
+ * {@link ElementState}, {@link Condition#visible} and {@code ENABLED} / {@code DISABLED} of components, other
+ * conditions are checked with Selenide polling.
+ * <br>
+ * The engine raises the script timeout of the driver to fit the longest async script call, up to
+ * {@link #MAX_SCRIPT_WAIT_MS} plus polling interval and one second, and keeps it for the rest of the driver
+ * lifetime. WebDriver API cannot read the previous timeout to restore it, lower {@link #MAX_SCRIPT_WAIT_MS} if other
+ * async scripts of tests rely on a short script timeout.
+ */
+public final class ObserverWait {
+    public static final boolean ENABLED = "observer".equals(System.getProperty("masquerade.wait.engine"));
+
+    /**
+     * Maximum duration of a single async script call, longer waits are split into several calls.
+     */
+    public static final long MAX_SCRIPT_WAIT_MS = Long.getLong("masquerade.wait.observer.maxScriptWait", 10000);
+
+    private static final String WAIT_SCRIPT =
+            "var element = arguments[0], checks = arguments[1], timeout = arguments[2],\n" +
+            "    pollingInterval = arguments[3], callback = arguments[arguments.length - 1];\n" +
+            "var evaluate = " + ElementState.EVALUATE_FUNCTION + ";\n" +
+            "var observer = null, timer = null, poller = null, done = false;\n" +
+            "function finish(result) {\n" +
+            "  if (done) { return; }\n" +
+            "  done = true;\n" +
+            "  if (observer) { observer.disconnect(); }\n" +
+            "  clearTimeout(timer);\n" +
+            "  clearInterval(poller);\n" +
+            "  callback(result);\n" +
+            "}\n" +
+            "function check() {\n" +
+            "  if (done) { return; }\n" +
+            "  try {\n" +
+            "    if (!document.documentElement.contains(element)) {\n" +
+            "      finish({state: 'stale', failed: -1});\n" +
+            "    } else if (evaluate(element, checks) < 0) {\n" +
+            "      finish({state: 'matched', failed: -1});\n" +
+            "    }\n" +
+            "  } catch (e) {\n" +
+            "    finish({state: 'error', failed: -1, message: String(e)});\n" +
+            "  }\n" +
+            "}\n" +
+            "check();\n" +
+            "if (!done) {\n" +
+            "  observer = new MutationObserver(check);\n" +
+            "  observer.observe(element, {attributes: true, childList: true, characterData: true, subtree: true});\n" +
+            "  for (var p = element.parentNode; p && p.nodeType === 1; p = p.parentNode) {\n" +
+            "    observer.observe(p, {attributes: true, attributeFilter: ['class', 'style', 'hidden']});\n" +
+            "  }\n" +
+            "  // computed styles and Vaadin client state change without mutations of the observed nodes\n" +
+            "  poller = setInterval(check, pollingInterval);\n" +
+            "  timer = setTimeout(function() {\n" +
+            "    var failed = -1;\n" +
+            "    try { failed = evaluate(element, checks); } catch (e) { }\n" +
+            "    finish({state: failed < 0 ? 'matched' : 'timeout', failed: failed});\n" +
+            "  }, timeout);\n" +
+            "}";
+
+    private static final Map<WebDriver, Long> scriptTimeouts = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ObserverWait() {
+    }
+
+    /**
+     * Waits for the conditions if the engine is enabled and supports all of them.
+     *
+     * @param component  component
+     * @param prefix     prefix of error message, e.g. "be "
+     * @param timeoutMs  timeout
+     * @param conditions conditions
+     * @return false if the conditions should be checked with Selenide polling
+     * @throws ElementShould if the conditions do not hold after timeout
+     */
+    public static boolean waitFor(SelenideElementWrapper<?> component, String prefix, long timeoutMs,
+                                  Condition... conditions) {
+        return waitFor(component, prefix, timeoutMs, Configuration.pollingInterval, conditions);
+    }
+
+    /**
+     * Waits for the conditions if the engine is enabled and supports all of them.
+     *
+     * @param component         component
+     * @param prefix            prefix of error message, e.g. "be "
+     * @param timeoutMs         timeout
+     * @param pollingIntervalMs interval of checks of changes that do not cause DOM mutations
+     * @param conditions        conditions
+     * @return false if the conditions should be checked with Selenide polling
+     * @throws ElementShould if the conditions do not hold after timeout
+     */
+    public static boolean waitFor(SelenideElementWrapper<?> component, String prefix, long timeoutMs,
+                                  long pollingIntervalMs, Condition... conditions) {
+        if (!ENABLED) {
+            return false;
+        }
+
+        ElementState state = translate(component, conditions);
+        if (state == null) {
+            return false;
+        }
+
+        waitFor(component.getDelegate(), prefix, state, timeoutMs, pollingIntervalMs);
+        return true;
+    }
+
+    /**
+     * Converts conditions into a single {@link ElementState}.
+     *
+     * @param component  component
+     * @param conditions conditions
+     * @return state or null if some of conditions are not supported
+     */
+    static ElementState translate(SelenideElementWrapper<?> component, Condition... conditions) {
+        if (conditions.length == 0) {
+            return null;
+        }
+        if (conditions.length == 1 && conditions[0] instanceof ElementState) {
+            return (ElementState) conditions[0];
+        }
+
+        ElementState.Builder builder = ElementState.builder();
+        for (Condition condition : conditions) {
+            if (condition instanceof ElementState) {
+                builder.include((ElementState) condition);
+            } else if (condition == Condition.visible
+                    || condition == Condition.appear
+                    || condition == Condition.appears) {
+                builder.visible();
+            } else if (condition == Conditions.ENABLED && component instanceof AbstractComponent) {
+                // see ConditionCases.COMPONENT
+                builder.withoutClass(DISABLED_CLASSNAME);
+            } else if (condition == Conditions.DISABLED && component instanceof AbstractComponent) {
+                builder.withClass(DISABLED_CLASSNAME);
+            } else {
+                return null;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Waits for the element state.
+     *
+     * @param element   element
+     * @param prefix    prefix of error message, e.g. "be "
+     * @param state     expected state
+     * @param timeoutMs timeout
+     * @throws ElementShould if the state is not reached after timeout
+     */
+    public static void waitFor(SelenideElement element, String prefix, ElementState state, long timeoutMs) {
+        waitFor(element, prefix, state, timeoutMs, Configuration.pollingInterval);
+    }
+
+    /**
+     * Waits for the element state.
+     *
+     * @param element           element
+     * @param prefix            prefix of error message, e.g. "be "
+     * @param state             expected state
+     * @param timeoutMs         timeout
+     * @param pollingIntervalMs interval of checks of changes that do not cause DOM mutations
+     * @throws ElementShould if the state is not reached after timeout
+     */
+    public static void waitFor(SelenideElement element, String prefix, ElementState state, long timeoutMs,
+                               long pollingIntervalMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        int failed = -1;
+        WebElement lastElement = null;
+        Throwable lastError = null;
+
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+
+            WebElement webElement = null;
+            try {
+                webElement = element.getWrappedElement();
+                lastElement = webElement;
+            } catch (WebDriverException | UIAssertionError e) {
+                // not rendered yet
+                lastElement = null;
+                lastError = e;
+            }
+
+            if (webElement != null) {
+                Map<?, ?> result = await(webElement, state, Math.max(0, Math.min(remaining, MAX_SCRIPT_WAIT_MS)),
+                        pollingIntervalMs);
+
+                Object resultState = result.get("state");
+                if ("matched".equals(resultState)) {
+                    return;
+                }
+                if ("error".equals(resultState)) {
+                    throw new RuntimeException("Unable to wait for " + state + ": " + result.get("message"));
+                }
+                if ("timeout".equals(resultState)) {
+                    failed = ((Number) result.get("failed")).intValue();
+                }
+            } else if (remaining > 0) {
+                sleep(Math.min(remaining, pollingIntervalMs));
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+        }
+
+        if (lastElement == null) {
+            throw UIAssertionError.wrap(new ElementNotFound(element.getSearchCriteria(), state, lastError), timeoutMs);
+        }
+
+        Exception cause = failed >= 0 ? new IllegalStateException(state.describeFailure(failed)) : null;
+        ElementShould error = new ElementShould(element.getSearchCriteria(), prefix, state, lastElement, cause);
+        throw UIAssertionError.wrap(error, timeoutMs);
+    }
+
+    private static Map<?, ?> await(WebElement element, ElementState state, long timeoutMs, long pollingIntervalMs) {
+        WebDriver webDriver = WebDriverRunner.getWebDriver();
+        ensureScriptTimeout(webDriver, timeoutMs + pollingIntervalMs + 1000);
+
+        Object result = ((JavascriptExecutor) webDriver).executeAsyncScript(WAIT_SCRIPT,
+                element, state.getScriptChecks(), timeoutMs, pollingIntervalMs);
+        if (!(result instanceof Map)) {
+            throw new RuntimeException("Unable to wait for " + state + ", unexpected script result: " + result);
+        }
+        return (Map<?, ?>) result;
+    }
+
+    // the raised timeout is kept, see the class javadoc
+    private static void ensureScriptTimeout(WebDriver webDriver, long timeoutMs) {
+        Long current = scriptTimeouts.get(webDriver);
+        if (current == null || current < timeoutMs) {
+            webDriver.manage().timeouts().setScriptTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+            scriptTimeouts.put(webDriver, timeoutMs);
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for element", e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+
+/**
+ * In-page index of table cell texts.
+ * <br>
+ * The index maps normalized text of cell text nodes to rows and cells. It is built on the first lookup,
+ * stored in the table body element and invalidated by a MutationObserver on any change of the body,
+ * so that subsequent lookups are resolved with a hash lookup in a single script call.
+ * <br>
+ * The index is disabled by default, use {@code masquerade.table.rowIndex} system property to enable it.
+ */
+public final class TableRowIndex {
+    public static final boolean ENABLED = Boolean.getBoolean("masquerade.table.rowIndex");
+
+    public static final TableRowIndex TABLE = new TableRowIndex(
+            ".v-table-body .v-table-table", "v-table-row", "v-table-cell-content");
+
+    private static final String LOOKUP_SCRIPT =
+            "var root = arguments[0] || document, bodySelector = arguments[1], rowClass = arguments[2],\n" +
+            "    cellClass = arguments[3], mode = arguments[4], values = arguments[5], target = arguments[6];\n" +
+            "function hasClassPrefix(el, prefix) {\n" +
+            "  return String(el.className || '').split(/\\s+/).some(function(c) { return c.indexOf(prefix) === 0; });\n" +
+            "}\n" +
+            "function normalize(s) {\n" +
+            "  return s.replace(/[ \\t\\r\\n]+/g, ' ').replace(/^ | $/g, '');\n" +
+            "}\n" +
+            "function addTexts(node, rowOrdinal, cellOrdinal) {\n" +
+            "  for (var child = node.firstChild; child; child = child.nextSibling) {\n" +
+            "    if (child.nodeType === 3) {\n" +
+            "      var key = '$' + normalize(child.nodeValue);\n" +
+            "      var entries = index.texts[key] || (index.texts[key] = []);\n" +
+            "      var last = entries[entries.length - 1];\n" +
+            "      if (!last || last.cell !== cellOrdinal) { entries.push({row: rowOrdinal, cell: cellOrdinal}); }\n" +
+            "    } else if (child.nodeType === 1) {\n" +
+            "      addTexts(child, rowOrdinal, cellOrdinal);\n" +
+            "    }\n" +
+            "  }\n" +
+            "}\n" +
+            "var body = root.querySelector(bodySelector);\n" +
+            "if (!body) { return []; }\n" +
+            "var index = body.__masqueradeRowIndex;\n" +
+            "if (!index || index.dirty) {\n" +
+            "  index = {rows: [], cells: [], texts: {}, dirty: false};\n" +
+            "  for (var r = 0; r < body.rows.length; r++) {\n" +
+            "    var row = body.rows[r];\n" +
+            "    if (!hasClassPrefix(row, rowClass)) { continue; }\n" +
+            "    var rowOrdinal = index.rows.length;\n" +
+            "    index.rows.push(row);\n" +
+            "    for (var c = 0; c < row.cells.length; c++) {\n" +
+            "      var cell = row.cells[c];\n" +
+            "      if (!hasClassPrefix(cell, cellClass)) { continue; }\n" +
+            "      var cellOrdinal = index.cells.length;\n" +
+            "      index.cells.push(cell);\n" +
+            "      addTexts(cell, rowOrdinal, cellOrdinal);\n" +
+            "    }\n" +
+            "  }\n" +
+            "  var observer = new MutationObserver(function() {\n" +
+            "    index.dirty = true;\n" +
+            "    observer.disconnect();\n" +
+            "  });\n" +
+            "  observer.observe(body, {childList: true, subtree: true, characterData: true});\n" +
+            "  body.__masqueradeRowIndex = index;\n" +
+            "}\n" +
+            "var found = {};\n" +
+            "function collect(entries, into) {\n" +
+            "  for (var i = 0; entries && i < entries.length; i++) {\n" +
+            "    into[target === 'cell' ? entries[i].cell : entries[i].row] = true;\n" +
+            "  }\n" +
+            "}\n" +
+            "if (mode === 'exact') {\n" +
+            "  collect(index.texts['$' + values[0]], found);\n" +
+            "} else if (mode === 'contains') {\n" +
+            "  for (var key in index.texts) {\n" +
+            "    if (key.indexOf(values[0], 1) >= 0) { collect(index.texts[key], found); }\n" +
+            "  }\n" +
+            "} else if (mode === 'cells') {\n" +
+            "  for (var v = 0; v < values.length; v++) {\n" +
+            "    var matched = {};\n" +
+            "    collect(index.texts['$' + values[v]], matched);\n" +
+            "    if (v > 0) {\n" +
+            "      for (var ordinal in matched) { if (!found[ordinal]) { delete matched[ordinal]; } }\n" +
+            "    }\n" +
+            "    found = matched;\n" +
+            "  }\n" +
+            "}\n" +
+            "var elements = target === 'cell' ? index.cells : index.rows;\n" +
+            "return Object.keys(found)\n" +
+            "  .map(function(ordinal) { return parseInt(ordinal, 10); })\n" +
+            "  .sort(function(a, b) { return a - b; })\n" +
+            "  .map(function(ordinal) { return elements[ordinal]; });";
+
+    private final String bodySelector;
+    private final String rowClass;
+    private final String cellClass;
+
+    private TableRowIndex(String bodySelector, String rowClass, String cellClass) {
+        this.bodySelector = bodySelector;
+        this.rowClass = rowClass;
+        this.cellClass = cellClass;
+    }
+
+    /**
+     * @param text cell text
+     * @return selector of rows with a cell text node equal to the text after whitespace normalization
+     */
+    public By rowsByText(String text) {
+        return new ByIndexedText(this, "exact", "row", text);
+    }
+
+    /**
+     * @param text cell text substring
+     * @return selector of rows with a cell text node containing the text
+     */
+    public By rowsWithText(String text) {
+        return new ByIndexedText(this, "contains", "row", text);
+    }
+
+    /**
+     * @param cellValues cell texts
+     * @return selector of rows having cells with all the texts
+     */
+    public By rowsByCells(String... cellValues) {
+        return new ByIndexedText(this, "cells", "row", cellValues);
+    }
+
+    /**
+     * @param text cell text
+     * @return selector of cells with a text node equal to the text after whitespace normalization
+     */
+    public By cellsByText(String text) {
+        return new ByIndexedText(this, "exact", "cell", text);
+    }
+
+    /**
+     * @param text cell text substring
+     * @return selector of cells with a text node containing the text
+     */
+    public By cellsWithText(String text) {
+        return new ByIndexedText(this, "contains", "cell", text);
+    }
+
+    /**
+     * Selector of rows or cells resolved with the index of the table.
+     */
+    private static final class ByIndexedText extends By {
+        private final TableRowIndex index;
+        private final String mode;
+        private final String target;
+        private final List<String> values;
+
+        private ByIndexedText(TableRowIndex index, String mode, String target, String... values) {
+            this.index = index;
+            this.mode = mode;
+            this.target = target;
+            this.values = Arrays.asList(values);
+        }
+
+        @Override
+        public WebElement findElement(SearchContext context) {
+            List<WebElement> elements = findElements(context);
+            if (elements.isEmpty()) {
+                throw new NoSuchElementException("Cannot locate an element using " + toString());
+            }
+            return elements.get(0);
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            WebElement root = context instanceof WebElement ? (WebElement) context : null;
+
+            List<?> result = executeJavaScript(LOOKUP_SCRIPT, root,
+                    index.bodySelector, index.rowClass, index.cellClass, mode, values, target);
+
+            List<WebElement> elements = new ArrayList<>();
+            if (result != null) {
+                for (Object element : result) {
+                    elements.add((WebElement) element);
+                }
+            }
+            return elements;
+        }
+
+        @Override
+        public String toString() {
+            return "By.indexedText: " + target + "s " + mode + " " + values;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.SelenideElement;
+import com.haulmont.masquerade.snapshot.ColumnSnapshot;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reads {@link TableSnapshot} of Table or DataGrid with a single script call.
+ */
+public final class TableSnapshotReader {
+    public static final TableSnapshotReader TABLE = new TableSnapshotReader(
+            ".v-table-header tr",
+            ".v-table-body .v-table-table",
+            "v-table-row",
+            "v-table-cell-content",
+            "v-selected",
+            ".v-table-body .v-table-row-spacer",
+            ".v-table-body");
+
+    public static final TableSnapshotReader DATA_GRID = new TableSnapshotReader(
+            ".v-grid-header tr",
+            ".v-grid-body",
+            "v-grid-row",
+            "v-grid-cell",
+            "v-grid-row-selected",
+            null,
+            ".v-grid-scroller-vertical");
+
+    private static final String SNAPSHOT_SCRIPT =
+            "var root = arguments[0];\n" +
+            "var headerRowsSelector = arguments[1], bodySelector = arguments[2], rowClass = arguments[3],\n" +
+            "    cellClass = arguments[4], selectedClass = arguments[5], spacerSelector = arguments[6];\n" +
+            "function text(el) {\n" +
+            "  return (el.innerText || el.textContent || '').replace(/\\u00a0/g, ' ').trim();\n" +
+            "}\n" +
+            "function classes(el) {\n" +
+            "  return String(el.className || '').split(/\\s+/).filter(function(c) { return c.length > 0; });\n" +
+            "}\n" +
+            "function hasClassPrefix(el, prefix) {\n" +
+            "  return classes(el).some(function(c) { return c.indexOf(prefix) === 0; });\n" +
+            "}\n" +
+            "var columns = [];\n" +
+            "var headerRows = root.querySelectorAll(headerRowsSelector);\n" +
+            "var headerRow = headerRows.length > 0 ? headerRows[headerRows.length - 1] : null;\n" +
+            "for (var h = 0; h < headerRows.length; h++) {\n" +
+            "  if (headerRows[h].querySelector('[cuba-id^=\"column_\"]')) { headerRow = headerRows[h]; break; }\n" +
+            "}\n" +
+            "if (headerRow) {\n" +
+            "  for (var c = 0; c < headerRow.cells.length; c++) {\n" +
+            "    var headerCell = headerRow.cells[c];\n" +
+            "    var cubaId = headerCell.getAttribute('cuba-id');\n" +
+            "    if (cubaId && cubaId.indexOf('column_') === 0) { cubaId = cubaId.substring(7); }\n" +
+            "    columns.push({id: cubaId, caption: text(headerCell)});\n" +
+            "  }\n" +
+            "}\n" +
+            "var rows = [];\n" +
+            "var body = root.querySelector(bodySelector);\n" +
+            "if (body) {\n" +
+            "  var trs = [];\n" +
+            "  for (var r = 0; r < body.rows.length; r++) {\n" +
+            "    if (hasClassPrefix(body.rows[r], rowClass)) { trs.push(body.rows[r]); }\n" +
+            "  }\n" +
+            "  var rowHeight = trs.length > 0 ? trs[0].offsetHeight : 0;\n" +
+            "  var first = 0;\n" +
+            "  if (spacerSelector && rowHeight > 0) {\n" +
+            "    var spacer = root.querySelector(spacerSelector);\n" +
+            "    if (spacer) { first = Math.round(spacer.offsetHeight / rowHeight); }\n" +
+            "  }\n" +
+            "  for (var i = 0; i < trs.length; i++) {\n" +
+            "    var tr = trs[i];\n" +
+            "    var index = first + i;\n" +
+            "    if (!spacerSelector && rowHeight > 0) {\n" +
+            "      var translate = /translate(?:3d)?\\(\\s*[^,]+,\\s*(-?[\\d.]+)px/.exec(tr.style.transform || '');\n" +
+            "      if (translate) { index = Math.round(parseFloat(translate[1]) / rowHeight); }\n" +
+            "    }\n" +
+            "    var cells = [];\n" +
+            "    for (var j = 0; j < tr.cells.length; j++) {\n" +
+            "      if (hasClassPrefix(tr.cells[j], cellClass)) { cells.push(text(tr.cells[j])); }\n" +
+            "    }\n" +
+            "    var rowClasses = classes(tr);\n" +
+            "    rows.push({index: index, cells: cells, classes: rowClasses,\n" +
+            "      selected: rowClasses.indexOf(selectedClass) >= 0 || rowClasses.indexOf('v-selected') >= 0});\n" +
+            "  }\n" +
+            "  if (!spacerSelector) {\n" +
+            "    rows.sort(function(a, b) { return a.index - b.index; });\n" +
+            "  }\n" +
+            "}\n" +
+            "return {columns: columns, rows: rows};";
+
+    private static final String SCROLL_SCRIPT =
+            "var root = arguments[0], scrollerSelector = arguments[1], bodySelector = arguments[2],\n" +
+            "    rowClass = arguments[3], scrollTop = arguments[4];\n" +
+            "var scroller = root.querySelector(scrollerSelector);\n" +
+            "if (!scroller) { return null; }\n" +
+            "if (scrollTop >= 0) { scroller.scrollTop = scrollTop; }\n" +
+            "var rowHeight = 0;\n" +
+            "var body = root.querySelector(bodySelector);\n" +
+            "if (body) {\n" +
+            "  for (var r = 0; r < body.rows.length && rowHeight === 0; r++) {\n" +
+            "    var row = body.rows[r];\n" +
+            "    if (String(row.className || '').indexOf(rowClass) >= 0) { rowHeight = row.offsetHeight; }\n" +
+            "  }\n" +
+            "}\n" +
+            "return {scrollTop: scroller.scrollTop, clientHeight: scroller.clientHeight,\n" +
+            "  scrollHeight: scroller.scrollHeight, rowHeight: rowHeight};";
+
+    private final String headerRowsSelector;
+    private final String bodySelector;
+    private final String rowClass;
+    private final String cellClass;
+    private final String selectedClass;
+    private final String spacerSelector;
+    private final String scrollerSelector;
+
+    private TableSnapshotReader(String headerRowsSelector, String bodySelector, String rowClass,
+                                String cellClass, String selectedClass, String spacerSelector,
+                                String scrollerSelector) {
+        this.headerRowsSelector = headerRowsSelector;
+        this.bodySelector = bodySelector;
+        this.rowClass = rowClass;
+        this.cellClass = cellClass;
+        this.selectedClass = selectedClass;
+        this.spacerSelector = spacerSelector;
+        this.scrollerSelector = scrollerSelector;
+    }
+
+    public TableSnapshot read(SelenideElement element) {
+        Object result = executeJavaScript(SNAPSHOT_SCRIPT, element.getWrappedElement(),
+                headerRowsSelector, bodySelector, rowClass, cellClass, selectedClass, spacerSelector);
+
+        return parse(result);
+    }
+
+    /**
+     * Creates a lazy stream of all the rows of the component. The component is scrolled on demand and rows
+     * are emitted in order of their index, see {@link LazyRowSpliterator}.
+     *
+     * @param element  component element
+     * @param pageSize maximum number of rows to scroll at once, 0 - scroll to the first not emitted row
+     * @return stream of rows
+     */
+    public Stream<RowSnapshot> stream(SelenideElement element, int pageSize) {
+        checkArgument(pageSize >= 0, "pageSize should not be negative");
+
+        return StreamSupport.stream(new LazyRowSpliterator(this, element, pageSize), false);
+    }
+
+    /**
+     * Scrolls the component body.
+     *
+     * @param element   component element
+     * @param scrollTop target scroll position, negative value to keep the current position
+     * @return scroll state after scrolling
+     */
+    ScrollState scroll(SelenideElement element, long scrollTop) {
+        Object result = executeJavaScript(SCROLL_SCRIPT, element.getWrappedElement(),
+                scrollerSelector, bodySelector, rowClass, scrollTop);
+
+        if (!(result instanceof Map)) {
+            return new ScrollState(0, 0, 0, 0);
+        }
+
+        Map<?, ?> state = (Map<?, ?>) result;
+        return new ScrollState(asLong(state.get("scrollTop")), asLong(state.get("clientHeight")),
+                asLong(state.get("scrollHeight")), asLong(state.get("rowHeight")));
+    }
+
+    @SuppressWarnings("unchecked")
+    static TableSnapshot parse(Object result) {
+        if (!(result instanceof Map)) {
+            throw new RuntimeException("Unable to read table snapshot, unexpected script result: " + result);
+        }
+
+        Map<String, Object> snapshot = (Map<String, Object>) result;
+
+        List<ColumnSnapshot> columns = new ArrayList<>();
+        for (Object column : asList(snapshot.get("columns"))) {
+            Map<String, Object> columnMap = (Map<String, Object>) column;
+            columns.add(new ColumnSnapshot((String) columnMap.get("id"), asString(columnMap.get("caption"))));
+        }
+
+        List<String> columnIds = new ArrayList<>(columns.size());
+        for (ColumnSnapshot column : columns) {
+            columnIds.add(column.getId());
+        }
+        columnIds = Collections.unmodifiableList(columnIds);
+
+        List<RowSnapshot> rows = new ArrayList<>();
+        for (Object row : asList(snapshot.get("rows"))) {
+            rows.add(parseRow((Map<String, Object>) row, columnIds));
+        }
+
+        return new TableSnapshot(columns, rows);
+    }
+
+    static RowSnapshot parseRow(Map<String, Object> row, List<String> columnIds) {
+        List<String> cells = new ArrayList<>();
+        for (Object cell : asList(row.get("cells"))) {
+            cells.add(asString(cell));
+        }
+
+        LinkedHashSet<String> styleClasses = new LinkedHashSet<>();
+        for (Object styleClass : asList(row.get("classes"))) {
+            styleClasses.add(asString(styleClass));
+        }
+
+        int index = ((Number) row.get("index")).intValue();
+        boolean selected = Boolean.TRUE.equals(row.get("selected"));
+
+        return new RowSnapshot(index, columnIds, cells, selected, styleClasses);
+    }
+
+    private static List<?> asList(Object value) {
+        return value instanceof List ? (List<?>) value : Collections.emptyList();
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? Math.round(((Number) value).doubleValue()) : 0;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    static final class ScrollState {
+        final long scrollTop;
+        final long clientHeight;
+        final long scrollHeight;
+        final long rowHeight;
+
+        ScrollState(long scrollTop, long clientHeight, long scrollHeight, long rowHeight) {
+            this.scrollTop = scrollTop;
+            this.clientHeight = clientHeight;
+            this.scrollHeight = scrollHeight;
+            this.rowHeight = rowHeight;
+        }
+
+        /**
+         * @return index of the first visible row
+         */
+        int getFirstVisibleIndex() {
+            return rowHeight > 0 ? (int) (scrollTop / rowHeight) : 0;
+        }
+    }
+}
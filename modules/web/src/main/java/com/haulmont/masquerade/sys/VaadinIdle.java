@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.Configuration;
+import org.openqa.selenium.TimeoutException;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+
+/**
+ * Checks whether Vaadin client-side engine has finished server round trips.
+ * <br>
+ * The client is idle if none of {@code window.vaadin.clients} is active and the loading indicator is hidden.
+ * Pages without Vaadin clients are considered idle once the loading indicator is hidden.
+ */
+public final class VaadinIdle {
+    /**
+     * JS function that returns true if the client is idle, shared with {@link ElementState}.
+     */
+    static final String IDLE_FUNCTION =
+            "function() {\n" +
+            "  var indicators = document.getElementsByClassName('v-loading-indicator');\n" +
+            "  for (var i = 0; i < indicators.length; i++) {\n" +
+            "    var indicator = indicators[i];\n" +
+            "    if (window.getComputedStyle(indicator).display !== 'none'\n" +
+            "        && (indicator.offsetWidth > 0 || indicator.offsetHeight > 0)) {\n" +
+            "      return false;\n" +
+            "    }\n" +
+            "  }\n" +
+            "  var clients = window.vaadin && window.vaadin.clients;\n" +
+            "  if (clients) {\n" +
+            "    for (var id in clients) {\n" +
+            "      var client = clients[id];\n" +
+            "      if (client && typeof client.isActive === 'function' && client.isActive()) {\n" +
+            "        return false;\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "  return true;\n" +
+            "}";
+
+    private static final String IDLE_SCRIPT = "return (" + IDLE_FUNCTION + ")();";
+
+    private VaadinIdle() {
+    }
+
+    /**
+     * @return true if there are no pending requests to the server
+     */
+    public static boolean isIdle() {
+        return Boolean.TRUE.equals(executeJavaScript(IDLE_SCRIPT));
+    }
+
+    /**
+     * Waits for Vaadin client to become idle during {@link Configuration#timeout}.
+     *
+     * @throws TimeoutException if the client is still active after timeout
+     */
+    public static void waitForIdle() {
+        waitForIdle(Configuration.timeout);
+    }
+
+    /**
+     * Waits for Vaadin client to become idle.
+     *
+     * @param timeoutMs timeout in milliseconds
+     * @throws TimeoutException if the client is still active after timeout
+     */
+    public static void waitForIdle(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!isIdle()) {
+            if (System.currentTimeMillis() >= deadline) {
+                throw new TimeoutException("Vaadin client is still active after " + timeoutMs + " ms");
+            }
+
+            try {
+                Thread.sleep(Configuration.pollingInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for Vaadin client", e);
+            }
+        }
+    }
+}
@@ -18,11 +18,14 @@ package com.haulmont.masquerade.sys.matchers;
 
 import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
+import com.haulmont.masquerade.base.SelenideElementWrapper;
 import com.haulmont.masquerade.conditions.Value;
 import com.haulmont.masquerade.conditions.ValueContains;
 import com.leacox.motif.matching.FluentMatching;
 import com.leacox.motif.matching.FluentMatchingR;
 
+import java.util.function.Function;
+
 import static com.google.common.base.Strings.nullToEmpty;
 import static com.haulmont.masquerade.Conditions.*;
 import static com.haulmont.masquerade.sys.VaadinClassNames.*;
@@ -30,9 +33,55 @@ import static com.haulmont.masquerade.sys.matchers.InstanceOfCases.hasType;
 import static com.leacox.motif.MatchesExact.eq;
 
 public final class ConditionCases {
+    /**
+     * Conditions supported by all the components.
+     */
+    public static final ConditionTable<SelenideElementWrapper<?>> COMPONENT =
+            ConditionTable.<SelenideElementWrapper<?>>builder()
+                    .when(ENABLED, c ->
+                            !c.getDelegate().has(disabledClass)
+                    )
+                    .when(DISABLED, c ->
+                            c.getDelegate().has(disabledClass)
+                    )
+                    .build();
+
     private ConditionCases() {
     }
 
+    /**
+     * Builds table of conditions supported by input fields.
+     *
+     * @param inputImpl accessor of the input element of a field
+     * @param <C>       type of component
+     * @return condition table
+     */
+    public static <C extends SelenideElementWrapper<?>> ConditionTable<C> fieldConditions(
+            Function<? super C, SelenideElement> inputImpl) {
+        return ConditionTable.<C>builder()
+                .when(Value.class, (c, v) -> {
+                    SelenideElement input = inputImpl.apply(c);
+                    String expectedValue = nullToEmpty(v.getExpectedValue());
+                    return input.is(Condition.visible) && input.has(Condition.exactValue(expectedValue));
+                })
+                .when(ValueContains.class, (c, v) -> {
+                    SelenideElement input = inputImpl.apply(c);
+                    String expectedValue = nullToEmpty(v.getExpectedValueSubstring());
+                    return input.is(Condition.visible) && input.has(Condition.value(expectedValue));
+                })
+                .include(COMPONENT)
+                .when(REQUIRED, c ->
+                        c.getDelegate().has(requiredClass)
+                )
+                .when(READONLY, c ->
+                        c.getDelegate().has(readonlyClass)
+                )
+                .when(EDITABLE, c ->
+                        !c.getDelegate().has(readonlyClass)
+                )
+                .build();
+    }
+
     public static FluentMatchingR<Condition, Boolean> componentApply(FluentMatching<Condition> matching,
                                                                      SelenideElement impl) {
         return matching
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys.matchers;
+
+import com.codeborne.selenide.Condition;
+import com.leacox.motif.MatchException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable dispatch table of condition checks of a component class. Replaces per-call motif matching in
+ * {@code apply(SpecificCondition)} and does not allocate on lookup.
+ * <br>
+ * Cases are matched in order of registration, as motif does: a constant case is matched by
+ * {@link Object#equals(Object)}, a type case - by {@link Class#isInstance(Object)}.
+ * <pre>
+ * private static final ConditionTable&lt;CheckBoxImpl&gt; CONDITIONS = ConditionTable.&lt;CheckBoxImpl&gt;builder()
+ *         .include(ConditionCases.COMPONENT)
+ *         .when(CHECKED, c -&gt; c.isChecked())
+ *         .when(Caption.class, (c, caption) -&gt; c.impl.has(exactText(caption.getCaption())))
+ *         .build();
+ * </pre>
+ *
+ * @param <C> type of component
+ */
+public final class ConditionTable<C> {
+    private final Map<Condition, Predicate<? super C>> constantCases;
+    // indexed access keeps lookups free of iterator allocation
+    private final List<TypeCase<? super C, ?>> typeCases;
+
+    private ConditionTable(Map<Condition, Predicate<? super C>> constantCases,
+                           List<TypeCase<? super C, ?>> typeCases) {
+        this.constantCases = constantCases;
+        this.typeCases = typeCases;
+    }
+
+    public static <C> Builder<C> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Checks the condition for the component.
+     *
+     * @param component component
+     * @param condition condition
+     * @return result of the matched case
+     * @throws MatchException if there is no case for the condition
+     */
+    public boolean apply(C component, Condition condition) {
+        Predicate<? super C> constantCase = constantCases.get(condition);
+        if (constantCase != null) {
+            return constantCase.test(component);
+        }
+
+        for (int i = 0; i < typeCases.size(); i++) {
+            TypeCase<? super C, ?> typeCase = typeCases.get(i);
+            if (typeCase.type.isInstance(condition)) {
+                return typeCase.test(component, condition);
+            }
+        }
+
+        throw new MatchException("No match found for " + condition);
+    }
+
+    /**
+     * @param condition condition
+     * @return true if the table has a case for the condition
+     */
+    public boolean supports(Condition condition) {
+        if (constantCases.containsKey(condition)) {
+            return true;
+        }
+
+        for (int i = 0; i < typeCases.size(); i++) {
+            if (typeCases.get(i).type.isInstance(condition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class TypeCase<C, T> {
+        private final Class<T> type;
+        private final BiPredicate<? super C, ? super T> predicate;
+
+        private TypeCase(Class<T> type, BiPredicate<? super C, ? super T> predicate) {
+            this.type = type;
+            this.predicate = predicate;
+        }
+
+        private boolean test(C component, Object condition) {
+            return predicate.test(component, type.cast(condition));
+        }
+    }
+
+    public static final class Builder<C> {
+        private final Map<Condition, Predicate<? super C>> constantCases = new HashMap<>();
+        private final List<TypeCase<? super C, ?>> typeCases = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a case for the condition constant.
+         *
+         * @param condition condition
+         * @param predicate check
+         * @return this builder
+         */
+        public Builder<C> when(Condition condition, Predicate<? super C> predicate) {
+            checkNotNull(condition);
+            checkNotNull(predicate);
+
+            // earlier cases win, as in motif
+            if (!constantCases.containsKey(condition) && !hasTypeCase(condition)) {
+                constantCases.put(condition, predicate);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a case for all the conditions of the type.
+         *
+         * @param type      condition type
+         * @param predicate check of the condition cast to the type
+         * @param <T>       condition type
+         * @return this builder
+         */
+        public <T> Builder<C> when(Class<T> type, BiPredicate<? super C, ? super T> predicate) {
+            checkNotNull(type);
+            checkNotNull(predicate);
+
+            typeCases.add(new TypeCase<>(type, predicate));
+            return this;
+        }
+
+        /**
+         * Adds all the cases of the table after the cases of this builder.
+         *
+         * @param table table
+         * @return this builder
+         */
+        public Builder<C> include(ConditionTable<? super C> table) {
+            return include0(table);
+        }
+
+        private <S> Builder<C> include0(ConditionTable<S> table) {
+            // constant cases of a table are always checked before its type cases
+            for (Map.Entry<Condition, Predicate<? super S>> entry : table.constantCases.entrySet()) {
+                @SuppressWarnings("unchecked")
+                Predicate<? super C> predicate = (Predicate<? super C>) entry.getValue();
+                when(entry.getKey(), predicate);
+            }
+            for (TypeCase<? super S, ?> typeCase : table.typeCases) {
+                @SuppressWarnings("unchecked")
+                TypeCase<? super C, ?> cast = (TypeCase<? super C, ?>) typeCase;
+                typeCases.add(cast);
+            }
+            return this;
+        }
+
+        private boolean hasTypeCase(Condition condition) {
+            for (TypeCase<? super C, ?> typeCase : typeCases) {
+                if (typeCase.type.isInstance(condition)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public ConditionTable<C> build() {
+            Map<Condition, Predicate<? super C>> cases = Collections.unmodifiableMap(new HashMap<>(constantCases));
+            return new ConditionTable<>(cases, Collections.unmodifiableList(new ArrayList<>(typeCases)));
+        }
+    }
+}
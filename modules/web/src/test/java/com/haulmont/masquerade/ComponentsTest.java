@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade;
+
+import com.haulmont.masquerade.composite.LoginWindow;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+
+import static com.haulmont.masquerade.Components.wire;
+import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.Selectors.byPath;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+
+public class ComponentsTest {
+
+    @Test
+    public void wireComposite() {
+        LoginWindow loginWindow = wire(LoginWindow.class, "loginWindow");
+
+        assertNotNull(loginWindow.getDelegate());
+        assertEquals(byPath("loginWindow"), loginWindow.getBy());
+        assertEquals(byChain(byPath("loginWindow"), byPath("loginField")).toString(),
+                loginWindow.getLoginField().getBy().toString());
+        assertEquals(byChain(byPath("loginWindow"), byPath("loginFormLayout", "loginButton")).toString(),
+                loginWindow.getLoginButton().getBy().toString());
+        assertNotNull(loginWindow.getWelcomeLabelTest());
+    }
+
+    @Test
+    public void componentsAreProxiedWithGeneratedClasses() {
+        LoginWindow loginWindow = wire(LoginWindow.class, "loginWindow");
+
+        assertFalse(Proxy.isProxyClass(loginWindow.getLoginField().getClass()));
+        assertFalse(Proxy.isProxyClass(loginWindow.getLocalesSelect().getClass()));
+        assertNotNull(loginWindow.getLocalesSelect().getDelegate());
+    }
+
+    @Test
+    public void rewireComposite() {
+        LoginWindow first = wire(LoginWindow.class, "first");
+        LoginWindow second = wire(LoginWindow.class, "second");
+
+        assertNotSame(first, second);
+        assertNotSame(first.getLoginField(), second.getLoginField());
+        assertEquals(byChain(byPath("second"), byPath("loginField")).toString(),
+                second.getLoginField().getBy().toString());
+    }
+}
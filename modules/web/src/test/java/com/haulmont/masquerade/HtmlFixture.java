@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade;
+
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.rules.ExternalResource;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Opens static HTML in HtmlUnit with JavaScript enabled and binds the driver to Selenide, so that scripts
+ * of components can be checked without a browser.
+ */
+public class HtmlFixture extends ExternalResource {
+    private HtmlUnitDriver driver;
+    private Path file;
+
+    @Override
+    protected void before() throws IOException {
+        driver = new HtmlUnitDriver(true);
+        file = Files.createTempFile("masquerade-fixture", ".html");
+
+        WebDriverRunner.setWebDriver(driver);
+    }
+
+    @Override
+    protected void after() {
+        WebDriverRunner.closeWebDriver();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to delete " + file, e);
+        }
+    }
+
+    public HtmlUnitDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Opens a page with the given body content.
+     *
+     * @param body HTML of the body
+     * @return driver
+     */
+    public HtmlUnitDriver open(String body) {
+        try {
+            Files.write(file, ("<!DOCTYPE html><html><head><meta charset=\"UTF-8\"></head><body>"
+                    + body + "</body></html>").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write " + file, e);
+        }
+
+        driver.get(file.toUri().toString());
+        return driver;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import org.junit.Test;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.Response;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets() {
+        for (long micros : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(micros);
+
+            assertTrue(LatencyHistogram.lowerBoundMicros(index) <= micros);
+            assertTrue(micros < LatencyHistogram.lowerBoundMicros(index + 1)
+                    || LatencyHistogram.lowerBoundMicros(index + 1) == Long.MAX_VALUE);
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(50500), histogram.getMeanNanos());
+
+        assertNear(TimeUnit.MILLISECONDS.toNanos(50), histogram.getPercentileNanos(50));
+        assertNear(TimeUnit.MILLISECONDS.toNanos(95), histogram.getPercentileNanos(95));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getPercentileNanos(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    public void commandsAttribution() throws Exception {
+        MasqueradeMetrics.reset();
+
+        TimedCommandExecutor executor = new TimedCommandExecutor(command -> new Response());
+        executor.execute(new Command(null, "findElement"));
+        try (MasqueradeMetrics.Scope ignored = MasqueradeMetrics.scope("LoginScreen")) {
+            executor.execute(new Command(null, "clickElement"));
+            executor.execute(new Command(null, "findElement"));
+        }
+
+        assertEquals(3, MasqueradeMetrics.getCommandCount());
+        assertEquals(2, MasqueradeMetrics.getCommands().get("findElement").getCount());
+        assertEquals(2, MasqueradeMetrics.getScopes().get("LoginScreen").getCount());
+        assertEquals(3, MasqueradeMetrics.getComponents().get("(none)").getCount());
+        assertTrue(MasqueradeMetrics.report().contains("LoginScreen"));
+
+        MasqueradeMetrics.reset();
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(expected - actual) <= expected / 16);
+    }
+}
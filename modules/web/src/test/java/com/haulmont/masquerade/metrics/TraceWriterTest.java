@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeEvents() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("timeline/test.json");
+
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("component", "loginField of \"login\\window\"\n");
+        args.put("commands", 2);
+
+        TraceWriter writer = new TraceWriter(file, 1000);
+        writer.write(new TraceEvent("TextField.setValue", "component", 1000, 2_501_000, 1, "main", args));
+        writer.write(new TraceEvent("sendKeysToElement", "webdriver", 2000, 1_002_000, 1, "main", null));
+        writer.close();
+
+        JsonObject trace = new JsonParser()
+                .parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        JsonArray events = trace.getAsJsonArray("traceEvents");
+
+        assertEquals(3, events.size());
+        assertEquals("thread_name", events.get(0).getAsJsonObject().get("name").getAsString());
+
+        JsonObject call = events.get(1).getAsJsonObject();
+        assertEquals(0, call.get("ts").getAsLong());
+        assertEquals(2500, call.get("dur").getAsLong());
+        assertEquals("loginField of \"login\\window\"\n",
+                call.getAsJsonObject("args").get("component").getAsString());
+        assertEquals(2, call.getAsJsonObject("args").get("commands").getAsInt());
+
+        assertEquals("webdriver", events.get(2).getAsJsonObject().get("cat").getAsString());
+    }
+
+    @Test
+    public void rejectEventsAfterClose() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("closed.json");
+
+        TraceWriter writer = new TraceWriter(file, 0);
+        assertTrue(writer.write(new TraceEvent("click", "webdriver", 0, 1000, 1, "main", null)));
+        writer.close();
+
+        assertFalse(writer.write(new TraceEvent("click", "webdriver", 0, 1000, 1, "main", null)));
+
+        JsonObject trace = new JsonParser()
+                .parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertEquals(2, trace.getAsJsonArray("traceEvents").size());
+    }
+
+    @Test(timeout = 10000)
+    public void discardEventsIfFileCannotBeWritten() throws Exception {
+        Path file = folder.newFile("parent").toPath().resolve("test.json");
+
+        TraceWriter writer = new TraceWriter(file, 0);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(writer.write(new TraceEvent("click", "webdriver", 0, 1000, 1, "main", null)));
+        }
+        writer.close();
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void digest() {
+        assertEquals("admin, null, 42", MasqueradeTimeline.digest(new Object[]{"admin", null, 42}));
+    }
+}
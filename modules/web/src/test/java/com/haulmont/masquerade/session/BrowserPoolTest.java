@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.session;
+
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BrowserPoolTest {
+
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger quit = new AtomicInteger();
+
+    @Test
+    public void reusesReleasedBrowser() {
+        try (BrowserPool pool = new BrowserPool(2, this::fakeDriver, driver -> {})) {
+            BrowserPool.Lease lease = pool.lease();
+            WebDriver driver = lease.getWebDriver();
+            assertSame(driver, WebDriverRunner.getWebDriver());
+            assertSame(lease, pool.getCurrentLease());
+            lease.close();
+
+            assertNull(pool.getCurrentLease());
+            assertEquals(1, pool.getIdleCount());
+
+            try (BrowserPool.Lease second = pool.lease()) {
+                assertSame(driver, second.getWebDriver());
+            }
+            assertEquals(1, started.get());
+        }
+        assertEquals(1, quit.get());
+    }
+
+    @Test
+    public void boundedByPoolSize() throws Exception {
+        try (BrowserPool pool = new BrowserPool(1, this::fakeDriver, driver -> {})) {
+            BrowserPool.Lease lease = pool.lease();
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> timedOut = executor.submit(() -> pool.lease(50, TimeUnit.MILLISECONDS));
+                try {
+                    timedOut.get();
+                    fail("Lease should time out");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof RuntimeException);
+                }
+
+                Future<WebDriver> waiting = executor.submit(() -> {
+                    try (BrowserPool.Lease other = pool.lease(5, TimeUnit.SECONDS)) {
+                        return other.getWebDriver();
+                    }
+                });
+                lease.close();
+
+                assertSame(lease.getWebDriver(), waiting.get());
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(1, started.get());
+        }
+    }
+
+    @Test
+    public void replacesBrowserIfCleanupFails() {
+        try (BrowserPool pool = new BrowserPool(1, this::fakeDriver, driver -> {
+            throw new IllegalStateException("dirty");
+        })) {
+            WebDriver first;
+            try (BrowserPool.Lease lease = pool.lease()) {
+                first = lease.getWebDriver();
+            }
+            assertEquals(1, quit.get());
+            assertEquals(0, pool.getOpenCount());
+
+            try (BrowserPool.Lease lease = pool.lease()) {
+                assertNotSame(first, lease.getWebDriver());
+            }
+            assertEquals(2, started.get());
+        }
+    }
+
+    @Test
+    public void prestartFillsPool() {
+        try (BrowserPool pool = new BrowserPool(3, this::fakeDriver, driver -> {})) {
+            BrowserPool.Lease lease = pool.lease();
+            pool.prestart();
+
+            assertEquals(3, pool.getOpenCount());
+            assertEquals(2, pool.getIdleCount());
+
+            lease.close();
+            pool.prestart();
+            assertEquals(3, started.get());
+        }
+        assertEquals(3, quit.get());
+    }
+
+    @Test
+    public void closeQuitsLeasedBrowserOnRelease() {
+        BrowserPool pool = new BrowserPool(2, this::fakeDriver, driver -> {});
+        BrowserPool.Lease lease = pool.lease();
+        pool.close();
+        assertEquals(0, quit.get());
+
+        lease.close();
+        assertEquals(1, quit.get());
+    }
+
+    @Test
+    public void parallelLeases() throws Exception {
+        int threads = 4;
+        try (BrowserPool pool = new BrowserPool(threads, this::fakeDriver, driver -> {})) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads * 25; i++) {
+                    futures.add(executor.submit(() -> {
+                        try (BrowserPool.Lease lease = pool.lease()) {
+                            assertSame(lease.getWebDriver(), WebDriverRunner.getWebDriver());
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertTrue(started.get() <= threads);
+        }
+    }
+
+    private WebDriver fakeDriver() {
+        started.incrementAndGet();
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "quit":
+                            quit.incrementAndGet();
+                            return null;
+                        case "getWindowHandle":
+                            return "main";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "FakeDriver@" + System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.session;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
+import com.haulmont.masquerade.HtmlFixture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+import static org.junit.Assert.*;
+
+public class BrowserSessionTest {
+    private static final String ADD_SCRIPT =
+            "var container = document.createElement('div');\n" +
+            "container.innerHTML = arguments[0];\n" +
+            "document.body.appendChild(container);";
+
+    @Rule
+    public HtmlFixture fixture = new HtmlFixture();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private String browser;
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        browser = Configuration.browser;
+        // restarted browsers are created by Selenide
+        Configuration.browser = "htmlunit";
+
+        Path page = folder.newFile("app.html").toPath();
+        Files.write(page, ("<!DOCTYPE html><html><head><meta charset=\"UTF-8\"></head>" +
+                "<body><div class='v-app'>Login</div></body></html>").getBytes(StandardCharsets.UTF_8));
+        url = page.toUri().toString();
+    }
+
+    @After
+    public void tearDown() {
+        Configuration.browser = browser;
+    }
+
+    @Test
+    public void startAndReset() {
+        BrowserSession session = session();
+
+        session.prepare();
+        assertEquals(1, logins.get());
+
+        add("<div class='v-window' style='width:100px;height:50px'>" +
+                "<div class='v-window-closebox' style='width:10px;height:10px'" +
+                " onclick='var w = this.parentNode; w.parentNode.removeChild(w)'></div></div>");
+        add("<div class='c-main-tabsheet'><div class='v-tabsheet-tabcontainer'>" +
+                "<span class='v-tabsheet-caption-close' onclick='this.parentNode.removeChild(this)'>x</span>" +
+                "<span class='v-tabsheet-caption-close' onclick='this.parentNode.removeChild(this)'>x</span>" +
+                "</div></div>");
+
+        session.prepare();
+
+        assertEquals(1, logins.get());
+        assertEquals(1, session.getResetCount());
+        assertEquals(0, session.getRecycleCount());
+        assertEquals(0L, ((Number) executeJavaScript("return document.querySelectorAll(" +
+                "'.v-window, .v-tabsheet-caption-close').length")).longValue());
+    }
+
+    @Test
+    public void recycleBlockedSession() {
+        BrowserSession session = session();
+        session.prepare();
+
+        add("<div class='v-window' style='width:100px;height:50px'>Unsaved changes</div>");
+        session.prepare();
+
+        assertRecycled(session);
+    }
+
+    @Test
+    public void recycleExpiredSession() {
+        BrowserSession session = session();
+        session.prepare();
+
+        add("<div class='v-Notification system'>Session expired</div>");
+        session.prepare();
+
+        assertRecycled(session);
+    }
+
+    @Test
+    public void recycleAfterLogout() {
+        BrowserSession session = session();
+        session.prepare();
+
+        executeJavaScript("var menu = document.querySelector('[cuba-id=\"mainMenu\"]');" +
+                " menu.parentNode.removeChild(menu);");
+        session.prepare();
+
+        assertRecycled(session);
+    }
+
+    @Test
+    public void recycleDirtySession() {
+        BrowserSession session = session();
+        session.prepare();
+
+        session.markDirty();
+        session.prepare();
+
+        assertRecycled(session);
+    }
+
+    @Test
+    public void restartUnavailableBrowser() {
+        AtomicInteger failures = new AtomicInteger(1);
+        BrowserSession session = new BrowserSession(url, this::login) {
+            @Override
+            protected String reset(WebDriver driver) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new WebDriverException("Browser is gone");
+                }
+                return super.reset(driver);
+            }
+        };
+        session.prepare();
+        WebDriver first = WebDriverRunner.getWebDriver();
+
+        session.prepare();
+
+        assertNotSame(first, WebDriverRunner.getWebDriver());
+        assertEquals(2, logins.get());
+        assertEquals(0, session.getRecycleCount());
+
+        session.prepare();
+        assertEquals(1, session.getResetCount());
+    }
+
+    private BrowserSession session() {
+        return new BrowserSession(url, this::login);
+    }
+
+    private void login() {
+        logins.incrementAndGet();
+        add("<div cuba-id='mainMenu'>Menu</div>");
+    }
+
+    private void add(String html) {
+        executeJavaScript(ADD_SCRIPT, html);
+    }
+
+    private void assertRecycled(BrowserSession session) {
+        assertEquals(2, logins.get());
+        assertEquals(1, session.getRecycleCount());
+        assertEquals(0, session.getResetCount());
+        assertEquals(1L, ((Number) executeJavaScript("return document.querySelectorAll(" +
+                "'[cuba-id=\"mainMenu\"]').length")).longValue());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.session;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Cookie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpCookie;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LoginBypassTest {
+    private HttpServer server;
+    private volatile String lastForm;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/cookie-login", exchange -> {
+            lastForm = read(exchange.getRequestBody());
+            exchange.getResponseHeaders().add("Set-Cookie", "JSESSIONID=abc123; Path=/app; HttpOnly");
+            exchange.getResponseHeaders().add("Location", "/app/");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/token-login", exchange -> {
+            byte[] body = "{\"access_token\":\"t0k3n\",\"token_type\":\"bearer\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/denied", exchange -> {
+            exchange.sendResponseHeaders(401, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void sessionCookieOfRedirect() {
+        List<HttpCookie> cookies = LoginBypass.postCredentials(url("/cookie-login"), "admin", "p&ss word");
+
+        assertEquals("username=admin&password=p%26ss+word", lastForm);
+        assertEquals(1, cookies.size());
+
+        Cookie cookie = LoginBypass.toSeleniumCookie(cookies.get(0));
+        assertEquals("JSESSIONID", cookie.getName());
+        assertEquals("abc123", cookie.getValue());
+        assertEquals("/app", cookie.getPath());
+        assertTrue(cookie.isHttpOnly());
+        assertNull(cookie.getExpiry());
+    }
+
+    @Test
+    public void accessTokenOfJsonResponse() {
+        List<HttpCookie> cookies = LoginBypass.postCredentials(url("/token-login"), "admin", "admin");
+
+        assertEquals(1, cookies.size());
+        assertEquals(LoginBypass.TOKEN_COOKIE, cookies.get(0).getName());
+        assertEquals("t0k3n", cookies.get(0).getValue());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectedCredentials() {
+        LoginBypass.postCredentials(url("/denied"), "admin", "wrong");
+    }
+
+    @Test
+    public void sameOrigin() {
+        URI target = URI.create("http://localhost:8080/app/#!/sec$User.browse");
+
+        assertTrue(LoginBypass.isSameOrigin("http://localhost:8080/app/", target));
+        assertFalse(LoginBypass.isSameOrigin("http://localhost:8081/app/", target));
+        assertFalse(LoginBypass.isSameOrigin("about:blank", target));
+        assertFalse(LoginBypass.isSameOrigin("data:,", target));
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.Selectors.ByChain;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.FindsByCssSelector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.haulmont.masquerade.Selectors.byChain;
+import static com.haulmont.masquerade.Selectors.byCubaId;
+import static com.haulmont.masquerade.Selectors.byPath;
+import static com.haulmont.masquerade.Selectors.byTarget;
+import static com.haulmont.masquerade.Selectors.byText;
+import static org.junit.Assert.assertEquals;
+
+public class ByChainCompilerTest {
+
+    @Test
+    public void cubaIdPathIsCompiledToCss() {
+        ByChain chain = (ByChain) byChain(byPath("a", "b"), byPath("c", "d"));
+
+        List<By> bys = ByChainCompiler.compileForDocument(chain.getBys());
+
+        assertEquals(Collections.singletonList(
+                By.cssSelector("[cuba-id='a'] [cuba-id='b'] [cuba-id='c'] [cuba-id='d']")), bys);
+    }
+
+    @Test
+    public void cssIsNotFusedForElementContext() {
+        ByChain chain = (ByChain) byPath("a", "b");
+
+        List<By> bys = ByChainCompiler.compileForElement(chain.getBys());
+
+        assertEquals(2, bys.size());
+    }
+
+    @Test
+    public void relativeXpathsAreFused() {
+        ByChain chain = (ByChain) byChain(byCubaId("table"), By.className("v-table-table"),
+                By.xpath(".//tr"), By.xpath("./td[2]"), byText("cell"));
+
+        List<By> bys = ByChainCompiler.compileForDocument(chain.getBys());
+
+        assertEquals(2, bys.size());
+        assertEquals(By.cssSelector("[cuba-id='table'] .v-table-table"), bys.get(0));
+        assertEquals(".//tr/td[2]" + ByChainCompiler.toXpath(byText("cell")).substring(1),
+                ByChainCompiler.toXpath(bys.get(1)));
+    }
+
+    @Test
+    public void customSelectorsAreNotCompiled() {
+        By target = byTarget(null);
+        ByChain chain = (ByChain) byChain(target, byCubaId("a"), By.xpath("(.//tr)[1]"), By.xpath("//td"));
+
+        List<By> bys = ByChainCompiler.compileForDocument(chain.getBys());
+
+        assertEquals(4, bys.size());
+        assertEquals(target, bys.get(0));
+    }
+
+    @Test
+    public void compiledChainIsResolvedWithSingleLookup() {
+        RecordingContext context = new RecordingContext();
+
+        byPath("a", "b", "c", "d").findElements(context);
+
+        assertEquals(Collections.singletonList("[cuba-id='a'] [cuba-id='b'] [cuba-id='c'] [cuba-id='d']"),
+                context.lookups);
+    }
+
+    private static class RecordingContext implements SearchContext, FindsByCssSelector {
+        private final List<String> lookups = new ArrayList<>();
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return by.findElements(this);
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            return by.findElement(this);
+        }
+
+        @Override
+        public WebElement findElementByCssSelector(String using) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<WebElement> findElementsByCssSelector(String using) {
+            lookups.add(using);
+            return new ArrayList<>();
+        }
+    }
+}
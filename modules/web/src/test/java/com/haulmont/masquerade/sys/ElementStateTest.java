@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.HtmlFixture;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ElementStateTest {
+    private static final ElementState VISIBLE = ElementState.builder()
+            .visible()
+            .build();
+
+    @Rule
+    public HtmlFixture fixture = new HtmlFixture();
+
+    @Test
+    public void nameListsChecks() {
+        ElementState state = ElementState.builder()
+                .visible()
+                .enabled()
+                .notReadonly()
+                .withoutClass("v-disabled")
+                .exactValue("admin")
+                .build();
+
+        assertEquals("visible, enabled, not readonly, no css class 'v-disabled', exact value 'admin'", state.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void emptyState() {
+        ElementState.builder().build();
+    }
+
+    @Test
+    public void visibility() {
+        fixture.open("<div id='shown' style='width:50px;height:20px'>a</div>" +
+                "<div id='hidden' style='display:none'>b</div>" +
+                "<div id='invisible' style='visibility:hidden;width:50px;height:20px'>c</div>" +
+                "<div id='transparent' style='opacity:0'><div id='inner' style='width:50px;height:20px'>d</div></div>" +
+                "<div id='empty' style='width:0;height:0'></div>");
+
+        assertTrue(VISIBLE.apply(element("shown")));
+        assertFalse(VISIBLE.apply(element("hidden")));
+        assertFalse(VISIBLE.apply(element("invisible")));
+        assertFalse(VISIBLE.apply(element("inner")));
+        assertFalse(VISIBLE.apply(element("empty")));
+    }
+
+    @Test
+    public void zeroSizeElementWithVisibleChild() {
+        fixture.open("<div id='wrapper' style='width:0;height:0'>" +
+                "<span style='display:block;width:50px;height:20px'>text</span></div>");
+
+        assertTrue(VISIBLE.apply(element("wrapper")));
+    }
+
+    @Test
+    public void overflowClipping() {
+        fixture.open("<div style='overflow:hidden;width:50px;height:20px;position:relative'>" +
+                "<div id='clipped' style='position:absolute;left:100px;top:0;width:10px;height:10px'>a</div>" +
+                "<div id='partial' style='position:absolute;left:45px;top:0;width:10px;height:10px'>b</div>" +
+                "</div>" +
+                "<div style='width:50px;height:20px;position:relative'>" +
+                "<div id='overflowing' style='position:absolute;left:100px;top:0;width:10px;height:10px'>c</div>" +
+                "</div>");
+
+        assertFalse(VISIBLE.apply(element("clipped")));
+        assertTrue(VISIBLE.apply(element("partial")));
+        assertTrue(VISIBLE.apply(element("overflowing")));
+    }
+
+    @Test
+    public void inputState() {
+        fixture.open("<input id='editable' value='admin'>" +
+                "<input id='readonly' readonly value='admin'>" +
+                "<input id='disabled' disabled value='admin'>");
+
+        assertTrue(ElementState.EDITABLE_INPUT.apply(element("editable")));
+        assertFalse(ElementState.EDITABLE_INPUT.apply(element("readonly")));
+        assertEquals("readonly", ElementState.EDITABLE_INPUT.actualValue(element("readonly")));
+        assertFalse(ElementState.EDITABLE_INPUT.apply(element("disabled")));
+        assertEquals("disabled", ElementState.EDITABLE_INPUT.actualValue(element("disabled")));
+
+        ElementState value = ElementState.builder()
+                .exactValue("admin")
+                .build();
+        assertTrue(value.apply(element("editable")));
+    }
+
+    @Test
+    public void classAndText() {
+        fixture.open("<div id='button' class='v-button v-disabled' style='width:50px;height:20px'>" +
+                "  Sign \n in </div>");
+
+        assertFalse(ElementState.VISIBLE_NOT_DISABLED.apply(element("button")));
+        assertEquals("css class 'v-disabled'", ElementState.VISIBLE_NOT_DISABLED.actualValue(element("button")));
+
+        ElementState state = ElementState.builder()
+                .visible()
+                .withClass("v-button")
+                .text("sign")
+                .exactText("sign in")
+                .build();
+        assertTrue(state.apply(element("button")));
+    }
+
+    private WebElement element(String id) {
+        return fixture.getDriver().findElement(By.id(id));
+    }
+}
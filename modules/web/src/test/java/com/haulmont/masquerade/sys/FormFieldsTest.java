@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.SelenideElement;
+import com.google.common.collect.ImmutableMap;
+import com.haulmont.masquerade.HtmlFixture;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openqa.selenium.By;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.codeborne.selenide.Selenide.$;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FormFieldsTest {
+    private static final String FORM = "<div id='form'>" +
+            "<input cuba-id='login' class='v-textfield' value='guest'>" +
+            "<textarea cuba-id='comment' class='v-textarea'></textarea>" +
+            "<span cuba-id='remember' class='v-checkbox'><input type='checkbox'></span>" +
+            "<div cuba-id='role' class='v-filterselect'><input class='v-filterselect-input' readonly></div>" +
+            "<div cuba-id='birthday' class='v-datefield'><input class='v-datefield-textfield' readonly></div>" +
+            "<div cuba-id='created' class='v-datefield'>" +
+            "<div class='v-datefield-popupcalendar'><input class='v-datefield-textfield'></div>" +
+            "<input class='v-maskedfield'></div>" +
+            "<input cuba-id='phone' class='v-maskedfield'>" +
+            "<input cuba-id='code' class='v-textfield' readonly>" +
+            "<input cuba-id='name' class='v-textfield v-readonly'>" +
+            "<input cuba-id='email' class='v-textfield' disabled>" +
+            "<input cuba-id='hidden' class='v-textfield' style='display:none'>" +
+            "</div>";
+
+    @Rule
+    public HtmlFixture fixture = new HtmlFixture();
+
+    @Test
+    public void kinds() {
+        fixture.open(FORM);
+
+        FormFields.FieldsEditable editable = new FormFields.FieldsEditable(Arrays.asList(
+                "login", "comment", "remember", "role", "birthday", "created", "phone"));
+
+        assertTrue(editable.apply(form().getWrappedElement()));
+        assertEquals(ImmutableMap.builder()
+                .put("login", "text")
+                .put("comment", "text")
+                .put("remember", "checkbox")
+                .put("role", "lookup")
+                .put("birthday", "date")
+                .put("created", "datetime")
+                .put("phone", "masked")
+                .build(), editable.getKinds());
+    }
+
+    @Test
+    public void notEditable() {
+        fixture.open(FORM);
+
+        FormFields.FieldsEditable editable = new FormFields.FieldsEditable(Arrays.asList(
+                "login", "code", "name", "email", "hidden", "missing"));
+
+        assertFalse(editable.apply(form().getWrappedElement()));
+        assertEquals("code readonly, name readonly, email disabled, hidden hidden, missing not found",
+                editable.actualValue(form().getWrappedElement()));
+    }
+
+    @Test
+    public void fillAndRead() {
+        fixture.open(FORM);
+
+        FormFields.fill(By.id("form"), ImmutableMap.of(
+                "login", "admin",
+                "comment", "Some text",
+                "remember", "true",
+                "phone", "555-0100",
+                "created", "01/02/2018 12:30"));
+
+        Map<String, String> values = FormFields.read(form());
+        assertEquals("admin", values.get("login"));
+        assertEquals("Some text", values.get("comment"));
+        assertEquals("true", values.get("remember"));
+        assertEquals("555-0100", values.get("phone"));
+        assertEquals("01/02/2018 12:30", values.get("created"));
+        assertEquals(Arrays.asList("login", "comment", "remember", "role", "birthday", "created", "phone",
+                "code", "name", "email", "hidden"), Arrays.asList(values.keySet().toArray()));
+    }
+
+    @Test
+    public void splitValue() {
+        assertArrayEquals(new String[]{" a b "}, FormFields.splitValue(" a b ", 1));
+        assertArrayEquals(new String[]{"01/02/2018", "12:30"}, FormFields.splitValue(" 01/02/2018  12:30", 2));
+        assertArrayEquals(new String[]{"01/02/2018", "12:30 PM"}, FormFields.splitValue("01/02/2018 12:30 PM", 2));
+        assertArrayEquals(new String[]{"01/02/2018", ""}, FormFields.splitValue("01/02/2018", 2));
+        assertArrayEquals(new String[]{"", ""}, FormFields.splitValue(null, 2));
+    }
+
+    private SelenideElement form() {
+        return $(By.id("form"));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.util.Log;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratedProxiesTest {
+
+    @Test
+    public void delegateToTarget() {
+        CounterImpl target = new CounterImpl();
+        Counter proxy = GeneratedProxies.createProxy(Counter.class, target,
+                new LoggingInvocationHandler(Counter.class, target));
+
+        assertFalse(Proxy.isProxyClass(proxy.getClass()));
+
+        assertSame(proxy, proxy.increment(2));
+        assertSame(proxy, proxy.incrementTwice());
+        assertEquals(4, proxy.get());
+        assertEquals(4, target.get());
+        assertEquals("counter 4", proxy.toString());
+        assertEquals(target.hashCode(), proxy.hashCode());
+    }
+
+    @Test
+    public void exceptionsAreNotWrapped() {
+        CounterImpl target = new CounterImpl();
+        Counter proxy = GeneratedProxies.createProxy(Counter.class, target,
+                new LoggingInvocationHandler(Counter.class, target));
+
+        try {
+            proxy.increment(-1);
+        } catch (IllegalArgumentException e) {
+            assertEquals("negative", e.getMessage());
+            return;
+        }
+        throw new AssertionError("Exception expected");
+    }
+
+    @Test
+    public void resultsArePostProcessed() {
+        CounterImpl target = new CounterImpl();
+        LoggingInvocationHandler handler = new LoggingInvocationHandler(Counter.class, target);
+        handler.setProxyFactory((interfaceClass, object) -> interfaceClass == Counter.class
+                ? GeneratedProxies.createProxy(Counter.class, (Counter) object,
+                        new LoggingInvocationHandler(Counter.class, object))
+                : object);
+
+        Counter proxy = GeneratedProxies.createProxy(Counter.class, target, handler);
+
+        Counter copy = proxy.copy();
+        assertTrue(copy.getClass().getName().endsWith("$MasqueradeProxy"));
+        assertEquals(0, copy.get());
+    }
+
+    public interface Counter {
+        @Log
+        Counter increment(int delta);
+
+        int get();
+
+        Counter copy();
+
+        default Counter incrementTwice() {
+            return increment(1).increment(1);
+        }
+    }
+
+    public static class CounterImpl implements Counter {
+        private int value;
+
+        @Override
+        public Counter increment(int delta) {
+            if (delta < 0) {
+                throw new IllegalArgumentException("negative");
+            }
+            value += delta;
+            return this;
+        }
+
+        @Override
+        public int get() {
+            return value;
+        }
+
+        @Override
+        public Counter copy() {
+            return new CounterImpl();
+        }
+
+        @Override
+        public String toString() {
+            return "counter " + value;
+        }
+    }
+}
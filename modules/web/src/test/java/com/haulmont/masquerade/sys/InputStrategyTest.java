@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.SelenideElement;
+import com.haulmont.masquerade.HtmlFixture;
+import com.haulmont.masquerade.components.MaskedField;
+import com.haulmont.masquerade.components.TextField;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openqa.selenium.By;
+
+import static com.codeborne.selenide.Selenide.$;
+import static org.junit.Assert.assertEquals;
+
+public class InputStrategyTest {
+    private static final String INPUTS = "<input id='login' value='guest'><input id='time'>" +
+            "<script>document.getElementById('login').addEventListener('change', function(e) {" +
+            " e.target.setAttribute('data-changed', 'true'); });</script>";
+
+    @Rule
+    public HtmlFixture fixture = new HtmlFixture();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(InputStrategy.PROPERTY_PREFIX);
+        System.clearProperty(InputStrategy.PROPERTY_PREFIX + ".TextField");
+        System.clearProperty(InputStrategy.PROPERTY_PREFIX + ".MaskedField");
+    }
+
+    @Test
+    public void keystrokesByDefault() {
+        assertEquals(InputStrategy.KEYSTROKES, InputStrategy.forComponent(TextField.class, false));
+        assertEquals(InputStrategy.KEYSTROKES, InputStrategy.forComponent(MaskedField.class, true));
+    }
+
+    @Test
+    public void globalStrategySkipsMaskedFields() {
+        System.setProperty(InputStrategy.PROPERTY_PREFIX, "javascript");
+
+        assertEquals(InputStrategy.JAVASCRIPT, InputStrategy.forComponent(TextField.class, false));
+        assertEquals(InputStrategy.KEYSTROKES, InputStrategy.forComponent(MaskedField.class, true));
+    }
+
+    @Test
+    public void componentStrategy() {
+        System.setProperty(InputStrategy.PROPERTY_PREFIX, "javascript");
+        System.setProperty(InputStrategy.PROPERTY_PREFIX + ".TextField", "Clipboard");
+        System.setProperty(InputStrategy.PROPERTY_PREFIX + ".MaskedField", "javascript");
+
+        assertEquals(InputStrategy.CLIPBOARD, InputStrategy.forComponent(TextField.class, false));
+        assertEquals(InputStrategy.JAVASCRIPT, InputStrategy.forComponent(MaskedField.class, true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedStrategy() {
+        System.setProperty(InputStrategy.PROPERTY_PREFIX + ".TextField", "telepathy");
+
+        InputStrategy.forComponent(TextField.class, false);
+    }
+
+    @Test
+    public void keystrokes() {
+        fixture.open(INPUTS);
+
+        SelenideElement login = $(By.id("login"));
+        InputStrategy.KEYSTROKES.setValue(login, "admin");
+        assertEquals("admin", login.getValue());
+
+        SelenideElement time = $(By.id("time"));
+        InputStrategy.KEYSTROKES.setMaskedValue(time, "12:30");
+        assertEquals("12:30", time.getValue());
+    }
+
+    @Test
+    public void javascript() {
+        fixture.open(INPUTS);
+
+        SelenideElement login = $(By.id("login"));
+        InputStrategy.JAVASCRIPT.setMaskedValue(login, "admin");
+
+        assertEquals("admin", login.getValue());
+        assertEquals("true", login.getAttribute("data-changed"));
+    }
+
+    @Test
+    public void setValueAndType() {
+        // restores the caption on blur and records the filter of key events, as VFilterSelect does
+        fixture.open("<input id='lookup' value='Administrators'>" +
+                "<script>var lookup = document.getElementById('lookup');" +
+                "lookup.addEventListener('blur', function() { lookup.value = 'Administrators'; });" +
+                "lookup.addEventListener('keyup', function() { lookup.setAttribute('data-filter', lookup.value); });" +
+                "</script>");
+
+        SelenideElement lookup = $(By.id("lookup"));
+        for (InputStrategy strategy : new InputStrategy[]{InputStrategy.JAVASCRIPT, InputStrategy.KEYSTROKES}) {
+            lookup.clear();
+            strategy.setValueAndType(lookup, "Users");
+
+            assertEquals(strategy.name(), "Users", lookup.getValue());
+            assertEquals(strategy.name(), "Users", lookup.getAttribute("data-filter"));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.snapshot.ColumnSnapshot;
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
+import com.haulmont.masquerade.sys.TableSnapshotReader.ScrollState;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LazyRowSpliteratorTest {
+
+    @Test
+    public void emitsAllRowsOnceInOrder() {
+        FakeTable table = new FakeTable(250, 10, 3);
+
+        assertEquals(indexes(250), emittedIndexes(table, 0));
+        // each scroll moves to the first not emitted row, i.e. the rendered rows after the visible ones are reused
+        assertTrue("Too many pages: " + table.reads, table.reads <= 250 / 13 + 2);
+    }
+
+    @Test
+    public void limitsScrollByPageSize() {
+        FakeTable table = new FakeTable(100, 10, 5);
+
+        assertEquals(indexes(100), emittedIndexes(table, 4));
+        for (int i = 1; i < table.scrolls.size(); i++) {
+            long step = table.scrolls.get(i) - table.scrolls.get(i - 1);
+            assertTrue("Scrolled by " + step, step <= 4 * FakeTable.ROW_HEIGHT);
+        }
+    }
+
+    @Test
+    public void tableShorterThanViewport() {
+        FakeTable table = new FakeTable(5, 10, 3);
+
+        assertEquals(indexes(5), emittedIndexes(table, 0));
+    }
+
+    @Test
+    public void emptyTable() {
+        FakeTable table = new FakeTable(0, 10, 3);
+
+        assertEquals(Collections.emptyList(), emittedIndexes(table, 0));
+        assertEquals(1, table.reads);
+    }
+
+    private static List<Integer> emittedIndexes(FakeTable table, int pageSize) {
+        return StreamSupport.stream(table.spliterator(pageSize), false)
+                .map(RowSnapshot::getIndex)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> indexes(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Lazy table that renders visible rows with a cache of rows before and after them.
+     */
+    private static class FakeTable {
+        static final long ROW_HEIGHT = 20;
+
+        final int rowCount;
+        final int visibleRows;
+        final int cacheRows;
+
+        final List<Long> scrolls = new ArrayList<>();
+        long scrollTop;
+        int reads;
+
+        FakeTable(int rowCount, int visibleRows, int cacheRows) {
+            this.rowCount = rowCount;
+            this.visibleRows = visibleRows;
+            this.cacheRows = cacheRows;
+        }
+
+        LazyRowSpliterator spliterator(int pageSize) {
+            return new LazyRowSpliterator(null, null, pageSize) {
+                @Override
+                protected ScrollState scroll(long top) {
+                    return FakeTable.this.scroll(top);
+                }
+
+                @Override
+                protected TableSnapshot readPage() {
+                    return read();
+                }
+
+                @Override
+                protected boolean isIdle() {
+                    return true;
+                }
+            };
+        }
+
+        ScrollState scroll(long top) {
+            long clientHeight = visibleRows * ROW_HEIGHT;
+            long scrollHeight = rowCount * ROW_HEIGHT;
+            if (top >= 0) {
+                scrollTop = Math.max(0, Math.min(top, scrollHeight - clientHeight));
+                scrolls.add(scrollTop);
+            }
+            return new ScrollState(scrollTop, clientHeight, scrollHeight, rowCount > 0 ? ROW_HEIGHT : 0);
+        }
+
+        TableSnapshot read() {
+            reads++;
+
+            int firstVisible = (int) (scrollTop / ROW_HEIGHT);
+            int from = Math.max(0, firstVisible - cacheRows);
+            int to = Math.min(rowCount, firstVisible + visibleRows + cacheRows);
+
+            List<String> columnIds = Collections.singletonList("login");
+            List<RowSnapshot> rows = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                rows.add(new RowSnapshot(i, columnIds, Collections.singletonList("user" + i), false,
+                        Collections.emptySet()));
+            }
+            return new TableSnapshot(Collections.singletonList(new ColumnSnapshot("login", "Login")), rows);
+        }
+    }
+}
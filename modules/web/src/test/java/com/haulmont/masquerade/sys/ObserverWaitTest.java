@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.ex.ElementShould;
+import com.haulmont.masquerade.HtmlFixture;
+import com.haulmont.masquerade.base.SelenideElementWrapper;
+import com.haulmont.masquerade.components.impl.ButtonImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openqa.selenium.By;
+
+import static com.codeborne.selenide.Selenide.$;
+import static com.haulmont.masquerade.Conditions.ENABLED;
+import static com.haulmont.masquerade.Conditions.VISIBLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ObserverWaitTest {
+    private static final ElementState VALUE = ElementState.builder()
+            .exactValue("admin")
+            .build();
+
+    @Rule
+    public HtmlFixture fixture = new HtmlFixture();
+
+    @Test
+    public void translateConditions() {
+        ButtonImpl button = new ButtonImpl(By.id("okBtn"));
+
+        ElementState state = ObserverWait.translate(button, VISIBLE, ENABLED, ElementState.builder()
+                .withClass("v-button-primary")
+                .build());
+
+        assertEquals("visible, no css class 'v-disabled', css class 'v-button-primary'", state.toString());
+        assertSame(ElementState.EDITABLE_INPUT, ObserverWait.translate(button, ElementState.EDITABLE_INPUT));
+    }
+
+    @Test
+    public void unsupportedConditions() {
+        SelenideElementWrapper<?> element = () -> null;
+
+        assertNull(ObserverWait.translate(new ButtonImpl(By.id("okBtn")), VISIBLE, Condition.text("OK")));
+        assertNull(ObserverWait.translate(element, ENABLED));
+        assertNull(ObserverWait.translate(element));
+    }
+
+    @Test
+    public void pollsWithGivenInterval() {
+        // value property changes do not cause DOM mutations and are found only by polling
+        fixture.open("<input id='login'>" +
+                "<script>setTimeout(function() { document.getElementById('login').value = 'admin'; }, 200);</script>");
+
+        long start = System.currentTimeMillis();
+        ObserverWait.waitFor($(By.id("login")), "have ", VALUE, 10000, 50);
+
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void timeout() {
+        fixture.open("<input id='login' value='guest'>");
+
+        try {
+            ObserverWait.waitFor($(By.id("login")), "have ", VALUE, 500, 50);
+            throw new AssertionError("ElementShould expected");
+        } catch (ElementShould e) {
+            assertTrue(e.getMessage().contains("value is not 'admin'"));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.HtmlFixture;
+import org.junit.Rule;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TableRowIndexTest {
+    private static final String TABLE =
+            "<div class='v-table'><div class='v-table-body'><table class='v-table-table'>" +
+            "<tr class='v-table-row'>" +
+            "<td class='v-table-cell-content'><div class='v-table-cell-wrapper'>admin</div></td>" +
+            "<td class='v-table-cell-content'>Administrator</td></tr>" +
+            "<tr class='v-table-row-odd'>" +
+            "<td class='v-table-cell-content'>anonymous</td>" +
+            "<td class='v-table-cell-content'>  Anonymous\n user </td></tr>" +
+            "<tr class='v-table-row'>" +
+            "<td class='v-table-cell-content'>jdoe</td>" +
+            "<td class='v-table-cell-content'>Administrator</td></tr>" +
+            "</table></div></div>" +
+            "<div class='outside'>admin</div>";
+
+    @Rule
+    public HtmlFixture fixture = new HtmlFixture();
+
+    @Test
+    public void findRows() {
+        WebElement table = open();
+
+        assertEquals(1, table.findElements(TableRowIndex.TABLE.rowsByText("admin")).size());
+        assertEquals("v-table-row-odd",
+                table.findElement(TableRowIndex.TABLE.rowsWithText("Anon")).getAttribute("class"));
+        assertEquals(2, table.findElements(TableRowIndex.TABLE.rowsByText("Administrator")).size());
+
+        List<WebElement> rows = table.findElements(TableRowIndex.TABLE.rowsByCells("jdoe", "Administrator"));
+        assertEquals(1, rows.size());
+        assertTrue(rows.get(0).getText().startsWith("jdoe"));
+    }
+
+    @Test
+    public void findCells() {
+        WebElement table = open();
+
+        // whitespace is normalized, text nodes outside of the table are not indexed
+        assertEquals(1, table.findElements(TableRowIndex.TABLE.cellsByText("Anonymous user")).size());
+        assertEquals(texts(table.findElements(TableRowIndex.TABLE.cellsWithText("nonym"))),
+                "anonymous, Anonymous user");
+    }
+
+    @Test
+    public void invalidatedOnChange() {
+        WebElement table = open();
+        assertEquals(1, table.findElements(TableRowIndex.TABLE.rowsByText("jdoe")).size());
+
+        // HtmlUnit notifies observers only about character data changes
+        ((JavascriptExecutor) fixture.getDriver()).executeScript(
+                "document.querySelectorAll('.v-table-row td')[2].firstChild.nodeValue = 'jsmith';");
+
+        assertEquals(0, table.findElements(TableRowIndex.TABLE.rowsByText("jdoe")).size());
+        assertEquals(1, table.findElements(TableRowIndex.TABLE.rowsByText("jsmith")).size());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void notFound() {
+        open().findElement(TableRowIndex.TABLE.rowsByText("nobody"));
+    }
+
+    @Test
+    public void selectorToString() {
+        assertEquals("By.indexedText: rows cells [admin, Administrator]",
+                TableRowIndex.TABLE.rowsByCells("admin", "Administrator").toString());
+        assertEquals("By.indexedText: cells contains [adm]", TableRowIndex.TABLE.cellsWithText("adm").toString());
+    }
+
+    private WebElement open() {
+        return fixture.open(TABLE).findElement(By.className("v-table"));
+    }
+
+    private static String texts(List<WebElement> elements) {
+        return elements.stream()
+                .map(WebElement::getText)
+                .collect(Collectors.joining(", "));
+    }
+}
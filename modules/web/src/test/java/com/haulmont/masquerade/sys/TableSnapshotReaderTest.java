@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys;
+
+import com.haulmont.masquerade.snapshot.RowSnapshot;
+import com.haulmont.masquerade.snapshot.TableSnapshot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TableSnapshotReaderTest {
+
+    @Test
+    public void parseScriptResult() {
+        TableSnapshot snapshot = TableSnapshotReader.parse(result(
+                row(10, false, "admin", "Administrator"),
+                row(11, true, "anonymous", "Anonymous")));
+
+        assertEquals(Arrays.asList("login", "name"), snapshot.getColumnIds());
+        assertEquals(Arrays.asList("Login", "Name"), snapshot.getColumnCaptions());
+        assertEquals(2, snapshot.size());
+        assertEquals(Arrays.asList("admin", "anonymous"), snapshot.getColumnValues("column_login"));
+        assertEquals("Administrator", snapshot.getRow(0).getCell("name"));
+        assertEquals(11, snapshot.getSelectedRows().get(0).getIndex());
+        assertTrue(snapshot.findRowByIndex(10).isPresent());
+        assertTrue(snapshot.getRow(1).hasStyleClass("v-selected"));
+    }
+
+    @Test
+    public void rowSnapshotCopiesLists() {
+        List<String> columnIds = new ArrayList<>(Arrays.asList("login", "name"));
+        List<String> cells = new ArrayList<>(Arrays.asList("admin", "Administrator"));
+        RowSnapshot row = new RowSnapshot(0, columnIds, cells, false, Collections.emptySet());
+
+        columnIds.set(0, "email");
+        cells.set(0, "anonymous");
+
+        assertEquals("admin", row.getCell("login"));
+        assertEquals(Arrays.asList("admin", "Administrator"), row.getCells());
+    }
+
+    @Test
+    public void diff() {
+        TableSnapshot before = TableSnapshotReader.parse(result(
+                row(0, false, "admin", "Administrator"),
+                row(1, false, "anonymous", "Anonymous")));
+        TableSnapshot after = TableSnapshotReader.parse(result(
+                row(1, true, "anonymous", "Anonymous"),
+                row(2, false, "user", "User")));
+
+        TableSnapshot.Diff diff = before.diff(after);
+
+        assertEquals(Collections.singletonList(0), indexes(diff.getRemoved()));
+        assertEquals(Collections.singletonList(1), indexes(diff.getChanged()));
+        assertEquals(Collections.singletonList(2), indexes(diff.getAdded()));
+        assertTrue(before.diff(before).isEmpty());
+        assertFalse(diff.isEmpty());
+    }
+
+    private static List<Integer> indexes(List<RowSnapshot> rows) {
+        return Arrays.asList(rows.stream().map(RowSnapshot::getIndex).toArray(Integer[]::new));
+    }
+
+    private static Map<String, Object> result(Map<?, ?>... rows) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("columns", Arrays.asList(column("login", "Login"), column("name", "Name")));
+        result.put("rows", Arrays.asList(rows));
+        return result;
+    }
+
+    private static Map<String, Object> column(String id, String caption) {
+        Map<String, Object> column = new HashMap<>();
+        column.put("id", id);
+        column.put("caption", caption);
+        return column;
+    }
+
+    private static Map<String, Object> row(long index, boolean selected, String... cells) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("index", index);
+        row.put("selected", selected);
+        row.put("cells", Arrays.asList(cells));
+        row.put("classes", selected
+                ? Arrays.asList("v-table-row", "v-selected")
+                : Collections.singletonList("v-table-row"));
+        return row;
+    }
+}
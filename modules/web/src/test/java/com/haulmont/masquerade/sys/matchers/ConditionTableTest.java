@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2017 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haulmont.masquerade.sys.matchers;
+
+import com.haulmont.masquerade.conditions.Caption;
+import com.haulmont.masquerade.conditions.SpecificCondition;
+import com.haulmont.masquerade.conditions.Value;
+import com.leacox.motif.MatchException;
+import org.junit.Test;
+
+import static com.haulmont.masquerade.Conditions.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConditionTableTest {
+
+    private static final ConditionTable<StringBuilder> BASE = ConditionTable.<StringBuilder>builder()
+            .when(ENABLED, sb -> sb.append("enabled").length() > 0)
+            .when(DISABLED, sb -> false)
+            .build();
+
+    @Test
+    public void dispatchByConstantAndType() {
+        ConditionTable<StringBuilder> table = ConditionTable.<StringBuilder>builder()
+                .include(BASE)
+                .when(Caption.class, (sb, c) -> sb.append(c.getCaption()).length() > 0)
+                .when(VISIBLE, sb -> true)
+                .build();
+
+        StringBuilder sb = new StringBuilder();
+        assertTrue(table.apply(sb, ENABLED));
+        assertFalse(table.apply(sb, DISABLED));
+        assertTrue(table.apply(sb, new Caption("OK")));
+        assertTrue(table.apply(sb, VISIBLE));
+
+        assertTrue("enabledOK".contentEquals(sb));
+    }
+
+    @Test
+    public void earlierCaseWins() {
+        SpecificCondition value = new Value("v");
+
+        ConditionTable<StringBuilder> table = ConditionTable.<StringBuilder>builder()
+                .when(ENABLED, sb -> true)
+                .when(ENABLED, sb -> false)
+                .when(SpecificCondition.class, (sb, c) -> true)
+                .when(value, sb -> false)
+                .when(Value.class, (sb, v) -> false)
+                .build();
+
+        assertTrue(table.apply(new StringBuilder(), ENABLED));
+        assertTrue(table.apply(new StringBuilder(), value));
+        assertTrue(table.apply(new StringBuilder(), new Value("other")));
+    }
+
+    @Test(expected = MatchException.class)
+    public void unsupportedCondition() {
+        assertFalse(BASE.supports(REQUIRED));
+
+        BASE.apply(new StringBuilder(), REQUIRED);
+    }
+}